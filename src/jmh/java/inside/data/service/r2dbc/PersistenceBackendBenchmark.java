@@ -0,0 +1,120 @@
+package inside.data.service.r2dbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.*;
+import io.r2dbc.spi.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.*;
+import reactor.core.scheduler.*;
+
+import java.util.concurrent.*;
+
+// lookups of concurrently handled events, blocking jdbc on a bounded pool (as PersistenceScheduler does)
+// against r2dbc with a connection pool of the same size; needs a postgres database:
+// -Dbench.url=jdbc:postgresql://localhost:5432/insidebot -Dbench.username=... -Dbench.password=...
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenceBackendBenchmark{
+
+    private static final int EVENTS = 1000;
+    private static final int ROWS = 10000;
+    private static final int POOL_SIZE = 10;
+
+    private static final String SELECT_SQL = """
+            select id, guild_id, source_message_id, target_message_id from bench_starboard
+            where guild_id = %s and source_message_id = %s
+            """;
+
+    private static final String JDBC_SELECT_SQL = SELECT_SQL.formatted("?", "?");
+    private static final String R2DBC_SELECT_SQL = SELECT_SQL.formatted("$1", "$2");
+
+    @Param({"16", "256"})
+    private int concurrency;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Scheduler scheduler;
+
+    private ConnectionPool connectionPool;
+    private DatabaseClient client;
+
+    @Setup
+    public void setup(){
+        String url = System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/insidebot");
+        String username = System.getProperty("bench.username", "postgres");
+        String password = System.getProperty("bench.password", "");
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(POOL_SIZE);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        scheduler = Schedulers.fromExecutorService(Executors.newFixedThreadPool(POOL_SIZE), "bench-jdbc");
+
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(
+                ConnectionFactoryOptions.parse(url.replaceFirst("^jdbc:", "r2dbc:")).mutate()
+                        .option(ConnectionFactoryOptions.USER, username)
+                        .option(ConnectionFactoryOptions.PASSWORD, password)
+                        .build()))
+                .initialSize(POOL_SIZE)
+                .maxSize(POOL_SIZE)
+                .build());
+        client = DatabaseClient.create(connectionPool);
+
+        jdbcTemplate.execute("""
+                create table if not exists bench_starboard(id bigint primary key, guild_id bigint not null,
+                source_message_id bigint not null, target_message_id bigint not null)
+                """);
+        jdbcTemplate.execute("truncate bench_starboard");
+        jdbcTemplate.execute("""
+                insert into bench_starboard select i, i % 100, i, i + 1 from generate_series(1, %d) i
+                """.formatted(ROWS));
+        jdbcTemplate.execute("create index if not exists bench_starboard_source on bench_starboard(guild_id, source_message_id)");
+        jdbcTemplate.execute("analyze bench_starboard");
+    }
+
+    @TearDown
+    public void tearDown(){
+        jdbcTemplate.execute("drop table if exists bench_starboard");
+        connectionPool.dispose();
+        scheduler.dispose();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public Long jdbc(){
+        return Flux.range(0, EVENTS)
+                .flatMap(i -> Mono.fromSupplier(() -> {
+                    long sourceMessageId = ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+                    return jdbcTemplate.query(JDBC_SELECT_SQL,
+                            (rs, rowNum) -> rs.getLong("target_message_id"),
+                            sourceMessageId % 100, sourceMessageId).get(0);
+                }).subscribeOn(scheduler), concurrency)
+                .reduce(Long::sum)
+                .block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public Long r2dbc(){
+        return Flux.range(0, EVENTS)
+                .flatMap(i -> {
+                    long sourceMessageId = ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+                    return client.sql(R2DBC_SELECT_SQL)
+                            .bind(0, sourceMessageId % 100)
+                            .bind(1, sourceMessageId)
+                            .map((row, metadata) -> row.get("target_message_id", Long.class))
+                            .one();
+                }, concurrency)
+                .reduce(Long::sum)
+                .block();
+    }
+}
@@ -0,0 +1,75 @@
+package inside.data.type.descriptor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import discord4j.discordjson.Id;
+import discord4j.discordjson.json.EmojiData;
+import inside.audit.AuditActionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+// cost of the json columns of one entity on load (snapshot copy) and flush (dirty check)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonTypeDescriptorBenchmark{
+
+    private Object[] values;
+    private Type[] types;
+    private JsonTypeDescriptor[] descriptors;
+
+    @Setup
+    public void setup(){
+        Set<Id> roleIds = LongStream.range(0, 12)
+                .mapToObj(i -> Id.of(747893115980873838L + i))
+                .collect(Collectors.toCollection(HashSet::new));
+        Set<AuditActionType> types = EnumSet.allOf(AuditActionType.class);
+        List<String> prefixes = List.of("$", "!", "inside ");
+        List<EmojiData> emojis = List.of(
+                EmojiData.builder().name("⭐").build(),
+                EmojiData.builder().id(Id.of(852799584863993856L)).name("star_struck").build());
+
+        values = new Object[]{new HashSet<>(roleIds), EnumSet.copyOf(types), new ArrayList<>(prefixes), new ArrayList<>(emojis)};
+        // the declared property types, as hibernate passes them to the descriptor
+        types = new Type[]{
+                new TypeReference<Set<Id>>(){}.getType(),
+                new TypeReference<Set<AuditActionType>>(){}.getType(),
+                new TypeReference<List<String>>(){}.getType(),
+                new TypeReference<List<EmojiData>>(){}.getType()
+        };
+        descriptors = Arrays.stream(types).map(JsonTypeDescriptorBenchmark::descriptor)
+                .toArray(JsonTypeDescriptor[]::new);
+    }
+
+    private static JsonTypeDescriptor descriptor(Type type){
+        JsonTypeDescriptor descriptor = new JsonTypeDescriptor();
+        descriptor.configure(type);
+        return descriptor;
+    }
+
+    // the previous implementation: string round trips into the declared type for copies,
+    // string round trips into trees for equality
+    @Benchmark
+    public void jsonRoundTrip(Blackhole blackhole){
+        for(int i = 0; i < values.length; i++){
+            Object snapshot = JacksonUtil.fromJson(JacksonUtil.toJson(values[i]), types[i]);
+            blackhole.consume(JacksonUtil.toJsonNode(values[i]).equals(JacksonUtil.toJsonNode(snapshot)));
+        }
+    }
+
+    @Benchmark
+    public void typeAware(Blackhole blackhole){
+        for(int i = 0; i < values.length; i++){
+            JsonTypeDescriptor descriptor = descriptors[i];
+            Object snapshot = descriptor.getMutabilityPlan().deepCopy(values[i]);
+            blackhole.consume(descriptor.areEqual(values[i], snapshot));
+        }
+    }
+}
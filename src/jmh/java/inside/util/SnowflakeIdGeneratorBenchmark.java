@@ -0,0 +1,60 @@
+package inside.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// id throughput of all hibernate inserts funnelled through one generator, run with -t to vary the contention
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark{
+    private static final long EPOCH = 1598384634000L;
+
+    private final SynchronizedIdGenerator synchronizedGenerator = new SynchronizedIdGenerator();
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 0, 0);
+
+    @Benchmark
+    public long synchronizedNextId(){
+        return synchronizedGenerator.nextId();
+    }
+
+    @Benchmark
+    public long casNextId(){
+        return generator.nextId();
+    }
+
+    // amortized per id, one reservation for a message info flush batch
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public long[] casBlockOf100(){
+        return generator.nextIds(100);
+    }
+
+    // the previous implementation: one monitor, spins on the clock when the sequence is exhausted
+    static class SynchronizedIdGenerator{
+        private long lastTimestamp = -1L;
+        private long sequence = 0;
+
+        synchronized long nextId(){
+            long timestamp = System.currentTimeMillis();
+            if(lastTimestamp == timestamp){
+                sequence = sequence + 1 & 4095L;
+                if(sequence == 0){
+                    while(timestamp <= lastTimestamp){
+                        timestamp = System.currentTimeMillis();
+                    }
+                }
+            }else{
+                sequence = 0;
+            }
+
+            lastTimestamp = timestamp;
+            return timestamp - EPOCH << 22 | sequence;
+        }
+    }
+}
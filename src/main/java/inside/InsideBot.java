@@ -1,9 +1,14 @@
 package inside;
 
 import inside.data.cache.*;
+import inside.data.service.PersistenceScheduler;
+import inside.data.type.SnowflakeGenerator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.r2dbc.*;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.*;
@@ -12,14 +17,14 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
-import java.util.function.Function;
-
 @EntityScan("inside.data.entity")
 @EnableJpaRepositories("inside.data.repository")
 @ConfigurationPropertiesScan("inside")
 @EnableScheduling
 @EnableTransactionManagement
-@SpringBootApplication(nameGenerator = FullyQualifiedAnnotationBeanNameGenerator.class)
+// the r2dbc connection factory is only created for the r2dbc backend, see R2dbcConfiguration
+@SpringBootApplication(nameGenerator = FullyQualifiedAnnotationBeanNameGenerator.class,
+        exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class InsideBot{
 
     public static void main(String[] args){
@@ -27,8 +32,19 @@ public class InsideBot{
     }
 
     @Bean
-    public EntityCacheManager cacheManager(){
-        return new CaffeineEntityCacheManager(Function.identity());
+    public CaffeineEntityCacheManager cacheManager(Settings settings, ObjectProvider<PersistenceScheduler> persistenceScheduler){
+        // a sync load holds a connection, so it runs on the persistence pool and shares its budget;
+        // resolved on the first load, the scheduler is metered by the registry this manager is bound to
+        return new CaffeineEntityCacheManager(settings.getCache().getAbsentExpire(),
+                command -> persistenceScheduler.getObject().executor().execute(command));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer snowflakeProperties(Settings settings){
+        return properties -> {
+            properties.put(SnowflakeGenerator.WORKER_ID, settings.getPersistence().getWorkerId());
+            properties.put(SnowflakeGenerator.PROCESS_ID, settings.getPersistence().getProcessId());
+        };
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package inside;
 
 import discord4j.rest.util.Color;
+import inside.data.cache.CachePolicy;
 import inside.data.entity.AdminActionType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -20,6 +21,8 @@ public class Settings{
 
     private final Cache cache = new Cache();
 
+    private final Persistence persistence = new Persistence();
+
     public String getToken(){
         return token;
     }
@@ -44,6 +47,10 @@ public class Settings{
         return cache;
     }
 
+    public Persistence getPersistence(){
+        return persistence;
+    }
+
     public static class Discord{
 
         private int maxClearedCount = 100;
@@ -54,6 +61,9 @@ public class Settings{
 
         private Duration errorEmbedTtl = Duration.ofSeconds(7);
 
+        // reaction updates of a starboard message within it are sent as one edit
+        private Duration starboardEditWindow = Duration.ofSeconds(2);
+
         private String openweatherApiKey;
 
         public int getMaxClearedCount(){
@@ -88,6 +98,14 @@ public class Settings{
             this.errorEmbedTtl = errorEmbedTtl;
         }
 
+        public Duration getStarboardEditWindow(){
+            return starboardEditWindow;
+        }
+
+        public void setStarboardEditWindow(Duration starboardEditWindow){
+            this.starboardEditWindow = starboardEditWindow;
+        }
+
         public String getOpenweatherApiKey(){
             return openweatherApiKey;
         }
@@ -226,6 +244,18 @@ public class Settings{
 
         private Duration memberKeep = Duration.ofDays(365);
 
+        // how long the first queued entry of a log channel waits for others to share its message
+        private Duration flushInterval = Duration.ofSeconds(3);
+
+        // entries per log channel, newer ones are dropped while it's full
+        private int queueCapacity = 200;
+
+        // posts the count of dropped entries with the next batch
+        private boolean summarizeDropped = true;
+
+        // the guild owner is told about a log channel without the send permission at most once within it
+        private Duration permissionNoticeInterval = Duration.ofHours(6);
+
         public Duration getHistoryKeep(){
             return historyKeep;
         }
@@ -241,108 +271,272 @@ public class Settings{
         public void setMemberKeep(Duration memberKeep){
             this.memberKeep = memberKeep;
         }
+
+        public Duration getFlushInterval(){
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval){
+            this.flushInterval = flushInterval;
+        }
+
+        public int getQueueCapacity(){
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity){
+            this.queueCapacity = queueCapacity;
+        }
+
+        public boolean isSummarizeDropped(){
+            return summarizeDropped;
+        }
+
+        public void setSummarizeDropped(boolean summarizeDropped){
+            this.summarizeDropped = summarizeDropped;
+        }
+
+        public Duration getPermissionNoticeInterval(){
+            return permissionNoticeInterval;
+        }
+
+        public void setPermissionNoticeInterval(Duration permissionNoticeInterval){
+            this.permissionNoticeInterval = permissionNoticeInterval;
+        }
     }
 
     public static class Cache{
 
-        private boolean activityConfig = true;
-        private boolean adminConfig = true;
-        private boolean auditConfig = true;
-        private boolean emojiDispenser = true;
-        private boolean guildConfig = true;
-        private boolean localMember = true;
-        private boolean starboard = true;
-        private boolean starboardConfig = true;
-        private boolean welcomeMessage = true;
-        private boolean poll = true;
-        private boolean commandConfig = true;
+        // every per-guild config as one entry
+        private final CachePolicy guildSettings = new CachePolicy();
+
+        private final CachePolicy emojiDispenser = new CachePolicy();
+
+        private final CachePolicy localMember = new CachePolicy();
+
+        private final CachePolicy starboard = new CachePolicy();
+
+        // reaction counts of starred messages, not an entity cache
+        private final CachePolicy starboardTally = new CachePolicy();
+
+        private final CachePolicy welcomeMessage = new CachePolicy();
+
+        private final CachePolicy poll = new CachePolicy();
 
-        public boolean isActivityConfig(){
-            return activityConfig;
+        private final CachePolicy commandConfig = new CachePolicy();
+
+        // resolved audit log channels, not an entity cache
+        private final CachePolicy auditSink = new CachePolicy();
+
+        // how long a missing row is remembered
+        private Duration absentExpire = Duration.ofMinutes(10);
+
+        public CachePolicy getGuildSettings(){
+            return guildSettings;
+        }
+
+        public CachePolicy getEmojiDispenser(){
+            return emojiDispenser;
         }
 
-        public void setActivityConfig(boolean activityConfig){
-            this.activityConfig = activityConfig;
+        public CachePolicy getLocalMember(){
+            return localMember;
         }
 
-        public boolean isAdminConfig(){
-            return adminConfig;
+        public CachePolicy getStarboard(){
+            return starboard;
         }
 
-        public void setAdminConfig(boolean adminConfig){
-            this.adminConfig = adminConfig;
+        public CachePolicy getStarboardTally(){
+            return starboardTally;
         }
 
-        public boolean isAuditConfig(){
-            return auditConfig;
+        public CachePolicy getWelcomeMessage(){
+            return welcomeMessage;
         }
 
-        public void setAuditConfig(boolean auditConfig){
-            this.auditConfig = auditConfig;
+        public CachePolicy getPoll(){
+            return poll;
         }
 
-        public boolean isEmojiDispenser(){
-            return emojiDispenser;
+        public CachePolicy getCommandConfig(){
+            return commandConfig;
         }
 
-        public void setEmojiDispenser(boolean emojiDispenser){
-            this.emojiDispenser = emojiDispenser;
+        public CachePolicy getAuditSink(){
+            return auditSink;
         }
 
-        public boolean isGuildConfig(){
-            return guildConfig;
+        public Duration getAbsentExpire(){
+            return absentExpire;
         }
 
-        public void setGuildConfig(boolean guildConfig){
-            this.guildConfig = guildConfig;
+        public void setAbsentExpire(Duration absentExpire){
+            this.absentExpire = absentExpire;
         }
+    }
 
-        public boolean isLocalMember(){
-            return localMember;
+    public static class Persistence{
+
+        private Backend backend = Backend.jpa;
+
+        private int r2dbcPoolSize = 10;
+
+        // snowflake node of this instance, unique among the instances sharing the database
+        private int workerId;
+
+        private int processId;
+
+        // 0 means the data source pool size
+        private int poolSize;
+
+        private int queueCapacity = 10000;
+
+        // writes of an event are committed after this even if its handler hasn't completed yet
+        private Duration unitOfWorkTimeout = Duration.ofSeconds(5);
+
+        private Duration activityFlushInterval = Duration.ofSeconds(10);
+
+        private int activityBatchSize = 500;
+
+        private Duration messageInfoFlushInterval = Duration.ofSeconds(2);
+
+        private int messageInfoBatchSize = 100;
+
+        private int messageInfoQueueCapacity = 5000;
+
+        // days of message_info partitions created in advance
+        private int messageInfoPartitionsAhead = 7;
+
+        private int purgeChunkSize = 500;
+
+        // 0 disables throttling
+        private int purgeRowsPerSecond = 2000;
+
+        public Backend getBackend(){
+            return backend;
         }
 
-        public void setLocalMember(boolean localMember){
-            this.localMember = localMember;
+        public void setBackend(Backend backend){
+            this.backend = backend;
         }
 
-        public boolean isStarboard(){
-            return starboard;
+        public int getR2dbcPoolSize(){
+            return r2dbcPoolSize;
         }
 
-        public void setStarboard(boolean starboard){
-            this.starboard = starboard;
+        public void setR2dbcPoolSize(int r2dbcPoolSize){
+            this.r2dbcPoolSize = r2dbcPoolSize;
         }
 
-        public boolean isStarboardConfig(){
-            return starboardConfig;
+        public int getWorkerId(){
+            return workerId;
         }
 
-        public void setStarboardConfig(boolean starboardConfig){
-            this.starboardConfig = starboardConfig;
+        public void setWorkerId(int workerId){
+            this.workerId = workerId;
         }
 
-        public boolean isWelcomeMessage(){
-            return welcomeMessage;
+        public int getProcessId(){
+            return processId;
         }
 
-        public void setWelcomeMessage(boolean welcomeMessage){
-            this.welcomeMessage = welcomeMessage;
+        public void setProcessId(int processId){
+            this.processId = processId;
         }
 
-        public boolean isPoll(){
-            return poll;
+        public int getPoolSize(){
+            return poolSize;
         }
 
-        public void setPoll(boolean poll){
-            this.poll = poll;
+        public void setPoolSize(int poolSize){
+            this.poolSize = poolSize;
         }
 
-        public boolean isCommandConfig(){
-            return commandConfig;
+        public int getQueueCapacity(){
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity){
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getUnitOfWorkTimeout(){
+            return unitOfWorkTimeout;
+        }
+
+        public void setUnitOfWorkTimeout(Duration unitOfWorkTimeout){
+            this.unitOfWorkTimeout = unitOfWorkTimeout;
+        }
+
+        public Duration getActivityFlushInterval(){
+            return activityFlushInterval;
+        }
+
+        public void setActivityFlushInterval(Duration activityFlushInterval){
+            this.activityFlushInterval = activityFlushInterval;
+        }
+
+        public int getActivityBatchSize(){
+            return activityBatchSize;
+        }
+
+        public void setActivityBatchSize(int activityBatchSize){
+            this.activityBatchSize = activityBatchSize;
+        }
+
+        public Duration getMessageInfoFlushInterval(){
+            return messageInfoFlushInterval;
+        }
+
+        public void setMessageInfoFlushInterval(Duration messageInfoFlushInterval){
+            this.messageInfoFlushInterval = messageInfoFlushInterval;
+        }
+
+        public int getMessageInfoBatchSize(){
+            return messageInfoBatchSize;
+        }
+
+        public void setMessageInfoBatchSize(int messageInfoBatchSize){
+            this.messageInfoBatchSize = messageInfoBatchSize;
+        }
+
+        public int getMessageInfoQueueCapacity(){
+            return messageInfoQueueCapacity;
+        }
+
+        public void setMessageInfoQueueCapacity(int messageInfoQueueCapacity){
+            this.messageInfoQueueCapacity = messageInfoQueueCapacity;
+        }
+
+        public int getMessageInfoPartitionsAhead(){
+            return messageInfoPartitionsAhead;
+        }
+
+        public void setMessageInfoPartitionsAhead(int messageInfoPartitionsAhead){
+            this.messageInfoPartitionsAhead = messageInfoPartitionsAhead;
+        }
+
+        public int getPurgeChunkSize(){
+            return purgeChunkSize;
+        }
+
+        public void setPurgeChunkSize(int purgeChunkSize){
+            this.purgeChunkSize = purgeChunkSize;
+        }
+
+        public int getPurgeRowsPerSecond(){
+            return purgeRowsPerSecond;
+        }
+
+        public void setPurgeRowsPerSecond(int purgeRowsPerSecond){
+            this.purgeRowsPerSecond = purgeRowsPerSecond;
         }
 
-        public void setCommandConfig(boolean commandConfig){
-            this.commandConfig = commandConfig;
+        // storage of the hot entities, configs and maintenance jobs always use jpa/jdbc
+        public enum Backend{
+            jpa,
+            r2dbc
         }
     }
 }
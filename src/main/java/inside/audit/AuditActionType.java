@@ -2,6 +2,7 @@ package inside.audit;
 
 import discord4j.rest.util.Color;
 
+// stored as a bitmask of ordinals in audit_config.types, only append new constants
 public enum AuditActionType{
     MESSAGE_CREATE(0x1337), // unused
     MESSAGE_EDIT(0x32cd32),
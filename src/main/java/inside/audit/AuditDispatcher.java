@@ -0,0 +1,258 @@
+package inside.audit;
+
+import discord4j.core.object.entity.channel.GuildMessageChannel;
+import discord4j.core.spec.*;
+import discord4j.discordjson.possible.Possible;
+import discord4j.rest.http.client.ClientException;
+import inside.Settings;
+import inside.service.MessageService;
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.*;
+import reactor.util.annotation.Nullable;
+import reactor.util.context.ContextView;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// packs the audit entries of a log channel into messages of up to 10 embeds,
+// one message per channel is in flight so a busy guild stays within the channel rate limit
+@Component
+public class AuditDispatcher{
+    private static final Logger log = Loggers.getLogger(AuditDispatcher.class);
+
+    // discord limits of a single message
+    private static final int MAX_EMBEDS = 10;
+    private static final int MAX_FILES = 10;
+    private static final int MAX_EMBED_CHARACTERS = 6000;
+
+    private final ConcurrentHashMap<Long, ChannelQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final MessageService messageService;
+    private final AuditSinkCache auditSinkCache;
+    private final Settings settings;
+
+    private final Timer latency;
+    private final DistributionSummary batchSize;
+    private final Counter sent;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public AuditDispatcher(@Autowired MessageService messageService, @Autowired AuditSinkCache auditSinkCache,
+                           @Autowired Settings settings, @Autowired MeterRegistry meterRegistry){
+        this.messageService = messageService;
+        this.auditSinkCache = auditSinkCache;
+        this.settings = settings;
+
+        Gauge.builder("insidebot.audit.queue.depth", depth, AtomicInteger::get)
+                .register(meterRegistry);
+        this.latency = Timer.builder("insidebot.audit.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("insidebot.audit.batch.size")
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("insidebot.audit.entries", "result", "sent");
+        this.dropped = meterRegistry.counter("insidebot.audit.entries", "result", "dropped");
+        this.failed = meterRegistry.counter("insidebot.audit.entries", "result", "failed");
+    }
+
+    // the entry is sent with the next batch of the channel, the context is used for the dropped summary
+    public void submit(GuildMessageChannel channel, ContextView context, EmbedCreateSpec embed,
+                       List<MessageCreateFields.File> files){
+        ChannelQueue queue = queues.computeIfAbsent(channel.getId().asLong(), id -> new ChannelQueue());
+        Entry entry = new Entry(embed, files, length(embed), System.nanoTime());
+        boolean flushNow = false;
+        long generation;
+        synchronized(queue){
+            queue.channel = channel;
+            queue.context = context;
+            if(queue.entries.size() >= settings.getAudit().getQueueCapacity()){
+                queue.dropped++;
+                dropped.increment();
+                return;
+            }
+
+            queue.entries.add(entry);
+            depth.incrementAndGet();
+            if(!queue.active){
+                queue.active = true;
+                flushNow = queue.entries.size() >= MAX_EMBEDS;
+                if(!flushNow){
+                    schedule(queue);
+                }
+            }else if(queue.timer != null && queue.entries.size() >= MAX_EMBEDS){ // flushes on size
+                queue.timer.dispose();
+                queue.timer = null;
+                queue.generation++;
+                flushNow = true;
+            }
+            generation = queue.generation;
+        }
+
+        if(flushNow){
+            flush(queue, generation);
+        }
+    }
+
+    // called with the queue lock held
+    private void schedule(ChannelQueue queue){
+        long generation = ++queue.generation;
+        queue.timer = Mono.delay(settings.getAudit().getFlushInterval())
+                .subscribe(ignored -> flush(queue, generation));
+    }
+
+    // the generation tells apart a timer that fired while it was being replaced
+    private void flush(ChannelQueue queue, long generation){
+        GuildMessageChannel channel;
+        ContextView context;
+        List<Entry> batch = new ArrayList<>(MAX_EMBEDS);
+        int droppedCount;
+        String summary = null;
+        synchronized(queue){
+            if(queue.generation != generation){
+                return;
+            }
+            queue.timer = null;
+            channel = queue.channel;
+            context = queue.context;
+            droppedCount = settings.getAudit().isSummarizeDropped() ? queue.dropped : 0;
+            queue.dropped = 0;
+            if(droppedCount > 0){ // its embed and characters are reserved in the message
+                summary = messageService.format(context, "audit.dropped", droppedCount);
+                poll(queue.entries, batch, MAX_EMBEDS - 1, MAX_EMBED_CHARACTERS - summary.length(), false);
+            }else{
+                poll(queue.entries, batch, MAX_EMBEDS, MAX_EMBED_CHARACTERS, true);
+            }
+            depth.addAndGet(-batch.size());
+            if(batch.isEmpty() && droppedCount == 0){
+                queue.active = false;
+                return;
+            }
+        }
+
+        List<EmbedCreateSpec> embeds = new ArrayList<>(batch.size() + 1);
+        List<MessageCreateFields.File> files = new ArrayList<>();
+        for(Entry entry : batch){
+            embeds.add(entry.embed);
+            files.addAll(entry.files);
+        }
+        if(summary != null){
+            embeds.add(EmbedCreateSpec.builder()
+                    .color(settings.getDefaults().getErrorColor())
+                    .description(summary)
+                    .build());
+        }
+
+        batchSize.record(batch.size());
+        channel.createMessage(MessageCreateSpec.builder()
+                        .embeds(embeds)
+                        .files(files)
+                        .build())
+                .doOnSuccess(ignored -> {
+                    long now = System.nanoTime();
+                    for(Entry entry : batch){
+                        latency.record(now - entry.enqueued, TimeUnit.NANOSECONDS);
+                    }
+                    sent.increment(batch.size());
+                })
+                .doOnError(t -> {
+                    failed.increment(batch.size());
+                    if(ClientException.isStatusCode(403, 404).test(t)){ // the cached sink is stale, e.g. after an overwrite sync
+                        auditSinkCache.invalidate(channel.getId());
+                    }
+                    log.warn("Failed to send {} audit entries to channel {}", batch.size(), channel.getId().asString(), t);
+                })
+                .onErrorResume(t -> Mono.empty())
+                .doFinally(signal -> {
+                    boolean flushNow;
+                    long next;
+                    synchronized(queue){
+                        if(queue.entries.isEmpty() && (queue.dropped == 0 || !settings.getAudit().isSummarizeDropped())){
+                            queue.active = false;
+                            return;
+                        }
+
+                        // a backlog is sent right away, otherwise the next entries wait for the interval again
+                        flushNow = queue.entries.size() >= MAX_EMBEDS;
+                        if(!flushNow){
+                            schedule(queue);
+                        }
+                        next = queue.generation;
+                    }
+
+                    if(flushNow){
+                        flush(queue, next);
+                    }
+                })
+                .subscribe();
+    }
+
+    // the head of the queue that fits into one message; with takeFirst at least one entry,
+    // otherwise the batch may stay empty and the entries wait for the next message
+    private static void poll(Deque<Entry> entries, List<Entry> batch, int maxEmbeds, int maxCharacters, boolean takeFirst){
+        int files = 0;
+        int characters = 0;
+        Entry entry;
+        while(batch.size() < maxEmbeds && (entry = entries.peek()) != null){
+            if((!batch.isEmpty() || !takeFirst) && (files + entry.files.size() > MAX_FILES ||
+                    characters + entry.length > maxCharacters)){
+                break;
+            }
+
+            entries.poll();
+            batch.add(entry);
+            files += entry.files.size();
+            characters += entry.length;
+        }
+    }
+
+    private static int length(EmbedCreateSpec embed){
+        int length = length(embed.title()) + length(embed.description());
+        if(embed.author() != null){
+            length += embed.author().name().length();
+        }
+        if(embed.footer() != null){
+            length += embed.footer().text().length();
+        }
+        for(EmbedCreateFields.Field field : embed.fields()){
+            length += field.name().length() + field.value().length();
+        }
+        return length;
+    }
+
+    private static int length(Possible<String> value){
+        return value.toOptional().map(String::length).orElse(0);
+    }
+
+    private static final class ChannelQueue{
+        private final Deque<Entry> entries = new ArrayDeque<>();
+
+        private GuildMessageChannel channel;
+        private ContextView context;
+        private int dropped;
+        // a flush is scheduled or in flight
+        private boolean active;
+        private long generation;
+        @Nullable
+        private Disposable timer;
+    }
+
+    private static final class Entry{
+        private final EmbedCreateSpec embed;
+        private final List<MessageCreateFields.File> files;
+        private final int length;
+        private final long enqueued;
+
+        Entry(EmbedCreateSpec embed, List<MessageCreateFields.File> files, int length, long enqueued){
+            this.embed = embed;
+            this.files = files;
+            this.length = length;
+            this.enqueued = enqueued;
+        }
+    }
+}
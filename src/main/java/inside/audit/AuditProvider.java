@@ -1,6 +1,6 @@
 package inside.audit;
 
-import inside.data.entity.*;
+import inside.data.entity.snapshot.AuditConfigSnapshot;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 
@@ -9,5 +9,5 @@ import java.util.List;
 
 public interface AuditProvider{
 
-    Mono<Void> send(AuditConfig config, AuditActionBuilder action, List<? extends Tuple2<String, InputStream>> attachments);
+    Mono<Void> send(AuditConfigSnapshot config, AuditActionBuilder action, List<? extends Tuple2<String, InputStream>> attachments);
 }
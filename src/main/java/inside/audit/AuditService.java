@@ -12,4 +12,7 @@ public interface AuditService{
     Mono<Void> handle(AuditActionBuilder action, List<? extends Tuple2<String, InputStream>> attachments);
 
     AuditActionBuilder newBuilder(Snowflake guildId, AuditActionType type);
+
+    // answered from the cached config, handlers check it before fetching anything for the action
+    Mono<Boolean> isEnabled(Snowflake guildId, AuditActionType type);
 }
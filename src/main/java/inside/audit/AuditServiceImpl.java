@@ -42,6 +42,13 @@ public class AuditServiceImpl implements AuditService{
         return Mono.error(new NoSuchElementException("Missed audit provider for type: " + action.getType()));
     }
 
+    @Override
+    public Mono<Boolean> isEnabled(Snowflake guildId, AuditActionType type){
+        return entityRetriever.getAuditConfigById(guildId)
+                .map(config -> config.isEnabled(type))
+                .defaultIfEmpty(false);
+    }
+
     @Override
     public AuditActionBuilder newBuilder(Snowflake guildId, AuditActionType type){
         return new AuditActionBuilder(guildId, type){
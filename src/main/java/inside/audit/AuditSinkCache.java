@@ -0,0 +1,164 @@
+package inside.audit;
+
+import com.github.benmanes.caffeine.cache.*;
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.ReactiveEventAdapter;
+import discord4j.core.event.domain.channel.*;
+import discord4j.core.event.domain.guild.*;
+import discord4j.core.event.domain.role.*;
+import discord4j.core.object.entity.*;
+import discord4j.core.object.entity.channel.GuildMessageChannel;
+import discord4j.rest.http.client.ClientException;
+import discord4j.rest.util.Permission;
+import inside.Settings;
+import inside.data.cache.CachePolicy;
+import inside.service.MessageService;
+import inside.util.DiscordUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.Nullable;
+import reactor.util.context.ContextView;
+
+// log channels with the result of the send permission check, keyed by channel id;
+// dropped on updates of the channel, of roles and of the bot member, which may change the permission
+@Component
+public class AuditSinkCache extends ReactiveEventAdapter{
+
+    private final AsyncCache<Long, Sink> sinks;
+    // guilds whose owner was told about the missing permission within the notice interval
+    private final Cache<Long, Boolean> notifiedOwners;
+
+    private final MessageService messageService;
+
+    public AuditSinkCache(@Autowired Settings settings, @Autowired MessageService messageService,
+                          @Autowired MeterRegistry meterRegistry){
+        this.messageService = messageService;
+
+        CachePolicy policy = settings.getCache().getAuditSink();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(policy.getMaximumSize())
+                .recordStats();
+        if(policy.getExpireAfterAccess() != null){
+            builder.expireAfterAccess(policy.getExpireAfterAccess());
+        }
+        sinks = builder.buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, sinks.synchronous(), "audit-sink");
+
+        notifiedOwners = Caffeine.newBuilder()
+                .expireAfterWrite(settings.getAudit().getPermissionNoticeInterval())
+                .build();
+    }
+
+    // the channel if entries can be sent to it, a missing permission is reported to the guild owner
+    public Mono<GuildMessageChannel> get(GatewayDiscordClient client, Snowflake guildId, Snowflake channelId){
+        return Mono.deferContextual(ctx -> Mono.fromFuture(sinks.get(channelId.asLong(), (id, executor) ->
+                        resolve(client, guildId, channelId).toFuture()))
+                .flatMap(sink -> {
+                    if(sink.channel == null){ // deleted or not a message channel
+                        return Mono.empty();
+                    }
+                    if(!sink.canSend){
+                        return notifyOwner(client, ctx, guildId, channelId).then(Mono.empty());
+                    }
+                    return Mono.just(sink.channel);
+                }));
+    }
+
+    public void invalidate(Snowflake channelId){
+        sinks.synchronous().invalidate(channelId.asLong());
+    }
+
+    public void invalidateAll(Snowflake guildId){
+        sinks.synchronous().asMap().values().removeIf(sink -> sink.guildId == guildId.asLong());
+    }
+
+    private Mono<Sink> resolve(GatewayDiscordClient client, Snowflake guildId, Snowflake channelId){
+        return client.getChannelById(channelId)
+                // deleted or hidden, cached as no sink like any other missing channel
+                .onErrorResume(ClientException.isStatusCode(403, 404), t -> Mono.empty())
+                .ofType(GuildMessageChannel.class)
+                .flatMap(channel -> channel.getEffectivePermissions(client.getSelfId())
+                        .map(set -> new Sink(guildId.asLong(), channel, set.contains(Permission.SEND_MESSAGES))))
+                .defaultIfEmpty(new Sink(guildId.asLong(), null, false));
+    }
+
+    private Mono<Void> notifyOwner(GatewayDiscordClient client, ContextView ctx, Snowflake guildId, Snowflake channelId){
+        return Mono.defer(() -> {
+            if(notifiedOwners.asMap().putIfAbsent(guildId.asLong(), Boolean.TRUE) != null){
+                return Mono.empty();
+            }
+
+            return client.getGuildById(guildId)
+                    .flatMap(Guild::getOwner)
+                    .flatMap(User::getPrivateChannel)
+                    .flatMap(dm -> dm.createMessage(messageService.format(ctx, "audit.permission-denied",
+                            DiscordUtil.getChannelMention(channelId))))
+                    .then();
+        });
+    }
+
+    @Override
+    public Publisher<?> onTextChannelUpdate(TextChannelUpdateEvent event){
+        return Mono.fromRunnable(() -> invalidate(event.getCurrent().getId()));
+    }
+
+    @Override
+    public Publisher<?> onNewsChannelUpdate(NewsChannelUpdateEvent event){
+        return Mono.fromRunnable(() -> invalidate(event.getCurrent().getId()));
+    }
+
+    @Override
+    public Publisher<?> onTextChannelDelete(TextChannelDeleteEvent event){
+        return Mono.fromRunnable(() -> invalidate(event.getChannel().getId()));
+    }
+
+    @Override
+    public Publisher<?> onNewsChannelDelete(NewsChannelDeleteEvent event){
+        return Mono.fromRunnable(() -> invalidate(event.getChannel().getId()));
+    }
+
+    @Override
+    public Publisher<?> onRoleUpdate(RoleUpdateEvent event){
+        return Mono.fromRunnable(() -> invalidateAll(event.getCurrent().getGuildId()));
+    }
+
+    @Override
+    public Publisher<?> onRoleDelete(RoleDeleteEvent event){
+        return Mono.fromRunnable(() -> invalidateAll(event.getGuildId()));
+    }
+
+    @Override
+    public Publisher<?> onMemberUpdate(MemberUpdateEvent event){
+        return Mono.fromRunnable(() -> {
+            if(event.getMemberId().equals(event.getClient().getSelfId())){ // roles of the bot
+                invalidateAll(event.getGuildId());
+            }
+        });
+    }
+
+    @Override
+    public Publisher<?> onGuildDelete(GuildDeleteEvent event){
+        return Mono.fromRunnable(() -> {
+            invalidateAll(event.getGuildId());
+            notifiedOwners.invalidate(event.getGuildId().asLong());
+        });
+    }
+
+    private static final class Sink{
+        private final long guildId;
+        @Nullable
+        private final GuildMessageChannel channel;
+        private final boolean canSend;
+
+        Sink(long guildId, @Nullable GuildMessageChannel channel, boolean canSend){
+            this.guildId = guildId;
+            this.channel = channel;
+            this.canSend = canSend;
+        }
+    }
+}
@@ -1,13 +1,12 @@
 package inside.audit;
 
+import discord4j.common.util.Snowflake;
 import discord4j.core.object.entity.*;
 import discord4j.core.object.entity.channel.*;
 import discord4j.core.spec.*;
-import discord4j.rest.util.Permission;
-import inside.data.entity.*;
+import inside.data.entity.snapshot.AuditConfigSnapshot;
 import inside.data.entity.base.NamedReference;
 import inside.service.*;
-import inside.util.DiscordUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Mono;
 import reactor.util.context.ContextView;
@@ -18,6 +17,7 @@ import java.time.format.*;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static inside.audit.Attribute.*;
 import static inside.util.ContextUtil.*;
 import static reactor.function.TupleUtils.function;
 
@@ -30,37 +30,45 @@ public abstract class BaseAuditProvider implements AuditProvider{
     @Autowired
     protected DiscordService discordService;
 
+    @Autowired
+    protected AuditDispatcher auditDispatcher;
+
+    @Autowired
+    protected AuditSinkCache auditSinkCache;
+
     @Override
-    public Mono<Void> send(AuditConfig config, AuditActionBuilder action, List<? extends Tuple2<String, InputStream>> attachments){
+    public Mono<Void> send(AuditConfigSnapshot config, AuditActionBuilder action, List<? extends Tuple2<String, InputStream>> attachments){
         return Mono.deferContextual(ctx -> Mono.justOrEmpty(config.getLogChannelId())
-                .flatMap(discordService.gateway()::getChannelById)
-                .cast(GuildMessageChannel.class)
                 .filter(ignored -> config.isEnabled(action.getType()))
-                .filterWhen(channel -> channel.getEffectivePermissions(discordService.gateway().getSelfId())
-                        .map(set -> set.contains(Permission.SEND_MESSAGES))
-                        .filterWhen(bool -> bool ? Mono.just(true) : discordService.gateway()
-                                .getGuildById(action.getGuildId())
-                                .flatMap(Guild::getOwner)
-                                .flatMap(User::getPrivateChannel)
-                                .flatMap(dm -> dm.createMessage(messageService.format(ctx, "audit.permission-denied",
-                                        DiscordUtil.getChannelMention(channel.getId()))))
-                                .thenReturn(false)))
-                .flatMap(channel -> {
+                .flatMap(channelId -> auditSinkCache.get(discordService.gateway(), action.getGuildId(), channelId))
+                .doOnNext(channel -> {
                     var embedSpec = EmbedCreateSpec.builder()
                             .color(action.getType().color);
 
                     build(action, ctx, embedSpec);
 
-                    return channel.createMessage(MessageCreateSpec.builder()
-                            .addEmbed(embedSpec.build())
-                            .files(attachments.stream()
-                                    .map(function(MessageCreateFields.File::of))
-                                    .collect(Collectors.toList()))
-                            .build());
+                    // entries are batched into one message, the names tell apart whose file is whose
+                    String prefix = attachmentPrefix(action);
+                    List<MessageCreateFields.File> files = attachments.stream()
+                            .map(function((name, inputStream) -> MessageCreateFields.File.of(prefix + name, inputStream)))
+                            .collect(Collectors.toList());
+                    if(!files.isEmpty()){
+                        embedSpec.addField(messageService.get(ctx, "audit.attachment"), files.stream()
+                                .map(MessageCreateFields.File::name)
+                                .collect(Collectors.joining("\n")), false);
+                    }
+
+                    auditDispatcher.submit(channel, ctx, embedSpec.build(), files);
                 })
                 .then());
     }
 
+    private static String attachmentPrefix(AuditActionBuilder action){
+        Message message = action.getAttribute(MESSAGE);
+        Snowflake id = message != null ? message.getId() : action.getAttribute(MESSAGE_ID);
+        return (id != null ? id : Snowflake.of(action.getTimestamp())).asString() + "-";
+    }
+
     protected void addTimestamp(ContextView context, AuditActionBuilder action, EmbedCreateSpec.Builder embed){
         embed.footer(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG)
                 .withLocale(context.get(KEY_LOCALE))
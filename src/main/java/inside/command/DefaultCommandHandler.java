@@ -45,8 +45,7 @@ public class DefaultCommandHandler implements CommandHandler{
         Snowflake selfId = env.message().getClient().getSelfId();
         Mono<Guild> guild = env.message().getGuild();
 
-        Mono<String> prefix = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<String> prefix = entityRetriever.upsertGuildConfig(guildId)
                 .flatMap(guildConfig -> Mono.justOrEmpty(guildConfig.prefixes().stream()
                         .filter(message::startsWith)
                         .findFirst()));
@@ -38,7 +38,7 @@ public class UnwarnCommand extends AdminCommand{
                 .switchIfEmpty(messageService.err(env, "common.bot").then(Mono.never()))
                 .filterWhen(target -> adminService.isOwner(author).map(owner -> !target.equals(author) || owner))
                 .switchIfEmpty(messageService.err(env, "command.admin.unwarn.permission-denied").then(Mono.never()))
-                .flatMap(target -> adminService.warnings(target).count().flatMap(count -> {
+                .flatMap(target -> adminService.warningsCount(target).flatMap(count -> {
                     int warn = index.map(Strings::parseInt).orElse(1);
                     if(count == 0){
                         return messageService.text(env, "command.admin.warnings.empty");
@@ -7,7 +7,7 @@ import discord4j.core.spec.BanQuerySpec;
 import discord4j.rest.util.Permission;
 import inside.command.CommandCategory;
 import inside.command.model.*;
-import inside.data.entity.AdminConfig;
+import inside.data.entity.snapshot.AdminConfigSnapshot;
 import inside.util.Strings;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
@@ -54,11 +54,11 @@ public class WarnCommand extends AdminCommand{
                         return messageService.err(env, "common.string-limit", AuditLogEntry.MAX_REASON_LENGTH);
                     }
 
-                    Mono<Void> warnings = Mono.defer(() -> adminService.warnings(member).count()).flatMap(count -> {
+                    return adminService.warn(author, member, reason).flatMap(count -> {
                         Mono<Void> message = messageService.text(env, "command.admin.warn", member.getMention(), count)
                                 .then();
 
-                        Mono<AdminConfig> config = entityRetriever.getAdminConfigById(guildId)
+                        Mono<AdminConfigSnapshot> config = entityRetriever.getAdminConfigById(guildId)
                                 .switchIfEmpty(entityRetriever.createAdminConfig(guildId));
 
                         String autoReason = messageService.format(env.context(), "message.admin.auto-reason", count);
@@ -79,8 +79,6 @@ public class WarnCommand extends AdminCommand{
 
                         return message.then(thresholdCheck);
                     });
-
-                    return adminService.warn(author, member, reason).then(warnings);
                 });
     }
 }
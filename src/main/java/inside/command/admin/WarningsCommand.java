@@ -8,13 +8,15 @@ import discord4j.core.spec.*;
 import inside.Settings;
 import inside.command.CommandCategory;
 import inside.command.model.*;
+import inside.data.entity.*;
+import inside.service.MessageService;
 import inside.util.Mathf;
 import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuples;
+import reactor.util.context.ContextView;
 
-import java.util.Optional;
+import java.util.*;
 import java.util.function.Predicate;
 
 import static reactor.function.TupleUtils.function;
@@ -48,39 +50,44 @@ public class WarningsCommand extends AdminCommand{
                 .switchIfEmpty(messageService.err(env, "command.incorrect-name").then(Mono.never()))
                 .filter(Predicate.not(User::isBot))
                 .switchIfEmpty(messageService.err(env, "common.bot").then(Mono.never()))
-                .zipWhen(member -> adminService.warnings(member)
-                        .switchIfEmpty(messageService.text(env, "command.admin.warnings.empty").then(Mono.never()))
-                        .take(PER_PAGE, true).index()
-                        .map(function((idx, warn) ->
-                                EmbedCreateFields.Field.of(String.format("%2s. %s", idx + 1,
-                                                TimestampFormat.LONG_DATE_TIME.format(warn.getTimestamp())), String.format("%s%n%s",
-                                                messageService.format(env.context(), "common.admin", warn.getAdmin().getEffectiveName()),
-                                                messageService.format(env.context(), "common.reason", warn.getReason()
-                                                        .orElse(messageService.get(env.context(), "common.not-defined")))),
-                                        true)))
-                        .collectList())
-                .zipWhen(tuple -> adminService.warnings(tuple.getT1()).count(),
-                        (tuple, count) -> Tuples.of(tuple.getT1(), tuple.getT2(), count))
-                .flatMap(function((target, fields, count) -> env.channel()
+                .zipWhen(member -> adminService.warningsPage(guildId, member.getId(), 0, false, PER_PAGE)
+                        .filter(page -> !page.isEmpty())
+                        .switchIfEmpty(messageService.text(env, "command.admin.warnings.empty").then(Mono.never())))
+                .flatMap(function((target, page) -> env.channel()
                         .createMessage(MessageCreateSpec.builder()
                                 .addEmbed(EmbedCreateSpec.builder()
                                         .title(messageService.format(env.context(), "command.admin.warnings.title",
                                                 target.getDisplayName()))
-                                        .fields(fields)
+                                        .fields(fields(messageService, env.context(), page, 0))
                                         .color(settings.getDefaults().getNormalColor())
                                         .footer(messageService.format(env.context(), "command.admin.warnings.page",
-                                                1, Mathf.ceilPositive(count / (float)PER_PAGE)), null)
+                                                1, Mathf.ceilPositive(page.total() / (float)PER_PAGE)), null)
                                         .build())
                                 .addComponent(ActionRow.of(
                                         Button.primary("inside-warnings-" + authorId.asString() +
-                                                                "-" + target.getId().asString() + "-prev-0",
+                                                                "-" + target.getId().asString() + "-prev-0-" + page.firstId(),
                                                         messageService.get(env.context(), "common.prev-page"))
                                                 .disabled(),
                                         Button.primary("inside-warnings-" + authorId.asString() +
-                                                                "-" + target.getId().asString() + "-next-1",
+                                                                "-" + target.getId().asString() + "-next-1-" + page.lastId(),
                                                         messageService.get(env.context(), "common.next-page"))
-                                                .disabled(count <= PER_PAGE)))
+                                                .disabled(page.total() <= PER_PAGE)))
                                 .build())))
                 .then();
     }
+
+    // shared with the page buttons, the first action of the page has the given number
+    public static List<EmbedCreateFields.Field> fields(MessageService messageService, ContextView context,
+                                                       AdminActionPage page, int skip){
+        List<EmbedCreateFields.Field> fields = new ArrayList<>(page.actions().size());
+        for(AdminActionView warn : page.actions()){
+            fields.add(EmbedCreateFields.Field.of(String.format("%2s. %s", skip + fields.size() + 1,
+                            TimestampFormat.LONG_DATE_TIME.format(warn.timestamp())), String.format("%s%n%s",
+                            messageService.format(context, "common.admin", warn.adminName()),
+                            messageService.format(context, "common.reason", warn.getReason()
+                                    .orElse(messageService.get(context, "common.not-defined")))),
+                    true));
+        }
+        return fields;
+    }
 }
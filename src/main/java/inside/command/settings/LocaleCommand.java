@@ -26,8 +26,7 @@ public class LocaleCommand extends OwnerCommand{
                 .flatMap(messageService::getLocale)
                 .orElse(null);
 
-        return entityRetriever.getGuildConfigById(member.getGuildId())
-                .switchIfEmpty(entityRetriever.createGuildConfig(member.getGuildId()))
+        return entityRetriever.upsertGuildConfig(member.getGuildId())
                 .filter(guildConfig -> present)
                 .switchIfEmpty(messageService.text(env, "command.settings.locale.current",
                         env.context().<Locale>get(KEY_LOCALE).getDisplayName()).then(Mono.empty()))
@@ -40,11 +39,10 @@ public class LocaleCommand extends OwnerCommand{
                         return messageService.text(env, "command.settings.locale.all", all);
                     }
 
-                    guildConfig.locale(locale);
                     return Mono.deferContextual(ctx -> messageService.text(env, "command.settings.locale.update",
                                     ctx.<Locale>get(KEY_LOCALE).getDisplayName()))
                             .contextWrite(ctx -> ctx.put(KEY_LOCALE, locale))
-                            .and(entityRetriever.save(guildConfig));
+                            .and(entityRetriever.updateGuildConfig(member.getGuildId(), config -> config.locale(locale)));
                 })
                 .then();
     }
@@ -6,7 +6,6 @@ import inside.command.model.*;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
 import java.util.regex.Pattern;
 
 @DiscordCommand(key = "prefix", params = "command.settings.prefix.params", description = "command.settings.prefix.description",
@@ -30,30 +29,28 @@ public class PrefixCommand extends OwnerCommand{
                 .map(OptionValue::asString)
                 .orElse(null);
 
-        return entityRetriever.getGuildConfigById(member.getGuildId())
-                .switchIfEmpty(entityRetriever.createGuildConfig(member.getGuildId()))
+        return entityRetriever.upsertGuildConfig(member.getGuildId())
                 .flatMap(guildConfig -> Mono.defer(() -> {
-                    List<String> prefixes = guildConfig.prefixes();
                     if(mode == null){
                         return messageService.text(env, "command.settings.prefix.current",
-                                String.join(", ", prefixes));
+                                String.join(", ", guildConfig.prefixes()));
                     }else if(mode.equalsIgnoreCase("add")){
                         if(value == null){
                             return messageService.err(env, "command.settings.prefix-absent");
                         }
-                        prefixes.add(value);
-                        return messageService.text(env, "command.settings.added", value);
+                        return messageService.text(env, "command.settings.added", value)
+                                .and(entityRetriever.updateGuildConfig(member.getGuildId(), config -> config.prefixes().add(value)));
                     }else if(mode.equalsIgnoreCase("remove")){
                         if(value == null){
                             return messageService.err(env, "command.settings.prefix-absent");
                         }
-                        prefixes.remove(value);
-                        return messageService.text(env, "command.settings.removed", value);
+                        return messageService.text(env, "command.settings.removed", value)
+                                .and(entityRetriever.updateGuildConfig(member.getGuildId(), config -> config.prefixes().remove(value)));
                     }else{ // clear
                         // ignore value, it doesn't matter
-                        prefixes.clear();
-                        return messageService.text(env, "command.settings.prefix.clear");
+                        return messageService.text(env, "command.settings.prefix.clear")
+                                .and(entityRetriever.updateGuildConfig(member.getGuildId(), config -> config.prefixes().clear()));
                     }
-                }).and(entityRetriever.save(guildConfig)));
+                }));
     }
 }
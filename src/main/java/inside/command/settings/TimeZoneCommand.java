@@ -32,8 +32,7 @@ public class TimeZoneCommand extends OwnerCommand{
                 .map(OptionValue::asString)
                 .orElse("");
 
-        return entityRetriever.getGuildConfigById(member.getGuildId())
-                .switchIfEmpty(entityRetriever.createGuildConfig(member.getGuildId()))
+        return entityRetriever.upsertGuildConfig(member.getGuildId())
                 .filter(ignored -> present)
                 .switchIfEmpty(messageService.text(env, "command.settings.timezone.current",
                         env.context().<Locale>get(KEY_TIMEZONE)).then(Mono.empty()))
@@ -45,11 +44,10 @@ public class TimeZoneCommand extends OwnerCommand{
                                 .orElse(messageService.err(env, "command.settings.timezone.unknown"));
                     }
 
-                    guildConfig.timeZone(timeZone);
                     return Mono.deferContextual(ctx -> messageService.text(env,
                                     "command.settings.timezone.update", ctx.<Locale>get(KEY_TIMEZONE)))
                             .contextWrite(ctx -> ctx.put(KEY_TIMEZONE, timeZone))
-                            .and(entityRetriever.save(guildConfig));
+                            .and(entityRetriever.updateGuildConfig(member.getGuildId(), config -> config.timeZone(timeZone)));
                 }));
     }
 }
@@ -0,0 +1,53 @@
+package inside.data.cache;
+
+import reactor.util.annotation.Nullable;
+
+import java.time.Duration;
+
+// bound as insidebot.cache.<entity>
+public class CachePolicy{
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10000;
+
+    @Nullable
+    private Duration expireAfterAccess = Duration.ofHours(1);
+
+    @Nullable
+    private Duration refreshAfterWrite;
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize(){
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize){
+        this.maximumSize = maximumSize;
+    }
+
+    @Nullable
+    public Duration getExpireAfterAccess(){
+        return expireAfterAccess;
+    }
+
+    public void setExpireAfterAccess(@Nullable Duration expireAfterAccess){
+        this.expireAfterAccess = expireAfterAccess;
+    }
+
+    @Nullable
+    public Duration getRefreshAfterWrite(){
+        return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(@Nullable Duration refreshAfterWrite){
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+}
@@ -1,41 +1,264 @@
 package inside.data.cache;
 
 import com.github.benmanes.caffeine.cache.*;
-import inside.data.entity.base.BaseEntity;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.Nullable;
 
-import java.util.Objects;
-import java.util.function.Function;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.*;
 
-public class CaffeineEntityCacheManager implements EntityCacheManager{
+public class CaffeineEntityCacheManager implements EntityCacheManager, MeterBinder{
+    // stored instead of null, caffeine doesn't cache null results
+    private static final Object ABSENT = new Object();
 
-    private final Function<Caffeine<?, ?>, Caffeine<?, ?>> provider;
-    // name->cache<id->obj>
-    private final Cache<String, Cache<?, ?>> caches;
+    private final long absentExpireNanos;
+    // blocking loads and refreshes, shares the budget of the persistence pool instead of a pool of its own;
+    // a rejected load fails the caller's get. caffeine's own maintenance stays on its default executor
+    private final Executor loadExecutor;
+    // entity type->cache<id->obj>
+    private final Map<Class<?>, CaffeineEntityCache<?, ?>> caches = new LinkedHashMap<>();
 
-    public CaffeineEntityCacheManager(Function<Caffeine<?, ?>, Caffeine<?, ?>> provider){
-        this.provider = Objects.requireNonNull(provider, "provider");
-        caches = createCache();
+    @Nullable
+    private MeterRegistry meterRegistry;
+
+    public CaffeineEntityCacheManager(Duration absentExpire, Executor loadExecutor){
+        this.absentExpireNanos = Objects.requireNonNull(absentExpire, "absentExpire").toNanos();
+        this.loadExecutor = Objects.requireNonNull(loadExecutor, "loadExecutor");
     }
 
-    @SuppressWarnings("unchecked")
-    private <K, V> Cache<K, V> createCache(){
-        return (Cache<K, V>)provider.apply(Caffeine.newBuilder()).build();
+    @Override
+    public <K, T> EntityCache<K, T> getCache(Class<T> clazz, CachePolicy policy,
+                                           Function<? super K, ? extends T> loader){
+        return createCache(clazz, policy, misses -> new AsyncCacheLoader<K, Object>(){
+            @Override
+            public CompletableFuture<Object> asyncLoad(K key, Executor executor){
+                misses.increment();
+                return asyncReload(key, ABSENT, executor);
+            }
+
+            @Override
+            public CompletableFuture<Object> asyncReload(K key, Object oldValue, Executor executor){
+                return CompletableFuture.supplyAsync(() -> {
+                    T loaded = loader.apply(key);
+                    return loaded != null ? loaded : ABSENT;
+                }, loadExecutor);
+            }
+        });
+    }
+
+    @Override
+    public <K, T> EntityCache<K, T> getReactiveCache(Class<T> clazz, CachePolicy policy,
+                                                     Function<? super K, ? extends Mono<? extends T>> loader){
+        return createCache(clazz, policy, misses -> new AsyncCacheLoader<K, Object>(){
+            @Override
+            public CompletableFuture<Object> asyncLoad(K key, Executor executor){
+                misses.increment();
+                return asyncReload(key, ABSENT, executor);
+            }
+
+            @Override
+            public CompletableFuture<Object> asyncReload(K key, Object oldValue, Executor executor){
+                // subscribed right away, no executor is used as nothing blocks
+                return loader.apply(key)
+                        .map(value -> (Object)value)
+                        .defaultIfEmpty(ABSENT)
+                        .toFuture();
+            }
+        });
     }
 
     @SuppressWarnings("unchecked")
-    private <K, V> Cache<K, V> getCache(String name){
-        return (Cache<K, V>)caches.get(name, s -> createCache());
+    private synchronized <K, T> EntityCache<K, T> createCache(Class<T> clazz, CachePolicy policy,
+                                                             Function<LongAdder, AsyncCacheLoader<K, Object>> loader){
+        return (EntityCache<K, T>)caches.computeIfAbsent(clazz, c -> {
+            CaffeineEntityCache<K, T> cache = new CaffeineEntityCache<>(clazz.getSimpleName(), policy, loader);
+            if(meterRegistry != null){
+                cache.bindTo(meterRegistry);
+            }
+            return cache;
+        });
     }
 
     @Override
-    public <T extends BaseEntity, K> T get(Class<T> clazz, K id, Function<? super K, ? extends T> supplier){
-        Cache<K, T> cache = getCache(clazz.getName());
-        return cache.get(id, supplier);
+    public synchronized void bindTo(MeterRegistry registry){
+        meterRegistry = registry;
+        caches.values().forEach(cache -> cache.bindTo(registry));
     }
 
-    @Override
-    public <T extends BaseEntity, K> void evict(Class<T> clazz, K id){
-        Cache<K, T> cache = getCache(clazz.getName());
-        cache.invalidate(id);
+    private Expiry<Object, Object> expiry(CachePolicy policy){
+        long accessNanos = Optional.ofNullable(policy.getExpireAfterAccess())
+                .map(Duration::toNanos)
+                .orElse(Long.MAX_VALUE);
+
+        return new Expiry<>(){
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime){
+                return value == ABSENT ? absentExpireNanos : accessNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration){
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration){
+                // absent markers are not kept alive by reads
+                return value == ABSENT ? currentDuration : accessNanos;
+            }
+        };
+    }
+
+    private class CaffeineEntityCache<K, T> implements EntityCache<K, T>{
+        private final String name;
+        // concurrent misses for one key share the same future
+        private final AsyncLoadingCache<K, Object> cache;
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder absentHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private CaffeineEntityCache(String name, CachePolicy policy, Function<LongAdder, AsyncCacheLoader<K, Object>> loader){
+            this.name = name;
+
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .recordStats()
+                    .maximumSize(policy.getMaximumSize())
+                    .expireAfter(expiry(policy));
+            if(policy.getRefreshAfterWrite() != null){ // stale value is served while reloading
+                builder.refreshAfterWrite(policy.getRefreshAfterWrite());
+            }
+
+            cache = builder.buildAsync(loader.apply(misses));
+        }
+
+        // completed value without waiting, null if missing or still loading
+        @Nullable
+        private Object getIfReady(K id){
+            CompletableFuture<Object> future = cache.getIfPresent(id);
+            if(future == null || !future.isDone() || future.isCompletedExceptionally()){
+                return null;
+            }
+            return future.join();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable
+        private T unwrap(@Nullable Object value){
+            if(value == null){
+                return null;
+            }
+            if(value == ABSENT){
+                absentHits.increment();
+                return null;
+            }
+            hits.increment();
+            return (T)value;
+        }
+
+        @Nullable
+        @Override
+        public T getIfPresent(K id){
+            Object value = getIfReady(id);
+            return value != ABSENT ? unwrap(value) : null;
+        }
+
+        @Override
+        public boolean isAbsent(K id){
+            if(getIfReady(id) == ABSENT){
+                absentHits.increment();
+                return true;
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Mono<T> get(K id){
+            return Mono.defer(() -> {
+                Object cached = getIfReady(id);
+                if(cached != null){ // no future bridging on hit
+                    return Mono.justOrEmpty(unwrap(cached));
+                }
+                // a copy, so a cancelled subscriber doesn't cancel the shared load
+                return Mono.fromFuture(cache.get(id).copy())
+                        .filter(value -> value != ABSENT)
+                        .map(value -> (T)value);
+            });
+        }
+
+        @Override
+        public void put(K id, T value){
+            Objects.requireNonNull(value, "value");
+            cache.put(id, CompletableFuture.completedFuture(value));
+        }
+
+        @Override
+        public void evict(K id){
+            cache.synchronous().invalidate(id);
+        }
+
+        @Override
+        public void putAbsent(K id){
+            cache.put(id, CompletableFuture.completedFuture(ABSENT));
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void computeIfPresent(K id, UnaryOperator<T> remapping){
+            cache.asMap().computeIfPresent(id, (key, future) -> {
+                if(!future.isDone() || future.isCompletedExceptionally()){
+                    return null; // the load may have read the old row
+                }
+                Object value = future.join();
+                return value != ABSENT ? CompletableFuture.<Object>completedFuture(remapping.apply((T)value)) : future;
+            });
+        }
+
+        @Override
+        public void evictAll(Predicate<? super K> filter){
+            cache.asMap().keySet().removeIf(filter);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void evictAllValues(Predicate<? super T> filter){
+            cache.asMap().values().removeIf(future -> {
+                if(!future.isDone() || future.isCompletedExceptionally()){
+                    return false;
+                }
+                Object value = future.join();
+                return value != ABSENT && filter.test((T)value);
+            });
+        }
+
+        // cache.gets/puts/evictions/load from caffeine stats, absent hits on top of them
+        private void bindTo(MeterRegistry registry){
+            CaffeineCacheMetrics.monitor(registry, cache.synchronous(), name);
+            FunctionCounter.builder("insidebot.cache.gets", hits, LongAdder::doubleValue)
+                    .tags("cache", name, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("insidebot.cache.gets", absentHits, LongAdder::doubleValue)
+                    .tags("cache", name, "result", "absent")
+                    .register(registry);
+            FunctionCounter.builder("insidebot.cache.gets", misses, LongAdder::doubleValue)
+                    .tags("cache", name, "result", "miss")
+                    .register(registry);
+            Gauge.builder("insidebot.cache.absent.ratio", this, CaffeineEntityCache::absentRatio)
+                    .tag("cache", name)
+                    .register(registry);
+        }
+
+        private double absentRatio(){
+            long absent = absentHits.sum();
+            long total = absent + hits.sum() + misses.sum();
+            return total == 0 ? 0 : (double)absent / total;
+        }
     }
 }
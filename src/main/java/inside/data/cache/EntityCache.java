@@ -0,0 +1,35 @@
+package inside.data.cache;
+
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.Nullable;
+
+import java.util.function.*;
+
+// cache of one entity or snapshot type, resolved once per service
+public interface EntityCache<K, T>{
+
+    @Nullable
+    T getIfPresent(K id);
+
+    // true if the id is cached as missing from the database
+    boolean isAbsent(K id);
+
+    // loads through the cache loader on miss, one load per key at a time
+    Mono<T> get(K id);
+
+    // replaces the cached value, called once the entity is written or enqueued to be
+    void put(K id, T value);
+
+    void evict(K id);
+
+    // caches the id as missing, for deletes that aren't committed yet
+    void putAbsent(K id);
+
+    // atomically replaces a loaded value, drops the entry if it is still loading
+    void computeIfPresent(K id, UnaryOperator<T> remapping);
+
+    void evictAll(Predicate<? super K> filter);
+
+    // for bulk deletes, absent markers are kept
+    void evictAllValues(Predicate<? super T> filter);
+}
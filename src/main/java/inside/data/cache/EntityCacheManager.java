@@ -1,12 +1,16 @@
 package inside.data.cache;
 
-import inside.data.entity.base.BaseEntity;
+import reactor.core.publisher.Mono;
 
 import java.util.function.Function;
 
 public interface EntityCacheManager{
 
-    <T extends BaseEntity, K> T get(Class<T> clazz, K id, Function<? super K, ? extends T> supplier);
+    // loader returns null for missing rows
+    <K, T> EntityCache<K, T> getCache(Class<T> clazz, CachePolicy policy,
+                                    Function<? super K, ? extends T> loader);
 
-    <T extends BaseEntity, K> void evict(Class<T> clazz, K id);
+    // for non-blocking loaders, the mono is empty for missing rows
+    <K, T> EntityCache<K, T> getReactiveCache(Class<T> clazz, CachePolicy policy,
+                                            Function<? super K, ? extends Mono<? extends T>> loader);
 }
@@ -15,10 +15,11 @@ public class Activity extends GuildEntity{
     @Serial
     private static final long serialVersionUID = -4910286185798200086L;
 
-    @Column(name = "message_count")
+    // updated only through ActivityAggregator, entity saves must not overwrite pending increments
+    @Column(name = "message_count", updatable = false)
     private int messageCount;
 
-    @Column(name = "last_sent_message")
+    @Column(name = "last_sent_message", updatable = false)
     private Instant lastSentMessage;
 
     @Transient
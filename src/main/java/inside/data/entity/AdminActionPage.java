@@ -0,0 +1,20 @@
+package inside.data.entity;
+
+import java.util.List;
+
+// ascending by id; total is the number of actions of the target, 0 if the page is empty
+public record AdminActionPage(List<AdminActionView> actions, long total){
+
+    public boolean isEmpty(){
+        return actions.isEmpty();
+    }
+
+    // keyset cursors for the neighbouring pages
+    public long firstId(){
+        return actions.get(0).id();
+    }
+
+    public long lastId(){
+        return actions.get(actions.size() - 1).id();
+    }
+}
@@ -0,0 +1,14 @@
+package inside.data.entity;
+
+import reactor.util.annotation.Nullable;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// read-only row of a paginated admin action list, without the member entities
+public record AdminActionView(long id, Instant timestamp, String adminName, @Nullable String reason){
+
+    public Optional<String> getReason(){
+        return Optional.ofNullable(reason);
+    }
+}
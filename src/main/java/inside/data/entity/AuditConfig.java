@@ -18,8 +18,8 @@ public class AuditConfig extends ConfigEntity{
     @Column(name = "log_channel_id")
     private String logChannelId;
 
-    @Type(type = "json")
-    @Column(columnDefinition = "json")
+    @Type(type = "enum_set")
+    @Column(columnDefinition = "bigint")
     private Set<AuditActionType> types;
 
     public Optional<Snowflake> getLogChannelId(){
@@ -32,15 +32,17 @@ public class AuditConfig extends ConfigEntity{
 
     public Set<AuditActionType> getTypes(){
         if(types == null){
-            types = new HashSet<>();
+            types = EnumSet.noneOf(AuditActionType.class);
         }
         return types;
     }
 
     public void setTypes(Set<AuditActionType> types){
-        this.types = Objects.requireNonNull(types, "types");
+        Objects.requireNonNull(types, "types");
+        this.types = types.isEmpty() ? EnumSet.noneOf(AuditActionType.class) : EnumSet.copyOf(types);
     }
 
+    // types is an EnumSet, so contains is a single bit test
     @Transient
     public boolean isEnabled(AuditActionType type){
         return logChannelId != null && types != null &&
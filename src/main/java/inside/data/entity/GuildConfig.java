@@ -14,8 +14,8 @@ public class GuildConfig extends GuildEntity{
     @Serial
     private static final long serialVersionUID = 2454633035779855973L;
 
-    @Type(type = "json")
-    @Column(columnDefinition = "json")
+    @Type(type = "string_list")
+    @Column(columnDefinition = "text[]")
     private List<String> prefixes;
 
     @Column
@@ -41,7 +41,7 @@ public class GuildConfig extends GuildEntity{
     }
 
     public void prefixes(List<String> prefixes){
-        this.prefixes = Objects.requireNonNull(prefixes, "prefixes");
+        this.prefixes = new ArrayList<>(Objects.requireNonNull(prefixes, "prefixes"));
     }
 
     public Locale locale(){
@@ -1,7 +1,6 @@
 package inside.data.entity;
 
 import discord4j.common.util.Snowflake;
-import discord4j.discordjson.Id;
 import inside.data.entity.base.GuildEntity;
 import org.hibernate.annotations.Type;
 
@@ -25,9 +24,10 @@ public class LocalMember extends GuildEntity{
     @OneToOne(cascade = CascadeType.ALL)
     private Activity activity;
 
-    @Type(type = "json")
-    @Column(name = "last_role_ids", columnDefinition = "json")
-    private Set<Id> lastRoleIds;
+    // sorted
+    @Type(type = "long_array")
+    @Column(name = "last_role_ids", columnDefinition = "bigint[]")
+    private long[] lastRoleIds;
 
     public Snowflake getUserId(){
         return Snowflake.of(userId);
@@ -55,18 +55,37 @@ public class LocalMember extends GuildEntity{
 
     public Set<Snowflake> getLastRoleIds(){
         if(lastRoleIds == null){
-            lastRoleIds = new HashSet<>();
+            return new HashSet<>();
         }
-        return lastRoleIds.stream()
-                .map(Snowflake::of)
+        return Arrays.stream(lastRoleIds)
+                .mapToObj(Snowflake::of)
                 .collect(Collectors.toSet());
     }
 
     public void setLastRoleIds(Set<Snowflake> lastRoleIds){
         Objects.requireNonNull(lastRoleIds, "lastRoleIds");
         this.lastRoleIds = lastRoleIds.stream()
-                .map(id -> Id.of(id.asLong()))
-                .collect(Collectors.toSet());
+                .mapToLong(Snowflake::asLong)
+                .sorted()
+                .toArray();
+    }
+
+    // compares without allocating a set of the stored ids
+    @Transient
+    public boolean hasLastRoleIds(Set<Snowflake> roleIds){
+        Objects.requireNonNull(roleIds, "roleIds");
+        if(lastRoleIds == null){
+            return roleIds.isEmpty();
+        }
+        if(lastRoleIds.length != roleIds.size()){
+            return false;
+        }
+        for(Snowflake id : roleIds){
+            if(Arrays.binarySearch(lastRoleIds, id.asLong()) < 0){
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -75,7 +94,7 @@ public class LocalMember extends GuildEntity{
                 "userId=" + userId +
                 ", effectiveName='" + effectiveName + '\'' +
                 ", activity=" + activity +
-                ", lastRoleIds=" + lastRoleIds +
+                ", lastRoleIds=" + Arrays.toString(lastRoleIds) +
                 "} " + super.toString();
     }
 }
@@ -21,10 +21,16 @@ public class Poll extends GuildEntity{
     @Column(columnDefinition = "json")
     private List<String> options;
 
+    // only loaded to cascade deletes, votes go through PollRepository.vote
     @JoinColumn(name = "pool_id")
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PollAnswer> answered = new ArrayList<>();
 
+    // per option, incremented in sql with each vote
+    @Type(type = "long_array")
+    @Column(columnDefinition = "bigint[]", updatable = false)
+    private long[] votes;
+
     public Snowflake getMessageId(){
         return Snowflake.of(messageId);
     }
@@ -39,6 +45,18 @@ public class Poll extends GuildEntity{
 
     public void setOptions(List<String> options){
         this.options = Objects.requireNonNull(options, "options");
+        this.votes = new long[options.size()];
+    }
+
+    public synchronized long[] getVotes(){
+        return votes.clone();
+    }
+
+    // counters only grow, a snapshot returned by a concurrent vote may be older than the current one
+    public synchronized void mergeVotes(long[] snapshot){
+        for(int i = 0; i < Math.min(votes.length, snapshot.length); i++){
+            votes[i] = Math.max(votes[i], snapshot[i]);
+        }
     }
 
     public List<PollAnswer> getAnswered(){
@@ -54,7 +72,7 @@ public class Poll extends GuildEntity{
         return "Poll{" +
                 "messageId=" + messageId +
                 ", options=" + options +
-                ", answered=" + answered +
+                ", votes=" + Arrays.toString(votes) +
                 "} " + super.toString();
     }
 }
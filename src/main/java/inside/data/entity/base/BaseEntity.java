@@ -10,6 +10,9 @@ import java.util.Objects;
 
 @TypeDefs({
         @TypeDef(name = "json", typeClass = JsonType.class),
+        @TypeDef(name = "long_array", typeClass = LongArrayType.class),
+        @TypeDef(name = "string_list", typeClass = StringListType.class),
+        @TypeDef(name = "enum_set", typeClass = EnumSetType.class),
         @TypeDef(name = "zone_id", typeClass = ZoneIdType.class,
                 defaultForType = ZoneId.class),
         @TypeDef(name = "duration", typeClass = DurationType.class,
@@ -29,6 +32,11 @@ public abstract class BaseEntity implements Serializable{
         return id;
     }
 
+    // for mappers that don't go through hibernate
+    public void setId(long id){
+        this.id = id;
+    }
+
     @Override
     public boolean equals(Object o){
         if(this == o){
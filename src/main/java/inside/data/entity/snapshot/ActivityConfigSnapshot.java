@@ -0,0 +1,49 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import inside.data.entity.*;
+import org.immutables.value.Value;
+
+import java.time.*;
+import java.util.*;
+
+@Value.Immutable
+public interface ActivityConfigSnapshot{
+
+    static ActivityConfigSnapshot of(ActivityConfig activityConfig){
+        return ImmutableActivityConfigSnapshot.builder()
+                .guildId(activityConfig.getGuildId())
+                .enabled(activityConfig.isEnabled())
+                .keepCountingDuration(activityConfig.getKeepCountingDuration())
+                .messageBarrier(activityConfig.getMessageBarrier())
+                .roleId(activityConfig.getRoleId())
+                .build();
+    }
+
+    Snowflake getGuildId();
+
+    boolean isEnabled();
+
+    Duration getKeepCountingDuration();
+
+    int getMessageBarrier();
+
+    Optional<Snowflake> getRoleId();
+
+    default boolean resetIfAfter(Activity activity){
+        Objects.requireNonNull(activity, "activity");
+        Instant last = activity.getLastSentMessage();
+        if(last != null && last.isBefore(Instant.now().minus(getKeepCountingDuration()))){
+            activity.setMessageCount(0);
+            return true;
+        }
+        return false;
+    }
+
+    default boolean isActive(Activity activity){
+        Objects.requireNonNull(activity, "activity");
+        Instant last = activity.getLastSentMessage();
+        return last != null && last.isAfter(Instant.now().minus(getKeepCountingDuration())) &&
+                activity.getMessageCount() >= getMessageBarrier();
+    }
+}
@@ -0,0 +1,40 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import inside.data.entity.*;
+import org.immutables.value.Value;
+import reactor.util.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.*;
+
+@Value.Immutable
+public interface AdminConfigSnapshot{
+
+    static AdminConfigSnapshot of(AdminConfig adminConfig){
+        return ImmutableAdminConfigSnapshot.builder()
+                .guildId(adminConfig.getGuildId())
+                .warnExpireDelay(adminConfig.getWarnExpireDelay())
+                .muteBaseDelay(adminConfig.getMuteBaseDelay())
+                .maxWarnCount(adminConfig.getMaxWarnCount())
+                .thresholdAction(adminConfig.getThresholdAction())
+                .muteRoleID(adminConfig.getMuteRoleID())
+                .adminRoleIds(adminConfig.getAdminRoleIds())
+                .build();
+    }
+
+    Snowflake getGuildId();
+
+    @Nullable
+    Duration getWarnExpireDelay();
+
+    Duration getMuteBaseDelay();
+
+    long getMaxWarnCount();
+
+    AdminActionType getThresholdAction();
+
+    Optional<Snowflake> getMuteRoleID();
+
+    Set<Snowflake> getAdminRoleIds();
+}
@@ -0,0 +1,33 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import inside.audit.AuditActionType;
+import inside.data.entity.AuditConfig;
+import org.immutables.value.Value;
+
+import java.util.*;
+
+@Value.Immutable
+public interface AuditConfigSnapshot{
+
+    static AuditConfigSnapshot of(AuditConfig auditConfig){
+        return ImmutableAuditConfigSnapshot.builder()
+                .guildId(auditConfig.getGuildId())
+                .enabled(auditConfig.isEnabled())
+                .logChannelId(auditConfig.getLogChannelId())
+                .types(auditConfig.getTypes())
+                .build();
+    }
+
+    Snowflake getGuildId();
+
+    boolean isEnabled();
+
+    Optional<Snowflake> getLogChannelId();
+
+    Set<AuditActionType> getTypes();
+
+    default boolean isEnabled(AuditActionType type){
+        return isEnabled() && getLogChannelId().isPresent() && getTypes().contains(type);
+    }
+}
@@ -0,0 +1,30 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import inside.data.entity.GuildConfig;
+import org.immutables.value.Value;
+
+import java.time.ZoneId;
+import java.util.*;
+
+// read model of GuildConfig, shared between handlers as is
+@Value.Immutable
+public interface GuildConfigSnapshot{
+
+    static GuildConfigSnapshot of(GuildConfig guildConfig){
+        return ImmutableGuildConfigSnapshot.builder()
+                .guildId(guildConfig.getGuildId())
+                .prefixes(guildConfig.prefixes())
+                .locale(guildConfig.locale())
+                .timeZone(guildConfig.timeZone())
+                .build();
+    }
+
+    Snowflake getGuildId();
+
+    List<String> prefixes();
+
+    Locale locale();
+
+    ZoneId timeZone();
+}
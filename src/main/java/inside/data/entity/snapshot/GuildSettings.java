@@ -0,0 +1,33 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+// all per-guild configs, cached as one unit and patched part by part
+@Value.Immutable
+public interface GuildSettings{
+
+    static GuildSettings empty(Snowflake guildId){
+        return ImmutableGuildSettings.builder()
+                .guildId(guildId)
+                .build();
+    }
+
+    static ImmutableGuildSettings.Builder builder(){
+        return ImmutableGuildSettings.builder();
+    }
+
+    Snowflake getGuildId();
+
+    Optional<GuildConfigSnapshot> getGuildConfig();
+
+    Optional<AdminConfigSnapshot> getAdminConfig();
+
+    Optional<AuditConfigSnapshot> getAuditConfig();
+
+    Optional<StarboardConfigSnapshot> getStarboardConfig();
+
+    Optional<ActivityConfigSnapshot> getActivityConfig();
+}
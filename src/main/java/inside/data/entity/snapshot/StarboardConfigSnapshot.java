@@ -0,0 +1,35 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import discord4j.discordjson.json.EmojiData;
+import inside.data.entity.StarboardConfig;
+import org.immutables.value.Value;
+
+import java.util.*;
+
+@Value.Immutable
+public interface StarboardConfigSnapshot{
+
+    static StarboardConfigSnapshot of(StarboardConfig starboardConfig){
+        return ImmutableStarboardConfigSnapshot.builder()
+                .guildId(starboardConfig.getGuildId())
+                .enabled(starboardConfig.isEnabled())
+                .lowerStarBarrier(starboardConfig.getLowerStarBarrier())
+                .starboardChannelId(starboardConfig.getStarboardChannelId())
+                .emojis(starboardConfig.getEmojis())
+                .selfStarring(starboardConfig.isSelfStarring())
+                .build();
+    }
+
+    Snowflake getGuildId();
+
+    boolean isEnabled();
+
+    int getLowerStarBarrier();
+
+    Optional<Snowflake> getStarboardChannelId();
+
+    List<EmojiData> getEmojis();
+
+    boolean isSelfStarring();
+}
@@ -0,0 +1,10 @@
+@Value.Style(
+        get = {"is*", "get*"},
+        depluralize = true,
+        jdkOnly = true
+)
+@NonNullApi
+package inside.data.entity.snapshot;
+
+import org.immutables.value.Value;
+import org.springframework.lang.NonNullApi;
@@ -8,11 +8,21 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface AdminActionRepository extends GuildRepository<AdminAction>{
+public interface AdminActionRepository extends GuildRepository<AdminAction>, AdminActionRepositoryCustom{
 
     @Query("select a from AdminAction a where a.type = :type")
     List<AdminAction> findAll(AdminActionType type);
 
-    @Query("select a from AdminAction a where a.type = :type and a.guildId = :guildId and a.target.userId = :targetId")
+    @Query("select a from AdminAction a where a.type = :type and a.guildId = :guildId and a.target.userId = :targetId order by a.id")
     List<AdminAction> find(AdminActionType type, long guildId, long targetId);
+
+    // derived exists query, stops at the first matching row
+    boolean existsByTypeAndGuildIdAndTargetUserId(AdminActionType type, long guildId, long targetId);
+
+    default boolean exists(AdminActionType type, long guildId, long targetId){
+        return existsByTypeAndGuildIdAndTargetUserId(type, guildId, targetId);
+    }
+
+    @Query("select count(a) from AdminAction a where a.type = :type and a.guildId = :guildId and a.target.userId = :targetId")
+    long count(AdminActionType type, long guildId, long targetId);
 }
@@ -0,0 +1,10 @@
+package inside.data.repository;
+
+import inside.data.entity.*;
+
+public interface AdminActionRepositoryCustom{
+
+    // the actions after the cursor id, or before it if backward, at most limit of them;
+    // the cursor 0 selects the first page
+    AdminActionPage findPage(AdminActionType type, long guildId, long targetId, long cursor, boolean backward, int limit);
+}
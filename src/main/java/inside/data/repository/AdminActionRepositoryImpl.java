@@ -0,0 +1,50 @@
+package inside.data.repository;
+
+import inside.data.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+class AdminActionRepositoryImpl implements AdminActionRepositoryCustom{
+
+    // served by admin_action(guild_id, type, target_id, id), the total is one index-only count per page
+    private static final String PAGE_SQL = """
+            with t as (select id, guild_id from local_member where guild_id = ? and user_id = ?),
+                 n as (select count(*) as total from admin_action c
+                       join t on c.guild_id = t.guild_id and c.target_id = t.id
+                       where c.type = ?)
+            select a.id, a.timestamp, a.reason, m.effective_name as admin_name, n.total
+            from t
+            cross join n
+            join admin_action a on a.guild_id = t.guild_id and a.target_id = t.id
+            join local_member m on m.id = a.admin_id
+            where a.type = ? and a.id %s ?
+            order by a.id %s
+            limit ?
+            """;
+
+    private static final String FORWARD_SQL = PAGE_SQL.formatted(">", "asc");
+
+    private static final String BACKWARD_SQL = PAGE_SQL.formatted("<", "desc");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public AdminActionPage findPage(AdminActionType type, long guildId, long targetId, long cursor, boolean backward, int limit){
+        long[] total = new long[1];
+        List<AdminActionView> actions = jdbcTemplate.query(backward ? BACKWARD_SQL : FORWARD_SQL, (rs, rowNum) -> {
+            total[0] = rs.getLong("total");
+            return new AdminActionView(rs.getLong("id"), rs.getTimestamp("timestamp").toInstant(),
+                    rs.getString("admin_name"), rs.getString("reason"));
+        }, guildId, targetId, type.name(), type.name(), backward && cursor == 0 ? Long.MAX_VALUE : cursor, limit);
+
+        if(backward){
+            Collections.reverse(actions);
+        }
+        return new AdminActionPage(actions, total[0]);
+    }
+}
@@ -5,6 +5,5 @@ import inside.data.repository.base.GuildRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface GuildConfigRepository extends GuildRepository<GuildConfig>{
-
+public interface GuildConfigRepository extends GuildRepository<GuildConfig>, GuildConfigRepositoryCustom{
 }
@@ -0,0 +1,12 @@
+package inside.data.repository;
+
+import inside.data.entity.GuildConfig;
+
+public interface GuildConfigRepositoryCustom{
+
+    // inserts the given config unless the guild has one, returns the stored row either way
+    GuildConfig upsert(GuildConfig guildConfig);
+
+    // [GuildConfig, AdminConfig, AuditConfig, StarboardConfig, ActivityConfig], missing parts are null
+    Object[] findSettings(long guildId);
+}
@@ -0,0 +1,77 @@
+package inside.data.repository;
+
+import inside.data.entity.*;
+import inside.data.type.SnowflakeGenerator;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.descriptor.java.LocaleTypeDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.*;
+import java.time.ZoneId;
+import java.util.List;
+
+class GuildConfigRepositoryImpl implements GuildConfigRepositoryCustom{
+
+    // the no-op update makes returning yield the existing row
+    private static final String UPSERT_SQL = """
+            insert into guild_config as g (id, guild_id, prefixes, locale, time_zone)
+            values (?, ?, ?, ?, ?)
+            on conflict (guild_id) do update set guild_id = excluded.guild_id
+            returning g.id, g.prefixes, g.locale, g.time_zone
+            """;
+
+    // driven by the guild id, so a guild without any config is one statement too
+    private static final String SETTINGS_SQL = """
+            select {g.*}, {ad.*}, {au.*}, {s.*}, {ac.*}
+            from (select cast(:guildId as bigint) as guild_id) k
+            left join guild_config g on g.guild_id = k.guild_id
+            left join admin_config ad on ad.guild_id = k.guild_id
+            left join audit_config au on au.guild_id = k.guild_id
+            left join starboard_config s on s.guild_id = k.guild_id
+            left join activity_config ac on ac.guild_id = k.guild_id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public GuildConfig upsert(GuildConfig guildConfig){
+        return jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(UPSERT_SQL);
+            statement.setLong(1, SnowflakeGenerator.nextSqlId());
+            statement.setLong(2, guildConfig.getGuildId().asLong());
+            statement.setArray(3, con.createArrayOf("text", guildConfig.prefixes().toArray()));
+            statement.setString(4, LocaleTypeDescriptor.INSTANCE.toString(guildConfig.locale()));
+            statement.setString(5, guildConfig.timeZone().getId());
+            return statement;
+        }, rs -> {
+            rs.next(); // always exactly one row
+            guildConfig.setId(rs.getLong("id"));
+            guildConfig.prefixes(List.of((String[])rs.getArray("prefixes").getArray()));
+            guildConfig.locale(LocaleTypeDescriptor.INSTANCE.fromString(rs.getString("locale")));
+            guildConfig.timeZone(ZoneId.of(rs.getString("time_zone")));
+            return guildConfig;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Object[] findSettings(long guildId){
+        // entities of the outer joins without a row are null
+        return (Object[])entityManager.createNativeQuery(SETTINGS_SQL)
+                .unwrap(NativeQuery.class)
+                .addEntity("g", GuildConfig.class)
+                .addEntity("ad", AdminConfig.class)
+                .addEntity("au", AuditConfig.class)
+                .addEntity("s", StarboardConfig.class)
+                .addEntity("ac", ActivityConfig.class)
+                .setParameter("guildId", guildId)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,10 @@
+package inside.data.repository;
+
+import inside.data.entity.LocalMember;
+
+public interface LocalMemberRepositoryCustom{
+
+    // inserts the member with a new activity, or updates name and roles of the existing row;
+    // the given entity gets the ids and counters of the stored row and is returned
+    LocalMember upsert(LocalMember localMember);
+}
@@ -0,0 +1,63 @@
+package inside.data.repository;
+
+import discord4j.common.util.Snowflake;
+import inside.data.entity.*;
+import inside.data.type.SnowflakeGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+
+class LocalMemberRepositoryImpl implements LocalMemberRepositoryCustom{
+
+    // the activity is only inserted with a new member, xmax is 0 for inserted rows;
+    // the final select doesn't see that activity yet, so its counters fall back to the defaults
+    private static final String UPSERT_SQL = """
+            with member as (insert into local_member as m (id, guild_id, user_id, effective_name, activity_id, last_role_ids)
+                            values (?, ?, ?, ?, ?, ?)
+                            on conflict (guild_id, user_id) do update
+                            set effective_name = excluded.effective_name, last_role_ids = excluded.last_role_ids
+                            returning m.id, m.guild_id, m.activity_id, m.xmax = 0 as inserted),
+                 activity as (insert into activity(id, guild_id, message_count)
+                              select activity_id, guild_id, 0 from member where inserted)
+            select m.id, m.activity_id, coalesce(a.message_count, 0) as message_count, a.last_sent_message
+            from member m
+            left join activity a on a.id = m.activity_id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public LocalMember upsert(LocalMember localMember){
+        Activity activity = localMember.getActivity();
+        Long[] roleIds = localMember.getLastRoleIds().stream()
+                .map(Snowflake::asLong)
+                .sorted()
+                .toArray(Long[]::new);
+
+        long[] ids = SnowflakeGenerator.nextSqlIds(2); // member and activity
+        return jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(UPSERT_SQL);
+            statement.setLong(1, ids[0]);
+            statement.setLong(2, localMember.getGuildId().asLong());
+            statement.setLong(3, localMember.getUserId().asLong());
+            statement.setString(4, localMember.getEffectiveName());
+            statement.setLong(5, ids[1]);
+            statement.setArray(6, con.createArrayOf("bigint", roleIds));
+            return statement;
+        }, rs -> {
+            rs.next(); // always exactly one row
+            localMember.setId(rs.getLong("id"));
+            activity.setId(rs.getLong("activity_id"));
+            activity.setMessageCount(rs.getInt("message_count"));
+            Timestamp lastSentMessage = rs.getTimestamp("last_sent_message");
+            if(lastSentMessage != null){
+                activity.setLastSentMessage(lastSentMessage.toInstant());
+            }
+            return localMember;
+        });
+    }
+}
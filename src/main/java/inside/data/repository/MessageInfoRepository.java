@@ -2,7 +2,9 @@ package inside.data.repository;
 
 import inside.data.entity.MessageInfo;
 import inside.data.repository.base.GuildRepository;
+import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 
@@ -11,7 +13,20 @@ public interface MessageInfoRepository extends GuildRepository<MessageInfo>{
 
     MessageInfo findByMessageId(long messageId);
 
+    // the timestamp is the partition key, so postgres reads a single partition
+    MessageInfo findByMessageIdAndTimestamp(long messageId, Instant timestamp);
+
     void deleteByMessageId(long messageId);
 
-    void deleteAllByTimestampBefore(Instant timestamp);
+    // a delete by id alone scans every partition, the timestamp lets postgres prune them
+    @Modifying
+    @Transactional
+    @Query("delete from MessageInfo m where m.id = :id and m.timestamp = :timestamp")
+    void deleteByIdAndTimestamp(long id, Instant timestamp);
+
+    // edits only change the content, unlike a merge this doesn't probe every partition by id
+    @Modifying
+    @Transactional
+    @Query("update MessageInfo m set m.content = :content where m.id = :id and m.timestamp = :timestamp")
+    void updateContent(long id, Instant timestamp, String content);
 }
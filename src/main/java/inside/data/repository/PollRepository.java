@@ -5,7 +5,7 @@ import inside.data.repository.base.GuildRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PollRepository extends GuildRepository<Poll>{
+public interface PollRepository extends GuildRepository<Poll>, PollRepositoryCustom{
 
     Poll findByMessageId(long messageId);
 }
@@ -0,0 +1,12 @@
+package inside.data.repository;
+
+import inside.data.entity.Poll;
+
+import java.util.Optional;
+
+public interface PollRepositoryCustom{
+
+    // records the vote of the user and increments the counter of the option in one statement;
+    // the counters after the vote, empty if the user has already voted
+    Optional<long[]> vote(Poll poll, long userId, int option);
+}
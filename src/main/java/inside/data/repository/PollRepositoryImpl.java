@@ -0,0 +1,38 @@
+package inside.data.repository;
+
+import inside.data.entity.Poll;
+import inside.data.type.SnowflakeGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+class PollRepositoryImpl implements PollRepositoryCustom{
+
+    // poll_answer(pool_id, user_id) is unique, a repeated vote inserts nothing and so updates nothing;
+    // the row lock of the update serializes concurrent votes on the same poll
+    private static final String VOTE_SQL = """
+            with vote as (insert into poll_answer(id, guild_id, option, user_id, pool_id)
+                          values (?, ?, ?, ?, ?)
+                          on conflict (pool_id, user_id) do nothing
+                          returning pool_id, option)
+            update poll p set votes[vote.option + 1] = p.votes[vote.option + 1] + 1
+            from vote
+            where p.id = vote.pool_id
+            returning p.votes
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Optional<long[]> vote(Poll poll, long userId, int option){
+        List<long[]> votes = jdbcTemplate.query(VOTE_SQL, (rs, rowNum) -> Arrays.stream((Long[])rs.getArray("votes").getArray())
+                        .mapToLong(Long::longValue)
+                        .toArray(),
+                SnowflakeGenerator.nextSqlId(), poll.getGuildId().asLong(), option, userId, poll.getId());
+        return votes.stream().findFirst();
+    }
+}
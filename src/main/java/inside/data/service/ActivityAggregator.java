@@ -0,0 +1,185 @@
+package inside.data.service;
+
+import discord4j.store.api.util.LongLongTuple2;
+import inside.Settings;
+import inside.data.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.*;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.*;
+import reactor.util.annotation.Nullable;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// write-behind buffer for message counters, flushed as batched relative updates
+@Component
+public class ActivityAggregator{
+    private static final Logger log = Loggers.getLogger(ActivityAggregator.class);
+
+    private static final String UPDATE_SQL = """
+            update activity a set message_count = a.message_count + ?,
+                                  last_sent_message = greatest(a.last_sent_message, ?)
+            from local_member m
+            where m.activity_id = a.id and m.user_id = ? and m.guild_id = ?
+            """;
+
+    private static final String RESET_SQL = "update activity set message_count = 0 where id = ?";
+
+    // (user id, guild id) -> not yet written delta
+    private final Map<LongLongTuple2, Delta> pending = new ConcurrentHashMap<>();
+    // deltas of the batch being written, still applied to loaded entities until it is committed;
+    // moved and read under the monitor of this, so a delta is never seen in both maps or in neither
+    private final Map<LongLongTuple2, Delta> inFlight = new HashMap<>();
+    // held for a whole flush, a reset waits for the batch so that it can't bring back the old counts
+    private final Object flushLock = new Object();
+
+    private final Settings settings;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PersistenceScheduler persistenceScheduler;
+
+    private volatile Disposable flushTask;
+
+    public ActivityAggregator(@Autowired Settings settings,
+                              @Autowired JdbcTemplate jdbcTemplate,
+                              @Autowired TransactionTemplate transactionTemplate,
+                              @Autowired PersistenceScheduler persistenceScheduler){
+        this.settings = settings;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.persistenceScheduler = persistenceScheduler;
+    }
+
+    // also applies the increment to the given entity, so cached copies stay current
+    public void increment(LocalMember localMember, Instant timestamp){
+        Objects.requireNonNull(timestamp, "timestamp");
+        Activity activity = localMember.getActivity();
+        activity.incrementMessageCount();
+        if(activity.getLastSentMessage() == null || activity.getLastSentMessage().isBefore(timestamp)){
+            activity.setLastSentMessage(timestamp);
+        }
+
+        pending.compute(key(localMember), (k, delta) -> delta == null
+                ? new Delta(1, timestamp)
+                : delta.add(timestamp));
+    }
+
+    // makes a freshly loaded entity reflect the not yet flushed deltas
+    @Nullable
+    public LocalMember apply(@Nullable LocalMember localMember){
+        if(localMember == null){
+            return null;
+        }
+        LongLongTuple2 key = key(localMember);
+        Delta delta;
+        synchronized(this){
+            Delta queued = pending.get(key);
+            Delta writing = inFlight.get(key);
+            delta = queued == null ? writing : writing == null ? queued : queued.merge(writing);
+        }
+        if(delta != null){
+            Activity activity = localMember.getActivity();
+            activity.setMessageCount(activity.getMessageCount() + delta.count());
+            if(activity.getLastSentMessage() == null || activity.getLastSentMessage().isBefore(delta.lastSentMessage())){
+                activity.setLastSentMessage(delta.lastSentMessage());
+            }
+        }
+        return localMember;
+    }
+
+    public Mono<Void> reset(LocalMember localMember){
+        return persistenceScheduler.fromRunnable(() -> {
+            synchronized(flushLock){
+                pending.remove(key(localMember));
+                localMember.getActivity().setMessageCount(0);
+                jdbcTemplate.update(RESET_SQL, localMember.getActivity().getId());
+            }
+        });
+    }
+
+    public int pendingCount(){
+        return pending.size();
+    }
+
+    public void flush(){
+        synchronized(flushLock){
+            if(pending.isEmpty()){
+                return;
+            }
+
+            List<Map.Entry<LongLongTuple2, Delta>> batch = new ArrayList<>(pending.size());
+            synchronized(this){
+                for(LongLongTuple2 key : pending.keySet()){
+                    Delta delta = pending.remove(key);
+                    if(delta != null){
+                        batch.add(Map.entry(key, delta));
+                        inFlight.put(key, delta);
+                    }
+                }
+            }
+
+            try{
+                // one transaction, so the whole batch becomes visible at once
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch,
+                        settings.getPersistence().getActivityBatchSize(), (ps, entry) -> {
+                            ps.setInt(1, entry.getValue().count());
+                            ps.setTimestamp(2, Timestamp.from(entry.getValue().lastSentMessage()));
+                            ps.setLong(3, entry.getKey().getT1());
+                            ps.setLong(4, entry.getKey().getT2());
+                        }));
+                synchronized(this){ // committed, loads see the deltas in the rows now
+                    inFlight.clear();
+                }
+            }catch(Throwable t){
+                log.error("Failed to flush {} activity deltas, keeping them for the next attempt", batch.size(), t);
+                synchronized(this){
+                    batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), Delta::merge));
+                    inFlight.clear();
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init(){
+        flushTask = Flux.interval(settings.getPersistence().getActivityFlushInterval(), Schedulers.parallel())
+                .onBackpressureDrop()
+                .concatMap(tick -> persistenceScheduler.fromRunnable(this::flush)
+                        .onErrorResume(t -> Mono.empty()), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy(){
+        Disposable task = flushTask;
+        if(task != null){
+            task.dispose();
+        }
+        flush(); // drain everything before the data source goes away
+    }
+
+    private static LongLongTuple2 key(LocalMember localMember){
+        return LongLongTuple2.of(localMember.getUserId().asLong(), localMember.getGuildId().asLong());
+    }
+
+    private record Delta(int count, Instant lastSentMessage){
+
+        Delta add(Instant timestamp){
+            return new Delta(count + 1, timestamp.isAfter(lastSentMessage) ? timestamp : lastSentMessage);
+        }
+
+        Delta merge(Delta other){
+            return new Delta(count + other.count, other.lastSentMessage.isAfter(lastSentMessage)
+                    ? other.lastSentMessage : lastSentMessage);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package inside.data.service;
+
+import inside.data.entity.base.GuildEntity;
+import inside.data.entity.snapshot.*;
+import inside.data.repository.base.BaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+// entities of these services are never cached or shared, readers get snapshots of the guild settings
+public abstract class BaseConfigService<V extends GuildEntity, S, R extends BaseRepository<V>>
+        extends BaseLongObjEntityService<V, R>
+        implements ConfigService<V, S>{
+
+    // the last write of a guild, load-modify-save runs after it so snapshots are published in commit order;
+    // the next write is chained to the future instead of a thread waiting on a lock
+    private final ConcurrentHashMap<Long, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    @Autowired
+    private GuildSettingsService guildSettingsService;
+
+    protected BaseConfigService(R repository){
+        super(repository);
+    }
+
+    protected abstract S snapshot(V entity);
+
+    // this service's part of the guild settings
+    protected abstract Optional<S> part(GuildSettings settings);
+
+    protected abstract GuildSettings withPart(ImmutableGuildSettings settings, Optional<S> part);
+
+    @Override
+    public Mono<S> findSnapshot(long guildId){
+        return guildSettingsService.find(guildId).flatMap(settings -> Mono.justOrEmpty(part(settings)));
+    }
+
+    @Override
+    public Mono<S> update(long guildId, Supplier<? extends V> factory, Consumer<? super V> updater){
+        return serialized(guildId, () -> {
+            V entity = find0(guildId); // detached, nobody else sees it
+            if(entity == null){
+                entity = factory.get();
+            }
+            updater.accept(entity);
+            return publish(repository.save(entity));
+        });
+    }
+
+    @Override
+    public Mono<Void> save(V entity){
+        return serialized(entity.getGuildId().asLong(), () -> publish(repository.save(entity))).then();
+    }
+
+    @Override
+    public Mono<Void> delete(V entity){
+        long guildId = entity.getGuildId().asLong();
+        return serialized(guildId, () -> {
+            repository.delete(entity);
+            guildSettingsService.patch(guildId, settings ->
+                    withPart(ImmutableGuildSettings.copyOf(settings), Optional.empty()));
+            return entity;
+        }).then();
+    }
+
+    protected S publish(V saved){
+        S snapshot = snapshot(saved);
+        guildSettingsService.patch(saved.getGuildId().asLong(), settings ->
+                withPart(ImmutableGuildSettings.copyOf(settings), Optional.of(snapshot)));
+        return snapshot;
+    }
+
+    // runs the task on the persistence scheduler once the previous task of the guild has finished,
+    // a cancelled subscriber doesn't cancel the task, so the order holds either way
+    protected <T> Mono<T> serialized(long guildId, Supplier<? extends T> task){
+        return Mono.defer(() -> {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            CompletableFuture<?>[] previous = new CompletableFuture<?>[1];
+            tails.compute(guildId, (id, tail) -> {
+                previous[0] = tail;
+                return result;
+            });
+
+            Runnable run = () -> persistenceScheduler.<T>fromSupplier(task)
+                    .subscribe(result::complete, result::completeExceptionally, () -> result.complete(null));
+            if(previous[0] == null){
+                run.run();
+            }else{
+                previous[0].whenComplete((ignored, t) -> run.run());
+            }
+            result.whenComplete((ignored, t) -> tails.remove(guildId, result));
+            return Mono.fromFuture(result.copy());
+        });
+    }
+}
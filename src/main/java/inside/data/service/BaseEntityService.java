@@ -1,82 +1,243 @@
 package inside.data.service;
 
-import inside.data.cache.EntityCacheManager;
+import inside.data.cache.*;
 import inside.data.entity.base.GuildEntity;
 import inside.data.repository.base.BaseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.util.ClassTypeInformation;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.*;
 import reactor.util.annotation.Nullable;
 
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+import java.util.function.Predicate;
+
 public abstract class BaseEntityService<K, V extends GuildEntity, R extends BaseRepository<V>> implements EntityService<K, V>{
 
     protected final R repository;
 
     protected final boolean cache;
 
+    private final CachePolicy cachePolicy;
+
+    private final Class<V> entityType;
+
     @Autowired
     private EntityCacheManager entityCacheManager;
 
+    @Autowired
+    protected PersistenceScheduler persistenceScheduler;
+
+    // resolved once, null if caching is disabled
+    private EntityCache<K, V> entityCache;
+
     protected BaseEntityService(R repository){
-        this(repository, false);
+        this(repository, disabled());
     }
 
-    protected BaseEntityService(R repository, boolean cache){
+    protected BaseEntityService(R repository, CachePolicy cachePolicy){
         this.repository = repository;
-        this.cache = cache;
+        this.cachePolicy = cachePolicy;
+        this.cache = cachePolicy.isEnabled();
+        this.entityType = resolveEntityType();
+    }
+
+    private static CachePolicy disabled(){
+        CachePolicy policy = new CachePolicy();
+        policy.setEnabled(false);
+        return policy;
+    }
+
+    @PostConstruct
+    private void initCache(){
+        if(cache){
+            entityCache = isBlocking()
+                    ? entityCacheManager.getCache(entityType, cachePolicy, this::find0)
+                    : entityCacheManager.getReactiveCache(entityType, cachePolicy, this::load);
+        }
     }
 
     @Override
     public Mono<V> find(K id){
         if(cache){
-            return Mono.fromSupplier(() -> entityCacheManager.get(getEntityType(), id, this::find0));
+            return entityCache.get(id);
         }
-        return Mono.fromSupplier(() -> find0(id));
+        return load(id);
+    }
+
+    // the cached entity without loading, null if caching is disabled
+    @Nullable
+    public V getIfCached(K id){
+        return cache ? entityCache.getIfPresent(id) : null;
+    }
+
+    // false for services that override load, persist and remove with a non-blocking driver
+    protected boolean isBlocking(){
+        return true;
+    }
+
+    protected Mono<V> load(K id){
+        return persistenceScheduler.fromSupplier(() -> find0(id));
+    }
+
+    protected Mono<V> persist(V entity){
+        return persistenceScheduler.fromSupplier(() -> save0(entity));
+    }
+
+    protected Mono<Void> remove(V entity){
+        return persistenceScheduler.fromRunnable(() -> delete0(entity));
+    }
+
+    protected V save0(V entity){
+        return repository.save(entity);
+    }
+
+    protected void delete0(V entity){
+        repository.delete(entity);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Flux<V> getAll(){
-        return Flux.defer(() -> Flux.fromIterable(repository.findAll()));
+        return persistenceScheduler.fromIterable(repository::findAll);
     }
 
     @Nullable
     protected abstract V find0(K id);
 
     @Override
-    @Transactional
     public Mono<Void> save(V entity){
-        return Mono.fromRunnable(() -> {
-            repository.save(entity);
-            if(cache){
-                entityCacheManager.evict(getEntityType(), extractId(entity));
+        return Mono.deferContextual(ctx -> {
+            // joins the unit of work of the event, the entity is cached right away so later reads
+            // of the event see it, replaced by the saved one on commit and evicted on rollback
+            Optional<UnitOfWork> unitOfWork = isBlocking() ? UnitOfWork.current(ctx) : Optional.empty();
+            if(unitOfWork.isPresent()){
+                if(cache){
+                    writeThrough(entity);
+                }
+                if(unitOfWork.get().enqueue(
+                        () -> save0(entity),
+                        saved -> {
+                            if(cache){
+                                writeThrough(saved);
+                            }
+                        },
+                        () -> {
+                            if(cache){ // holds the discarded changes
+                                evict(entity);
+                            }
+                        })){
+                    return Mono.empty();
+                }
             }
+
+            return persist(entity)
+                    .doOnNext(saved -> {
+                        if(cache){ // committed at this point, also replaces the absent marker
+                            writeThrough(saved);
+                        }
+                    })
+                    .doOnError(t -> {
+                        if(cache){
+                            evict(entity);
+                        }
+                    })
+                    .then();
         });
     }
 
     @Override
-    @Transactional
     public Mono<Void> delete(K id){
         return find(id).flatMap(this::delete);
     }
 
     @Override
-    @Transactional
     public Mono<Void> delete(V entity){
-        return Mono.fromRunnable(() -> repository.delete(entity));
+        return Mono.deferContextual(ctx -> {
+            // cached as absent until the unit of work commits, evicted again on rollback
+            Optional<UnitOfWork> unitOfWork = isBlocking() ? UnitOfWork.current(ctx) : Optional.empty();
+            if(unitOfWork.isPresent()){
+                if(cache){
+                    markAbsent(entity);
+                }
+                if(unitOfWork.get().enqueue(
+                        () -> {
+                            delete0(entity);
+                            return entity;
+                        },
+                        deleted -> {
+                            if(cache){
+                                evict(deleted);
+                            }
+                        },
+                        () -> {
+                            if(cache){
+                                evict(entity);
+                            }
+                        })){
+                    return Mono.empty();
+                }
+            }
+
+            return remove(entity).then(Mono.fromRunnable(() -> {
+                if(cache){
+                    evict(entity);
+                }
+            })).doOnError(t -> {
+                if(cache){
+                    evict(entity);
+                }
+            });
+        });
     }
 
     @SuppressWarnings("unchecked")
-    private Class<V> getEntityType(){
+    private Class<V> resolveEntityType(){
         return (Class<V>)ClassTypeInformation.from(getClass())
                 .getRequiredSuperTypeInformation(EntityService.class)
                 .getTypeArguments()
                 .get(1).getType();
     }
 
+    @SuppressWarnings("unchecked")
+    protected void writeThrough(V entity){
+        entityCache.put((K)extractId(entity), entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void evict(V entity){
+        entityCache.evict((K)extractId(entity));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void markAbsent(V entity){
+        entityCache.putAbsent((K)extractId(entity));
+    }
+
+    protected void evictById(K id){
+        if(cache){
+            entityCache.evict(id);
+        }
+    }
+
+    protected void evictAll(Predicate<? super K> filter){
+        if(cache){
+            entityCache.evictAll(filter);
+        }
+    }
+
+    protected void evictAllInGuild(long guildId){
+        evictAllValues(entity -> entity.getGuildId().asLong() == guildId);
+    }
+
+    protected void evictAllValues(Predicate<? super V> filter){
+        if(cache){
+            entityCache.evictAllValues(filter);
+        }
+    }
+
+    // must be equal to the key used by find
     protected Object extractId(V entity){
-        return entity.getGuildId();
+        return entity.getGuildId().asLong();
     }
 
     protected void cleanUp(){
@@ -1,5 +1,6 @@
 package inside.data.service;
 
+import inside.data.cache.CachePolicy;
 import inside.data.entity.base.GuildEntity;
 import inside.data.repository.base.BaseRepository;
 import reactor.core.publisher.Mono;
@@ -10,16 +11,16 @@ public abstract class BaseLongObjEntityService<V extends GuildEntity, R extends
         implements LongObjEntityService<V>{
 
     protected BaseLongObjEntityService(R repository){
-        this(repository, false);
+        super(repository);
     }
 
-    protected BaseLongObjEntityService(R repository, boolean cache){
-        super(repository, cache);
+    protected BaseLongObjEntityService(R repository, CachePolicy cachePolicy){
+        super(repository, cachePolicy);
     }
 
     @Override
     public Mono<V> find(long id){
-        return Mono.fromSupplier(() -> find0(id));
+        return find((Long)id);
     }
 
     @Nullable
@@ -0,0 +1,16 @@
+package inside.data.service;
+
+import inside.data.entity.base.GuildEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.function.*;
+
+// guild settings read through immutable snapshots, written copy-on-write
+public interface ConfigService<V extends GuildEntity, S> extends LongObjEntityService<V>{
+
+    Mono<S> findSnapshot(long guildId);
+
+    // applies the updater to a private copy of the row (or factory result if there's none yet),
+    // saves it and publishes the new snapshot after commit
+    Mono<S> update(long guildId, Supplier<? extends V> factory, Consumer<? super V> updater);
+}
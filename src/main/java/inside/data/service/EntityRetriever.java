@@ -4,33 +4,42 @@ import discord4j.common.util.Snowflake;
 import discord4j.core.object.entity.*;
 import discord4j.discordjson.json.EmojiData;
 import inside.data.entity.*;
+import inside.data.entity.snapshot.*;
 import reactor.core.publisher.*;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EntityRetriever{
 
+    // all configs of the guild with a single lookup
+
+    Mono<GuildSettings> getGuildSettings(Snowflake guildId);
+
     // guild config
 
-    Mono<GuildConfig> getGuildConfigById(Snowflake guildId);
+    Mono<GuildConfigSnapshot> getGuildConfigById(Snowflake guildId);
+
+    Mono<GuildConfigSnapshot> updateGuildConfig(Snowflake guildId, Consumer<? super GuildConfig> updater);
 
-    Mono<Void> save(GuildConfig guildConfig);
+    // get-or-create, safe against concurrent first events of the guild
+    Mono<GuildConfigSnapshot> upsertGuildConfig(Snowflake guildId);
 
     Mono<Void> deleteGuildConfigById(Snowflake guildId);
 
     // admin config
 
-    Mono<AdminConfig> getAdminConfigById(Snowflake guildId);
+    Mono<AdminConfigSnapshot> getAdminConfigById(Snowflake guildId);
 
-    Mono<Void> save(AdminConfig adminConfig);
+    Mono<AdminConfigSnapshot> updateAdminConfig(Snowflake guildId, Consumer<? super AdminConfig> updater);
 
     Mono<Void> deleteAdminConfigById(Snowflake guildId);
 
     // audit config
 
-    Mono<AuditConfig> getAuditConfigById(Snowflake guildId);
+    Mono<AuditConfigSnapshot> getAuditConfigById(Snowflake guildId);
 
-    Mono<Void> save(AuditConfig auditConfig);
+    Mono<AuditConfigSnapshot> updateAuditConfig(Snowflake guildId, Consumer<? super AuditConfig> updater);
 
     Mono<Void> deleteAuditConfigById(Snowflake guildId);
 
@@ -42,6 +51,9 @@ public interface EntityRetriever{
 
     Mono<LocalMember> getAndUpdateLocalMemberById(Member member);
 
+    // get-or-create with the current name and roles, a single statement on cache miss
+    Mono<LocalMember> upsertLocalMember(Member member);
+
     Mono<Void> save(LocalMember localMember);
 
     Mono<Void> deleteAllLocalMembersInGuild(Snowflake guildId);
@@ -60,9 +72,9 @@ public interface EntityRetriever{
 
     // starboard config
 
-    Mono<StarboardConfig> getStarboardConfigById(Snowflake guildId);
+    Mono<StarboardConfigSnapshot> getStarboardConfigById(Snowflake guildId);
 
-    Mono<Void> save(StarboardConfig starboardConfig);
+    Mono<StarboardConfigSnapshot> updateStarboardConfig(Snowflake guildId, Consumer<? super StarboardConfig> updater);
 
     Mono<Void> deleteStarboardConfigById(Snowflake guildId);
 
@@ -80,9 +92,9 @@ public interface EntityRetriever{
 
     // activity config
 
-    Mono<ActivityConfig> getActivityConfigById(Snowflake guildId);
+    Mono<ActivityConfigSnapshot> getActivityConfigById(Snowflake guildId);
 
-    Mono<Void> save(ActivityConfig activityConfig);
+    Mono<ActivityConfigSnapshot> updateActivityConfig(Snowflake guildId, Consumer<? super ActivityConfig> updater);
 
     Mono<Void> deleteActivityConfigById(Snowflake guildId);
 
@@ -114,6 +126,9 @@ public interface EntityRetriever{
 
     Mono<Void> save(Poll poll);
 
+    // empty if the user has already voted
+    Mono<Poll> vote(Poll poll, Snowflake userId, int option);
+
     Mono<Void> delete(Poll poll);
 
     Mono<Void> deleteAllPollInGuild(Snowflake guildId);
@@ -126,19 +141,19 @@ public interface EntityRetriever{
 
     // factory methods
 
-    Mono<GuildConfig> createGuildConfig(Snowflake guildId);
+    Mono<GuildConfigSnapshot> createGuildConfig(Snowflake guildId);
 
-    Mono<AdminConfig> createAdminConfig(Snowflake guildId);
+    Mono<AdminConfigSnapshot> createAdminConfig(Snowflake guildId);
 
-    Mono<AuditConfig> createAuditConfig(Snowflake guildId);
+    Mono<AuditConfigSnapshot> createAuditConfig(Snowflake guildId);
 
     Mono<LocalMember> createLocalMember(Member member);
 
-    Mono<ActivityConfig> createActiveUserConfig(Snowflake guildId);
+    Mono<ActivityConfigSnapshot> createActiveUserConfig(Snowflake guildId);
 
     Mono<MessageInfo> createMessageInfo(Message message);
 
-    Mono<StarboardConfig> createStarboardConfig(Snowflake guildId);
+    Mono<StarboardConfigSnapshot> createStarboardConfig(Snowflake guildId);
 
     Mono<Starboard> createStarboard(Snowflake guildId, Snowflake sourceMessageId, Snowflake targetMessageId);
 
@@ -0,0 +1,80 @@
+package inside.data.service;
+
+import discord4j.common.util.Snowflake;
+import inside.Settings;
+import inside.data.cache.*;
+import inside.data.entity.*;
+import inside.data.entity.snapshot.*;
+import inside.data.repository.GuildConfigRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+// one cache entry and one query for every per-guild config
+@Component
+public class GuildSettingsService{
+
+    private final GuildConfigRepository guildConfigRepository;
+    private final Settings settings;
+
+    @Autowired
+    private EntityCacheManager entityCacheManager;
+
+    @Autowired
+    private PersistenceScheduler persistenceScheduler;
+
+    private EntityCache<Long, GuildSettings> cache;
+
+    public GuildSettingsService(@Autowired GuildConfigRepository guildConfigRepository,
+                                @Autowired Settings settings){
+        this.guildConfigRepository = guildConfigRepository;
+        this.settings = settings;
+    }
+
+    @PostConstruct
+    private void initCache(){
+        if(settings.getCache().getGuildSettings().isEnabled()){
+            cache = entityCacheManager.getCache(GuildSettings.class, settings.getCache().getGuildSettings(), this::load);
+        }
+    }
+
+    public Mono<GuildSettings> find(long guildId){
+        if(cache != null){
+            return cache.get(guildId);
+        }
+        return persistenceScheduler.fromSupplier(() -> load(guildId));
+    }
+
+    // applied to the cached settings only, an uncached guild is loaded on next access anyway
+    public void patch(long guildId, UnaryOperator<GuildSettings> patch){
+        if(cache != null){
+            cache.computeIfPresent(guildId, patch);
+        }
+    }
+
+    public void evict(long guildId){
+        if(cache != null){
+            cache.evict(guildId);
+        }
+    }
+
+    // every column is an eager basic or custom type, so the snapshots can be taken outside a session
+    private GuildSettings load(long guildId){
+        return of(guildId, guildConfigRepository.findSettings(guildId));
+    }
+
+    private static GuildSettings of(long guildId, Object[] row){
+        return GuildSettings.builder()
+                .guildId(Snowflake.of(guildId))
+                .guildConfig(Optional.ofNullable((GuildConfig)row[0]).map(GuildConfigSnapshot::of))
+                .adminConfig(Optional.ofNullable((AdminConfig)row[1]).map(AdminConfigSnapshot::of))
+                .auditConfig(Optional.ofNullable((AuditConfig)row[2]).map(AuditConfigSnapshot::of))
+                .starboardConfig(Optional.ofNullable((StarboardConfig)row[3]).map(StarboardConfigSnapshot::of))
+                .activityConfig(Optional.ofNullable((ActivityConfig)row[4]).map(ActivityConfigSnapshot::of))
+                .build();
+    }
+}
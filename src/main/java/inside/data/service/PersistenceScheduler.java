@@ -0,0 +1,88 @@
+package inside.data.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import inside.Settings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.*;
+import reactor.core.scheduler.*;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// bounded executor for blocking jpa calls, keeps them off the gateway threads
+@Component
+public class PersistenceScheduler{
+    public static final String NAME = "insidebot-persistence";
+
+    private final Executor executor;
+
+    private final Scheduler scheduler;
+
+    public PersistenceScheduler(@Autowired Settings settings,
+                                @Autowired DataSource dataSource,
+                                @Autowired MeterRegistry meterRegistry){
+        int poolSize = settings.getPersistence().getPoolSize();
+        if(poolSize <= 0){ // match the connection pool
+            poolSize = dataSource instanceof HikariDataSource h
+                    ? h.getMaximumPoolSize()
+                    : Runtime.getRuntime().availableProcessors();
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(settings.getPersistence().getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, NAME + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        // executor.queued, executor.active and executor.idle (time spent in queue)
+        ExecutorService monitored = ExecutorServiceMetrics.monitor(meterRegistry, executor, NAME);
+        this.executor = monitored;
+        scheduler = Schedulers.fromExecutorService(monitored, NAME);
+    }
+
+    public Scheduler get(){
+        return scheduler;
+    }
+
+    // for blocking work outside of reactor, e.g. cache loads
+    public Executor executor(){
+        return executor;
+    }
+
+    public <T> Mono<T> fromSupplier(Supplier<? extends T> supplier){
+        return Mono.<T>fromSupplier(supplier).subscribeOn(scheduler);
+    }
+
+    public Mono<Void> fromRunnable(Runnable runnable){
+        return Mono.<Void>fromRunnable(runnable).subscribeOn(scheduler);
+    }
+
+    // enqueued to the unit of work of the subscriber if there is one, otherwise runs in its own transaction
+    public Mono<Void> write(Runnable runnable){
+        return Mono.deferContextual(ctx -> UnitOfWork.current(ctx)
+                .filter(unitOfWork -> unitOfWork.enqueue(runnable))
+                .map(unitOfWork -> Mono.<Void>empty())
+                .orElseGet(() -> fromRunnable(runnable)));
+    }
+
+    public <T> Flux<T> fromIterable(Supplier<? extends Iterable<? extends T>> supplier){
+        return Flux.defer(() -> Flux.<T>fromIterable(supplier.get())).subscribeOn(scheduler);
+    }
+
+    @PreDestroy
+    public void destroy(){
+        scheduler.dispose();
+    }
+}
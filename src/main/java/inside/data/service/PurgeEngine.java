@@ -0,0 +1,93 @@
+package inside.data.service;
+
+import inside.Settings;
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.*;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// deletes expired rows in small keyset-paginated chunks, each chunk is its own statement and transaction
+@Component
+public class PurgeEngine{
+    private static final Logger log = Loggers.getLogger(PurgeEngine.class);
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    private final Settings settings;
+    private final JdbcTemplate jdbcTemplate;
+    private final PersistenceScheduler persistenceScheduler;
+    private final MeterRegistry meterRegistry;
+
+    public PurgeEngine(@Autowired Settings settings,
+                       @Autowired JdbcTemplate jdbcTemplate,
+                       @Autowired PersistenceScheduler persistenceScheduler,
+                       @Autowired MeterRegistry meterRegistry){
+        this.settings = settings;
+        this.jdbcTemplate = jdbcTemplate;
+        this.persistenceScheduler = persistenceScheduler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // emits the number of deleted rows, empty if the task is already running
+    public Mono<Long> purge(Task task, Object... args){
+        return Mono.defer(() -> {
+            if(!running.add(task.name())){
+                return Mono.empty();
+            }
+
+            log.debug("Purge '{}' started", task.name());
+            return purge(task, args, Long.MIN_VALUE, 0)
+                    .doOnNext(total -> log.info("Purge '{}' deleted {} rows", task.name(), total))
+                    .doFinally(signal -> running.remove(task.name()));
+        });
+    }
+
+    private Mono<Long> purge(Task task, Object[] args, long cursor, long total){
+        int chunkSize = settings.getPersistence().getPurgeChunkSize();
+        return persistenceScheduler.fromSupplier(() -> deleteChunk(task, args, cursor, chunkSize))
+                .flatMap(ids -> {
+                    long deleted = total + ids.size();
+                    if(ids.size() < chunkSize){
+                        return Mono.just(deleted);
+                    }
+                    // ids are sorted, the last one is the next keyset cursor
+                    return Mono.delay(chunkDelay(ids.size()))
+                            .then(Mono.defer(() -> purge(task, args, ids.get(ids.size() - 1), deleted)));
+                });
+    }
+
+    private List<Long> deleteChunk(Task task, Object[] args, long cursor, int chunkSize){
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object[] params = Arrays.copyOf(args, args.length + 2);
+        params[args.length] = cursor;
+        params[args.length + 1] = chunkSize;
+
+        List<Long> ids = jdbcTemplate.queryForList(task.sql(), Long.class, params);
+        ids.sort(null);
+
+        sample.stop(meterRegistry.timer("insidebot.purge.chunk", "task", task.name()));
+        meterRegistry.counter("insidebot.purge.rows", "task", task.name()).increment(ids.size());
+        return ids;
+    }
+
+    private Duration chunkDelay(int deleted){
+        int rowsPerSecond = settings.getPersistence().getPurgeRowsPerSecond();
+        return rowsPerSecond <= 0 ? Duration.ZERO : Duration.ofMillis(deleted * 1000L / rowsPerSecond);
+    }
+
+    // sql is a delete returning the deleted ids, its last two parameters are
+    // the keyset cursor (exclusive lower id bound) and the chunk size
+    public record Task(String name, String sql){
+
+        public Task{
+            Objects.requireNonNull(name, "name");
+            Objects.requireNonNull(sql, "sql");
+        }
+    }
+}
@@ -18,13 +18,15 @@ public final class StoreHolder{
     private final WelcomeMessageService welcomeMessageService;
     private final PollService pollService;
     private final CommandConfigService commandConfigService;
+    private final GuildSettingsService guildSettingsService;
 
     public StoreHolder(@Autowired GuildConfigService guildConfigService, @Autowired AdminConfigService adminConfigService,
                        @Autowired LocalMemberService localMemberService, @Autowired AuditConfigService auditConfigService,
                        @Autowired MessageInfoService messageInfoService, @Autowired StarboardConfigService starboardConfigService,
                        @Autowired StarboardService starboardService, @Autowired ActivityConfigService activityConfigService,
                        @Autowired EmojiDispenserService emojiDispenserService, @Autowired WelcomeMessageService welcomeMessageService,
-                       @Autowired PollService pollService, @Autowired CommandConfigService commandConfigService){
+                       @Autowired PollService pollService, @Autowired CommandConfigService commandConfigService,
+                       @Autowired GuildSettingsService guildSettingsService){
         this.guildConfigService = guildConfigService;
         this.adminConfigService = adminConfigService;
         this.localMemberService = localMemberService;
@@ -37,6 +39,7 @@ public final class StoreHolder{
         this.welcomeMessageService = welcomeMessageService;
         this.pollService = pollService;
         this.commandConfigService = commandConfigService;
+        this.guildSettingsService = guildSettingsService;
     }
 
     public GuildConfigService getGuildConfigService(){
@@ -86,4 +89,8 @@ public final class StoreHolder{
     public CommandConfigService getCommandConfigService(){
         return commandConfigService;
     }
+
+    public GuildSettingsService getGuildSettingsService(){
+        return guildSettingsService;
+    }
 }
@@ -0,0 +1,94 @@
+package inside.data.service;
+
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.Nullable;
+import reactor.util.context.ContextView;
+
+import java.util.*;
+import java.util.function.*;
+
+// blocking writes produced while handling one event, bound to the subscriber context
+// and flushed by UnitOfWorkManager in a single transaction once the handler completes or times out
+public final class UnitOfWork{
+
+    private final String name;
+
+    private final List<Write<?>> writes = new ArrayList<>();
+
+    private boolean closed;
+
+    UnitOfWork(String name){
+        this.name = name;
+    }
+
+    public static Optional<UnitOfWork> current(ContextView context){
+        return context.getOrEmpty(UnitOfWork.class);
+    }
+
+    public static Mono<UnitOfWork> current(){
+        return Mono.deferContextual(context -> Mono.justOrEmpty(current(context)));
+    }
+
+    // false if the unit is already flushed or discarded, the caller must write on its own then
+    public synchronized <T> boolean enqueue(Supplier<? extends T> write, Consumer<? super T> onCommit, Runnable onRollback){
+        if(closed){
+            return false;
+        }
+        writes.add(new Write<>(write, onCommit, onRollback));
+        return true;
+    }
+
+    public boolean enqueue(Runnable write){
+        return enqueue(() -> {
+            write.run();
+            return null;
+        }, result -> {}, () -> {});
+    }
+
+    String name(){
+        return name;
+    }
+
+    // the writes enqueued so far, the unit stays open
+    synchronized List<Write<?>> drain(){
+        List<Write<?>> list = List.copyOf(writes);
+        writes.clear();
+        return list;
+    }
+
+    // null if already closed, so the writes are flushed or discarded once
+    @Nullable
+    synchronized List<Write<?>> close(){
+        if(closed){
+            return null;
+        }
+        closed = true;
+        return drain();
+    }
+
+    static final class Write<T>{
+        private final Supplier<? extends T> write;
+        private final Consumer<? super T> onCommit;
+        private final Runnable onRollback;
+
+        private T result;
+
+        Write(Supplier<? extends T> write, Consumer<? super T> onCommit, Runnable onRollback){
+            this.write = write;
+            this.onCommit = onCommit;
+            this.onRollback = onRollback;
+        }
+
+        void execute(){
+            result = write.get();
+        }
+
+        void commit(){
+            onCommit.accept(result);
+        }
+
+        void rollback(){
+            onRollback.run();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package inside.data.service;
+
+import inside.Settings;
+import inside.data.type.StatementCounter;
+import io.micrometer.core.instrument.*;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.*;
+import reactor.util.*;
+import reactor.util.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+// runs a handler with a fresh unit of work in its context, commits the collected writes
+// in one transaction when it completes or times out and drops them when it fails or is cancelled
+@Component
+public class UnitOfWorkManager{
+    private static final Logger log = Loggers.getLogger(UnitOfWorkManager.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final PersistenceScheduler persistenceScheduler;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+
+    public UnitOfWorkManager(@Autowired TransactionTemplate transactionTemplate,
+                             @Autowired PersistenceScheduler persistenceScheduler,
+                             @Autowired Settings settings,
+                             @Autowired MeterRegistry meterRegistry){
+        this.transactionTemplate = transactionTemplate;
+        this.persistenceScheduler = persistenceScheduler;
+        this.timeout = settings.getPersistence().getUnitOfWorkTimeout();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Flux<T> within(String name, Publisher<T> handler){
+        return Flux.usingWhen(Mono.fromSupplier(() -> new UnitOfWork(name)),
+                unitOfWork -> {
+                    // handlers ending in Mono.never() still commit; writes after the timeout aren't enqueued
+                    // and run on their own. only the delay is disposed, a started commit isn't cancelled
+                    Disposable deadline = Mono.delay(timeout).subscribe(ignored -> commit(unitOfWork)
+                            .subscribe(null, t -> log.error("Failed to flush writes of '{}'", name, t)));
+                    return Flux.from(handler)
+                            .contextWrite(ctx -> ctx.put(UnitOfWork.class, unitOfWork))
+                            .doFinally(signal -> deadline.dispose());
+                },
+                this::commit,
+                (unitOfWork, t) -> rollback(unitOfWork, "error", t),
+                unitOfWork -> rollback(unitOfWork, "cancel", null));
+    }
+
+    // commits the writes enqueued so far by the subscriber, for handlers that must read them back with a query;
+    // the unit stays open for later writes
+    public Mono<Void> flush(){
+        return UnitOfWork.current().flatMap(unitOfWork -> execute(unitOfWork.name(), unitOfWork.drain()));
+    }
+
+    private Mono<Void> commit(UnitOfWork unitOfWork){
+        return Mono.defer(() -> {
+            List<UnitOfWork.Write<?>> writes = unitOfWork.close();
+            return writes != null ? execute(unitOfWork.name(), writes) : Mono.empty();
+        });
+    }
+
+    private Mono<Void> execute(String name, List<UnitOfWork.Write<?>> writes){
+        return Mono.defer(() -> {
+            if(writes.isEmpty()){
+                statements(name).record(0);
+                return Mono.empty();
+            }
+
+            return persistenceScheduler.fromRunnable(() -> {
+                StatementCounter.start();
+                try{
+                    transactionTemplate.executeWithoutResult(status -> writes.forEach(UnitOfWork.Write::execute));
+                }catch(Throwable t){
+                    discard(name, writes, "flush");
+                    throw t;
+                }finally{
+                    statements(name).record(StatementCounter.stop());
+                }
+                writes.forEach(UnitOfWork.Write::commit);
+            });
+        });
+    }
+
+    private Mono<Void> rollback(UnitOfWork unitOfWork, String cause, @Nullable Throwable t){
+        return Mono.fromRunnable(() -> {
+            List<UnitOfWork.Write<?>> writes = unitOfWork.close();
+            if(writes != null && !writes.isEmpty()){
+                log.debug("Discarding {} writes of '{}' on {}", writes.size(), unitOfWork.name(), cause, t);
+                discard(unitOfWork.name(), writes, cause);
+            }
+        });
+    }
+
+    private void discard(String name, List<UnitOfWork.Write<?>> writes, String cause){
+        meterRegistry.counter("insidebot.unit-of-work.rollbacks", "event", name, "cause", cause).increment();
+        // cached entities may hold the uncommitted state
+        writes.forEach(UnitOfWork.Write::rollback);
+    }
+
+    private DistributionSummary statements(String name){
+        return DistributionSummary.builder("insidebot.unit-of-work.statements")
+                .tag("event", name)
+                .register(meterRegistry);
+    }
+}
@@ -1,18 +1,20 @@
 package inside.data.service.impl;
 
-import inside.Settings;
 import inside.data.entity.ActivityConfig;
+import inside.data.entity.snapshot.*;
 import inside.data.repository.ActivityConfigRepository;
-import inside.data.service.BaseLongObjEntityService;
+import inside.data.service.BaseConfigService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.util.annotation.Nullable;
 
+import java.util.Optional;
+
 @Service
-public class ActivityConfigService extends BaseLongObjEntityService<ActivityConfig, ActivityConfigRepository>{
+public class ActivityConfigService extends BaseConfigService<ActivityConfig, ActivityConfigSnapshot, ActivityConfigRepository>{
 
-    protected ActivityConfigService(ActivityConfigRepository repository, Settings settings){
-        super(repository, settings.getCache().isActivityConfig());
+    protected ActivityConfigService(ActivityConfigRepository repository){
+        super(repository);
     }
 
     @Nullable
@@ -21,4 +23,19 @@ public class ActivityConfigService extends BaseLongObjEntityService<ActivityConf
     protected ActivityConfig find0(long id){
         return repository.findByGuildId(id);
     }
+
+    @Override
+    protected ActivityConfigSnapshot snapshot(ActivityConfig entity){
+        return ActivityConfigSnapshot.of(entity);
+    }
+
+    @Override
+    protected Optional<ActivityConfigSnapshot> part(GuildSettings settings){
+        return settings.getActivityConfig();
+    }
+
+    @Override
+    protected GuildSettings withPart(ImmutableGuildSettings settings, Optional<ActivityConfigSnapshot> part){
+        return settings.withActivityConfig(part);
+    }
 }
@@ -1,18 +1,20 @@
 package inside.data.service.impl;
 
-import inside.Settings;
 import inside.data.entity.AdminConfig;
+import inside.data.entity.snapshot.*;
 import inside.data.repository.AdminConfigRepository;
-import inside.data.service.BaseLongObjEntityService;
+import inside.data.service.BaseConfigService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.util.annotation.Nullable;
 
+import java.util.Optional;
+
 @Service
-public class AdminConfigService extends BaseLongObjEntityService<AdminConfig, AdminConfigRepository>{
+public class AdminConfigService extends BaseConfigService<AdminConfig, AdminConfigSnapshot, AdminConfigRepository>{
 
-    protected AdminConfigService(AdminConfigRepository repository, Settings settings){
-        super(repository, settings.getCache().isAdminConfig());
+    protected AdminConfigService(AdminConfigRepository repository){
+        super(repository);
     }
 
     @Nullable
@@ -21,4 +23,19 @@ public class AdminConfigService extends BaseLongObjEntityService<AdminConfig, Ad
     protected AdminConfig find0(long id){
         return repository.findByGuildId(id);
     }
+
+    @Override
+    protected AdminConfigSnapshot snapshot(AdminConfig entity){
+        return AdminConfigSnapshot.of(entity);
+    }
+
+    @Override
+    protected Optional<AdminConfigSnapshot> part(GuildSettings settings){
+        return settings.getAdminConfig();
+    }
+
+    @Override
+    protected GuildSettings withPart(ImmutableGuildSettings settings, Optional<AdminConfigSnapshot> part){
+        return settings.withAdminConfig(part);
+    }
 }
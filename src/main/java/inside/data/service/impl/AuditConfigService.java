@@ -1,18 +1,20 @@
 package inside.data.service.impl;
 
-import inside.Settings;
 import inside.data.entity.AuditConfig;
+import inside.data.entity.snapshot.*;
 import inside.data.repository.AuditConfigRepository;
-import inside.data.service.BaseLongObjEntityService;
+import inside.data.service.BaseConfigService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.util.annotation.Nullable;
 
+import java.util.Optional;
+
 @Service
-public class AuditConfigService extends BaseLongObjEntityService<AuditConfig, AuditConfigRepository>{
+public class AuditConfigService extends BaseConfigService<AuditConfig, AuditConfigSnapshot, AuditConfigRepository>{
 
-    protected AuditConfigService(AuditConfigRepository repository, Settings settings){
-        super(repository, settings.getCache().isAuditConfig());
+    protected AuditConfigService(AuditConfigRepository repository){
+        super(repository);
     }
 
     @Nullable
@@ -21,4 +23,19 @@ public class AuditConfigService extends BaseLongObjEntityService<AuditConfig, Au
     protected AuditConfig find0(long id){
         return repository.findByGuildId(id);
     }
+
+    @Override
+    protected AuditConfigSnapshot snapshot(AuditConfig entity){
+        return AuditConfigSnapshot.of(entity);
+    }
+
+    @Override
+    protected Optional<AuditConfigSnapshot> part(GuildSettings settings){
+        return settings.getAuditConfig();
+    }
+
+    @Override
+    protected GuildSettings withPart(ImmutableGuildSettings settings, Optional<AuditConfigSnapshot> part){
+        return settings.withAuditConfig(part);
+    }
 }
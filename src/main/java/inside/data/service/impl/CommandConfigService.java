@@ -12,7 +12,7 @@ import reactor.util.function.Tuple2;
 public class CommandConfigService extends BaseEntityService<Tuple2<Long, String>, CommandConfig, CommandConfigRepository>{
 
     protected CommandConfigService(CommandConfigRepository repository, Settings settings){
-        super(repository, settings.getCache().isCommandConfig());
+        super(repository, settings.getCache().getCommandConfig());
     }
 
     @Nullable
@@ -22,4 +22,21 @@ public class CommandConfigService extends BaseEntityService<Tuple2<Long, String>
         String name = id.getT2();
         return repository.findByAlias(guildId, name);
     }
+
+    @Override
+    protected void writeThrough(CommandConfig entity){
+        // cached by alias, so drop every key of the guild
+        evict(entity);
+    }
+
+    @Override
+    protected void markAbsent(CommandConfig entity){
+        evict(entity);
+    }
+
+    @Override
+    protected void evict(CommandConfig entity){
+        long guildId = entity.getGuildId().asLong();
+        evictAll(id -> id.getT1() == guildId);
+    }
 }
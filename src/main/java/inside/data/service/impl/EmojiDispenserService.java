@@ -5,16 +5,19 @@ import inside.Settings;
 import inside.data.entity.EmojiDispenser;
 import inside.data.repository.EmojiDispenserRepository;
 import inside.data.service.BaseEntityService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.*;
 import reactor.util.annotation.Nullable;
 
+// replaced by the r2dbc subclass for the r2dbc backend
 @Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "jpa", matchIfMissing = true)
 public class EmojiDispenserService extends BaseEntityService<LongLongTuple2, EmojiDispenser, EmojiDispenserRepository>{
 
     protected EmojiDispenserService(EmojiDispenserRepository repository, Settings settings){
-        super(repository, settings.getCache().isEmojiDispenser());
+        super(repository, settings.getCache().getEmojiDispenser());
     }
 
     @Nullable
@@ -33,21 +36,24 @@ public class EmojiDispenserService extends BaseEntityService<LongLongTuple2, Emo
 
     @Transactional(readOnly = true)
     public Mono<Long> countAllByGuildId(long guildId){
-        return Mono.fromSupplier(() -> repository.countAllByGuildId(guildId));
+        return persistenceScheduler.fromSupplier(() -> repository.countAllByGuildId(guildId));
     }
 
     @Transactional(readOnly = true)
     public Flux<EmojiDispenser> getAllByMessageId(long messageId){
-        return Flux.defer(() -> Flux.fromIterable(repository.findAllByMessageId(messageId)));
+        return persistenceScheduler.fromIterable(() -> repository.findAllByMessageId(messageId));
     }
 
     @Transactional(readOnly = true)
     public Flux<EmojiDispenser> getAllByGuildId(long guildId){
-        return Flux.defer(() -> Flux.fromIterable(repository.findAllByGuildId(guildId)));
+        return persistenceScheduler.fromIterable(() -> repository.findAllByGuildId(guildId));
     }
 
     @Transactional
     public Mono<Void> deleteAllByGuildId(long guildId){
-        return Mono.fromRunnable(() -> repository.deleteAllByGuildId(guildId));
+        return persistenceScheduler.fromRunnable(() -> {
+            repository.deleteAllByGuildId(guildId);
+            evictAllInGuild(guildId);
+        });
     }
 }
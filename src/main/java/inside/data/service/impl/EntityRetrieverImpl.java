@@ -6,6 +6,7 @@ import discord4j.discordjson.json.EmojiData;
 import discord4j.store.api.util.LongLongTuple2;
 import inside.Settings;
 import inside.data.entity.*;
+import inside.data.entity.snapshot.*;
 import inside.data.service.*;
 import inside.service.MessageService;
 import inside.util.MessageUtil;
@@ -15,6 +16,7 @@ import reactor.core.publisher.*;
 import reactor.util.function.Tuples;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class EntityRetrieverImpl implements EntityRetriever{
@@ -39,13 +41,23 @@ public class EntityRetrieverImpl implements EntityRetriever{
     }
 
     @Override
-    public Mono<GuildConfig> getGuildConfigById(Snowflake guildId){
-        return storeHolder.getGuildConfigService().find(guildId.asLong());
+    public Mono<GuildSettings> getGuildSettings(Snowflake guildId){
+        return storeHolder.getGuildSettingsService().find(guildId.asLong());
     }
 
     @Override
-    public Mono<Void> save(GuildConfig guildConfig){
-        return storeHolder.getGuildConfigService().save(guildConfig);
+    public Mono<GuildConfigSnapshot> getGuildConfigById(Snowflake guildId){
+        return storeHolder.getGuildConfigService().findSnapshot(guildId.asLong());
+    }
+
+    @Override
+    public Mono<GuildConfigSnapshot> updateGuildConfig(Snowflake guildId, Consumer<? super GuildConfig> updater){
+        return storeHolder.getGuildConfigService().update(guildId.asLong(), () -> newGuildConfig(guildId), updater);
+    }
+
+    @Override
+    public Mono<GuildConfigSnapshot> upsertGuildConfig(Snowflake guildId){
+        return storeHolder.getGuildConfigService().upsert(guildId.asLong(), () -> newGuildConfig(guildId));
     }
 
     @Override
@@ -54,13 +66,13 @@ public class EntityRetrieverImpl implements EntityRetriever{
     }
 
     @Override
-    public Mono<AdminConfig> getAdminConfigById(Snowflake guildId){
-        return storeHolder.getAdminConfigService().find(guildId.asLong());
+    public Mono<AdminConfigSnapshot> getAdminConfigById(Snowflake guildId){
+        return storeHolder.getAdminConfigService().findSnapshot(guildId.asLong());
     }
 
     @Override
-    public Mono<Void> save(AdminConfig adminConfig){
-        return storeHolder.getAdminConfigService().save(adminConfig);
+    public Mono<AdminConfigSnapshot> updateAdminConfig(Snowflake guildId, Consumer<? super AdminConfig> updater){
+        return storeHolder.getAdminConfigService().update(guildId.asLong(), () -> newAdminConfig(guildId), updater);
     }
 
     @Override
@@ -69,13 +81,13 @@ public class EntityRetrieverImpl implements EntityRetriever{
     }
 
     @Override
-    public Mono<AuditConfig> getAuditConfigById(Snowflake guildId){
-        return storeHolder.getAuditConfigService().find(guildId.asLong());
+    public Mono<AuditConfigSnapshot> getAuditConfigById(Snowflake guildId){
+        return storeHolder.getAuditConfigService().findSnapshot(guildId.asLong());
     }
 
     @Override
-    public Mono<Void> save(AuditConfig auditConfig){
-        return storeHolder.getAuditConfigService().save(auditConfig);
+    public Mono<AuditConfigSnapshot> updateAuditConfig(Snowflake guildId, Consumer<? super AuditConfig> updater){
+        return storeHolder.getAuditConfigService().update(guildId.asLong(), () -> newAuditConfig(guildId), updater);
     }
 
     @Override
@@ -96,20 +108,34 @@ public class EntityRetrieverImpl implements EntityRetriever{
     @Override
     public Mono<LocalMember> getAndUpdateLocalMemberById(Member member){
         return getLocalMemberById(member.getId(), member.getGuildId())
-                .flatMap(localMember -> {
-                    boolean needSave = false;
-                    var roleIds = member.getRoleIds();
-                    if(!localMember.getLastRoleIds().equals(roleIds)){
-                        localMember.setLastRoleIds(roleIds);
-                        needSave = true;
-                    }
-                    var displayName = member.getDisplayName();
-                    if(!localMember.getEffectiveName().equals(displayName)){
-                        localMember.setEffectiveName(displayName);
-                        needSave = true;
-                    }
-                    return needSave ? save(localMember).thenReturn(localMember) : Mono.just(localMember);
-                });
+                .flatMap(localMember -> update(localMember, member));
+    }
+
+    @Override
+    public Mono<LocalMember> upsertLocalMember(Member member){
+        return Mono.defer(() -> {
+            LocalMemberService service = storeHolder.getLocalMemberService();
+            LocalMember cached = service.getIfCached(LongLongTuple2.of(member.getId().asLong(), member.getGuildId().asLong()));
+            if(cached != null){ // no statement unless something changed
+                return update(cached, member);
+            }
+            return service.upsert(newLocalMember(member));
+        });
+    }
+
+    private Mono<LocalMember> update(LocalMember localMember, Member member){
+        boolean needSave = false;
+        var roleIds = member.getRoleIds();
+        if(!localMember.hasLastRoleIds(roleIds)){
+            localMember.setLastRoleIds(roleIds);
+            needSave = true;
+        }
+        var displayName = member.getDisplayName();
+        if(!localMember.getEffectiveName().equals(displayName)){
+            localMember.setEffectiveName(displayName);
+            needSave = true;
+        }
+        return needSave ? save(localMember).thenReturn(localMember) : Mono.just(localMember);
     }
 
     @Override
@@ -148,13 +174,13 @@ public class EntityRetrieverImpl implements EntityRetriever{
     }
 
     @Override
-    public Mono<StarboardConfig> getStarboardConfigById(Snowflake guildId){
-        return storeHolder.getStarboardConfigService().find(guildId.asLong());
+    public Mono<StarboardConfigSnapshot> getStarboardConfigById(Snowflake guildId){
+        return storeHolder.getStarboardConfigService().findSnapshot(guildId.asLong());
     }
 
     @Override
-    public Mono<Void> save(StarboardConfig starboardConfig){
-        return storeHolder.getStarboardConfigService().save(starboardConfig);
+    public Mono<StarboardConfigSnapshot> updateStarboardConfig(Snowflake guildId, Consumer<? super StarboardConfig> updater){
+        return storeHolder.getStarboardConfigService().update(guildId.asLong(), () -> newStarboardConfig(guildId), updater);
     }
 
     @Override
@@ -188,13 +214,13 @@ public class EntityRetrieverImpl implements EntityRetriever{
     }
 
     @Override
-    public Mono<ActivityConfig> getActivityConfigById(Snowflake guildId){
-        return storeHolder.getActivityConfigService().find(guildId.asLong());
+    public Mono<ActivityConfigSnapshot> getActivityConfigById(Snowflake guildId){
+        return storeHolder.getActivityConfigService().findSnapshot(guildId.asLong());
     }
 
     @Override
-    public Mono<Void> save(ActivityConfig activityConfig){
-        return storeHolder.getActivityConfigService().save(activityConfig);
+    public Mono<ActivityConfigSnapshot> updateActivityConfig(Snowflake guildId, Consumer<? super ActivityConfig> updater){
+        return storeHolder.getActivityConfigService().update(guildId.asLong(), () -> newActivityConfig(guildId), updater);
     }
 
     @Override
@@ -257,6 +283,11 @@ public class EntityRetrieverImpl implements EntityRetriever{
         return storeHolder.getPollService().save(poll);
     }
 
+    @Override
+    public Mono<Poll> vote(Poll poll, Snowflake userId, int option){
+        return storeHolder.getPollService().vote(poll, userId.asLong(), option);
+    }
+
     @Override
     public Mono<Void> delete(Poll poll){
         return storeHolder.getPollService().delete(poll);
@@ -278,51 +309,23 @@ public class EntityRetrieverImpl implements EntityRetriever{
     }
 
     @Override
-    public Mono<GuildConfig> createGuildConfig(Snowflake guildId){
-        return Mono.defer(() -> {
-            GuildConfig guildConfig = new GuildConfig();
-            guildConfig.setGuildId(guildId);
-            guildConfig.prefixes(settings.getDefaults().getPrefixes());
-            guildConfig.locale(messageService.getDefaultLocale());
-            guildConfig.timeZone(settings.getDefaults().getTimeZone());
-            return save(guildConfig).thenReturn(guildConfig);
-        });
+    public Mono<GuildConfigSnapshot> createGuildConfig(Snowflake guildId){
+        return upsertGuildConfig(guildId);
     }
 
     @Override
-    public Mono<AdminConfig> createAdminConfig(Snowflake guildId){
-        return Mono.defer(() -> {
-            AdminConfig adminConfig = new AdminConfig();
-            adminConfig.setGuildId(guildId);
-            adminConfig.setMaxWarnCount(settings.getDefaults().getMaxWarnings());
-            adminConfig.setMuteBaseDelay(settings.getDefaults().getMuteEvade());
-            adminConfig.setWarnExpireDelay(settings.getDefaults().getWarnExpire());
-            adminConfig.setThresholdAction(settings.getDefaults().getThresholdAction());
-            return save(adminConfig).thenReturn(adminConfig);
-        });
+    public Mono<AdminConfigSnapshot> createAdminConfig(Snowflake guildId){
+        return updateAdminConfig(guildId, adminConfig -> {});
     }
 
     @Override
-    public Mono<AuditConfig> createAuditConfig(Snowflake guildId){
-        return Mono.defer(() -> {
-            AuditConfig auditConfig = new AuditConfig();
-            auditConfig.setGuildId(guildId);
-            return save(auditConfig).thenReturn(auditConfig);
-        });
+    public Mono<AuditConfigSnapshot> createAuditConfig(Snowflake guildId){
+        return updateAuditConfig(guildId, auditConfig -> {});
     }
 
     @Override
     public Mono<LocalMember> createLocalMember(Member member){
-        return Mono.defer(() -> {
-            LocalMember localMember = new LocalMember();
-            localMember.setUserId(member.getId());
-            localMember.setGuildId(member.getGuildId());
-            localMember.setEffectiveName(member.getDisplayName());
-            Activity activity = new Activity();
-            activity.setGuildId(member.getGuildId());
-            localMember.setActivity(activity); // TODO: lazy initializing?
-            return save(localMember).thenReturn(localMember);
-        });
+        return upsertLocalMember(member);
     }
 
     @Override
@@ -332,32 +335,20 @@ public class EntityRetrieverImpl implements EntityRetriever{
             messageInfo.setMessageId(message.getId());
             messageInfo.setUserId(message.getAuthor().map(User::getId).orElseThrow()); // only users, not webhooks
             messageInfo.setGuildId(message.getGuildId().orElseThrow()); // only guilds
-            messageInfo.setTimestamp(message.getTimestamp());
+            messageInfo.setTimestamp(message.getId().getTimestamp()); // partition key, must match the id
             messageInfo.setContent(messageService.encrypt(MessageUtil.effectiveContent(message), message.getId(), message.getChannelId()));
             return save(messageInfo).thenReturn(messageInfo);
         });
     }
 
     @Override
-    public Mono<StarboardConfig> createStarboardConfig(Snowflake guildId){
-        return Mono.defer(() -> {
-            StarboardConfig starboardConfig = new StarboardConfig();
-            starboardConfig.setGuildId(guildId);
-            starboardConfig.setLowerStarBarrier(settings.getDefaults().getStarboardLowerStarBarrier());
-            starboardConfig.setEmojis(defaultStarsEmojis);
-            return save(starboardConfig).thenReturn(starboardConfig);
-        });
+    public Mono<StarboardConfigSnapshot> createStarboardConfig(Snowflake guildId){
+        return updateStarboardConfig(guildId, starboardConfig -> {});
     }
 
     @Override
-    public Mono<ActivityConfig> createActiveUserConfig(Snowflake guildId){
-        return Mono.defer(() -> {
-            ActivityConfig activityConfig = new ActivityConfig();
-            activityConfig.setGuildId(guildId);
-            activityConfig.setKeepCountingDuration(settings.getDefaults().getActiveUserKeepCountingDuration());
-            activityConfig.setMessageBarrier(settings.getDefaults().getActiveUserMessageBarrier());
-            return save(activityConfig).thenReturn(activityConfig);
-        });
+    public Mono<ActivityConfigSnapshot> createActiveUserConfig(Snowflake guildId){
+        return updateActivityConfig(guildId, activityConfig -> {});
     }
 
     @Override
@@ -416,4 +407,59 @@ public class EntityRetrieverImpl implements EntityRetriever{
             return save(commandConfig).thenReturn(commandConfig);
         });
     }
+
+    // defaults of the configs, saved on first update
+
+    private LocalMember newLocalMember(Member member){
+        LocalMember localMember = new LocalMember();
+        localMember.setUserId(member.getId());
+        localMember.setGuildId(member.getGuildId());
+        localMember.setEffectiveName(member.getDisplayName());
+        localMember.setLastRoleIds(member.getRoleIds());
+        Activity activity = new Activity();
+        activity.setGuildId(member.getGuildId());
+        localMember.setActivity(activity);
+        return localMember;
+    }
+
+    private GuildConfig newGuildConfig(Snowflake guildId){
+        GuildConfig guildConfig = new GuildConfig();
+        guildConfig.setGuildId(guildId);
+        guildConfig.prefixes(settings.getDefaults().getPrefixes());
+        guildConfig.locale(messageService.getDefaultLocale());
+        guildConfig.timeZone(settings.getDefaults().getTimeZone());
+        return guildConfig;
+    }
+
+    private AdminConfig newAdminConfig(Snowflake guildId){
+        AdminConfig adminConfig = new AdminConfig();
+        adminConfig.setGuildId(guildId);
+        adminConfig.setMaxWarnCount(settings.getDefaults().getMaxWarnings());
+        adminConfig.setMuteBaseDelay(settings.getDefaults().getMuteEvade());
+        adminConfig.setWarnExpireDelay(settings.getDefaults().getWarnExpire());
+        adminConfig.setThresholdAction(settings.getDefaults().getThresholdAction());
+        return adminConfig;
+    }
+
+    private AuditConfig newAuditConfig(Snowflake guildId){
+        AuditConfig auditConfig = new AuditConfig();
+        auditConfig.setGuildId(guildId);
+        return auditConfig;
+    }
+
+    private StarboardConfig newStarboardConfig(Snowflake guildId){
+        StarboardConfig starboardConfig = new StarboardConfig();
+        starboardConfig.setGuildId(guildId);
+        starboardConfig.setLowerStarBarrier(settings.getDefaults().getStarboardLowerStarBarrier());
+        starboardConfig.setEmojis(defaultStarsEmojis);
+        return starboardConfig;
+    }
+
+    private ActivityConfig newActivityConfig(Snowflake guildId){
+        ActivityConfig activityConfig = new ActivityConfig();
+        activityConfig.setGuildId(guildId);
+        activityConfig.setKeepCountingDuration(settings.getDefaults().getActiveUserKeepCountingDuration());
+        activityConfig.setMessageBarrier(settings.getDefaults().getActiveUserMessageBarrier());
+        return activityConfig;
+    }
 }
@@ -1,18 +1,22 @@
 package inside.data.service.impl;
 
-import inside.Settings;
 import inside.data.entity.GuildConfig;
+import inside.data.entity.snapshot.*;
 import inside.data.repository.GuildConfigRepository;
-import inside.data.service.BaseLongObjEntityService;
+import inside.data.service.BaseConfigService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
 import reactor.util.annotation.Nullable;
 
+import java.util.Optional;
+import java.util.function.Supplier;
+
 @Service
-public class GuildConfigService extends BaseLongObjEntityService<GuildConfig, GuildConfigRepository>{
+public class GuildConfigService extends BaseConfigService<GuildConfig, GuildConfigSnapshot, GuildConfigRepository>{
 
-    protected GuildConfigService(GuildConfigRepository repository, Settings settings){
-        super(repository, settings.getCache().isGuildConfig());
+    protected GuildConfigService(GuildConfigRepository repository){
+        super(repository);
     }
 
     @Nullable
@@ -21,4 +25,25 @@ public class GuildConfigService extends BaseLongObjEntityService<GuildConfig, Gu
     protected GuildConfig find0(long id){
         return repository.findByGuildId(id);
     }
+
+    // get-or-create, the factory result is only stored if the guild has no config yet;
+    // concurrent first events of a guild can't insert two rows
+    public Mono<GuildConfigSnapshot> upsert(long guildId, Supplier<? extends GuildConfig> factory){
+        return findSnapshot(guildId).switchIfEmpty(serialized(guildId, () -> publish(repository.upsert(factory.get()))));
+    }
+
+    @Override
+    protected GuildConfigSnapshot snapshot(GuildConfig entity){
+        return GuildConfigSnapshot.of(entity);
+    }
+
+    @Override
+    protected Optional<GuildConfigSnapshot> part(GuildSettings settings){
+        return settings.getGuildConfig();
+    }
+
+    @Override
+    protected GuildSettings withPart(ImmutableGuildSettings settings, Optional<GuildConfigSnapshot> part){
+        return settings.withGuildConfig(part);
+    }
 }
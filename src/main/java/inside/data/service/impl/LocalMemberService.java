@@ -4,22 +4,44 @@ import discord4j.store.api.util.LongLongTuple2;
 import inside.Settings;
 import inside.data.entity.LocalMember;
 import inside.data.repository.LocalMemberRepository;
-import inside.data.service.BaseEntityService;
+import inside.data.service.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.*;
 import reactor.util.annotation.Nullable;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 
+// replaced by the r2dbc subclass for the r2dbc backend
 @Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "jpa", matchIfMissing = true)
 public class LocalMemberService extends BaseEntityService<LongLongTuple2, LocalMember, LocalMemberRepository>{
 
+    // members with their activity rows, admin actions are removed by the on delete cascade
+    private static final PurgeEngine.Task INACTIVE_MEMBERS = new PurgeEngine.Task("local_member", """
+            with batch as (select m.id, m.activity_id from local_member m
+                           join activity a on a.id = m.activity_id
+                           where a.last_sent_message < ? and m.id > ?
+                           order by m.id limit ?),
+                 members as (delete from local_member m using batch b where m.id = b.id returning m.id, m.activity_id),
+                 activities as (delete from activity a using members m where a.id = m.activity_id)
+            select id from members
+            """);
+
     private final Settings settings;
 
+    @Autowired
+    private ActivityAggregator activityAggregator;
+
+    @Autowired
+    private PurgeEngine purgeEngine;
+
     protected LocalMemberService(LocalMemberRepository repository, Settings settings){
-        super(repository, settings.getCache().isLocalMember());
+        super(repository, settings.getCache().getLocalMember());
         this.settings = settings;
     }
 
@@ -29,7 +51,27 @@ public class LocalMemberService extends BaseEntityService<LongLongTuple2, LocalM
     protected LocalMember find0(LongLongTuple2 id){
         long userId = id.getT1();
         long guildId = id.getT2();
-        return repository.findByUserIdAndGuildId(userId, guildId);
+        return activityAggregator.apply(repository.findByUserIdAndGuildId(userId, guildId));
+    }
+
+    @Override
+    public Flux<LocalMember> getAll(){
+        return super.getAll().map(activityAggregator::apply);
+    }
+
+    // get-or-create in one statement, also replaces name and roles of an existing row
+    public Mono<LocalMember> upsert(LocalMember localMember){
+        return upsert0(localMember)
+                .map(activityAggregator::apply)
+                .doOnNext(saved -> {
+                    if(cache){
+                        writeThrough(saved);
+                    }
+                });
+    }
+
+    protected Mono<LocalMember> upsert0(LocalMember localMember){
+        return persistenceScheduler.fromSupplier(() -> repository.upsert(localMember));
     }
 
     @Override
@@ -39,13 +81,21 @@ public class LocalMemberService extends BaseEntityService<LongLongTuple2, LocalM
 
     @Transactional
     public Mono<Void> deleteAllByGuildId(long guildId){
-        return Mono.fromRunnable(() -> repository.deleteAllByGuildId(guildId));
+        return persistenceScheduler.fromRunnable(() -> {
+            repository.deleteAllByGuildId(guildId);
+            evictAllInGuild(guildId);
+        });
     }
 
     @Override
-    @Transactional
     @Scheduled(cron = "0 0 0 * * *")
     protected void cleanUp(){
-        repository.deleteAllByActivityLastSentMessageBefore(Instant.now().minus(settings.getAudit().getMemberKeep()));
+        Instant before = Instant.now().minus(settings.getAudit().getMemberKeep());
+        purgeEngine.purge(INACTIVE_MEMBERS, Timestamp.from(before))
+                .doOnNext(deleted -> evictAllValues(localMember -> {
+                    Instant lastSentMessage = localMember.getActivity().getLastSentMessage();
+                    return lastSentMessage != null && lastSentMessage.isBefore(before);
+                }))
+                .subscribe();
     }
 }
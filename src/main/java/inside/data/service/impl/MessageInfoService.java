@@ -1,44 +1,246 @@
 package inside.data.service.impl;
 
+import discord4j.common.util.Snowflake;
 import inside.Settings;
 import inside.data.entity.MessageInfo;
 import inside.data.repository.MessageInfoRepository;
 import inside.data.service.BaseLongObjEntityService;
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import reactor.core.publisher.Mono;
+import reactor.core.Disposable;
+import reactor.core.publisher.*;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.*;
 import reactor.util.annotation.Nullable;
 
-import java.time.Instant;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 // or LongLongTuple2?
+// replaced by the r2dbc subclass for the r2dbc backend
 @Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "jpa", matchIfMissing = true)
 public class MessageInfoService extends BaseLongObjEntityService<MessageInfo, MessageInfoRepository>{
+    private static final Logger log = Loggers.getLogger(MessageInfoService.class);
+
+    private static final Duration OFFER_RETRY_DELAY = Duration.ofMillis(20);
 
     private final Settings settings;
 
+    // new rows waiting for the batched insert
+    private final BlockingQueue<MessageInfo> queue;
+    // message id -> queued row, serves lookups until the insert is committed
+    private final Map<Long, MessageInfo> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private volatile Disposable flushTask;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Counter droppedRows;
+    private Counter rejectedRows;
+
+    @Autowired
+    private void initMetrics(MeterRegistry meterRegistry){
+        droppedRows = meterRegistry.counter("insidebot.message-info.dropped", "reason", "failed");
+        rejectedRows = meterRegistry.counter("insidebot.message-info.dropped", "reason", "queue-full");
+    }
+
     protected MessageInfoService(MessageInfoRepository repository, Settings settings){
         super(repository);
         this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.getPersistence().getMessageInfoQueueCapacity());
+    }
+
+    @Override
+    public Mono<MessageInfo> find(long id){
+        return Mono.defer(() -> {
+            MessageInfo queued = pending.get(id);
+            return queued != null ? Mono.just(queued) : super.find(id);
+        });
     }
 
     @Nullable
     @Override
     @Transactional(readOnly = true)
     protected MessageInfo find0(long id){
-        return repository.findByMessageId(id);
+        // the partition key is set from the message id, see EntityRetrieverImpl.createMessageInfo
+        return repository.findByMessageIdAndTimestamp(id, Snowflake.of(id).getTimestamp());
+    }
+
+    @Override
+    public Mono<Void> save(MessageInfo entity){
+        return Mono.defer(() -> {
+            long messageId = entity.getMessageId().asLong();
+            if(pending.get(messageId) == entity){ // edited before the insert, flush will pick up the content
+                return Mono.empty();
+            }
+            if(entity.getId() != 0){
+                return super.save(entity);
+            }
+
+            pending.put(messageId, entity);
+            if(queue.offer(entity)){
+                if(queue.size() >= settings.getPersistence().getMessageInfoBatchSize()){
+                    scheduleFlush();
+                }
+                return Mono.empty();
+            }
+
+            // queue is full, the caller waits for the flush to make room for up to one flush interval
+            long attempts = Math.max(1, settings.getPersistence().getMessageInfoFlushInterval().toMillis() /
+                    OFFER_RETRY_DELAY.toMillis());
+            return Mono.fromCallable(() -> {
+                        if(queue.offer(entity)){
+                            return true;
+                        }
+                        scheduleFlush();
+                        return false;
+                    })
+                    .filter(offered -> offered)
+                    .repeatWhenEmpty(repeats -> repeats.take(attempts).delayElements(OFFER_RETRY_DELAY))
+                    .switchIfEmpty(Mono.fromRunnable(() -> {
+                        log.warn("Dropped message info row of message {}, the queue is full", entity.getMessageId().asString());
+                        pending.remove(messageId, entity);
+                        rejectedRows.increment();
+                    }))
+                    .then();
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(MessageInfo entity){
+        return Mono.defer(() -> {
+            if(pending.remove(entity.getMessageId().asLong(), entity) && entity.getId() == 0){
+                return Mono.empty(); // never reached the database
+            }
+            return super.delete(entity);
+        });
+    }
+
+    @Override
+    protected MessageInfo save0(MessageInfo entity){
+        if(entity.getId() == 0){
+            return repository.save(entity);
+        }
+        repository.updateContent(entity.getId(), entity.getTimestamp(), entity.getContent());
+        return entity;
+    }
+
+    @Override
+    protected void delete0(MessageInfo entity){
+        repository.deleteByIdAndTimestamp(entity.getId(), entity.getTimestamp());
     }
 
     @Transactional
     public Mono<Void> deleteAllByGuildId(long guildId){
-        return Mono.fromRunnable(() -> repository.deleteAllByGuildId(guildId));
+        return persistenceScheduler.fromRunnable(() -> {
+            pending.values().removeIf(info -> info.getGuildId().asLong() == guildId);
+            repository.deleteAllByGuildId(guildId);
+        });
     }
 
+    // retention drops whole daily partitions, see sqlscripts/message_info_partitions.sql
     @Override
-    @Transactional
     @Scheduled(cron = "0 0 */4 * * *")
     public void cleanUp(){
-        repository.deleteAllByTimestampBefore(Instant.now().minus(settings.getAudit().getHistoryKeep()));
+        Integer dropped = jdbcTemplate.queryForObject("select drop_message_info_partitions(make_interval(secs => ?))",
+                Integer.class, settings.getAudit().getHistoryKeep().toSeconds());
+        if(dropped != null && dropped > 0){
+            log.info("Dropped {} message info partitions", dropped);
+        }
+    }
+
+    @Scheduled(cron = "0 0 1 * * *")
+    public void createPartitions(){
+        jdbcTemplate.queryForList("select create_message_info_partitions(current_date, current_date + ?)",
+                settings.getPersistence().getMessageInfoPartitionsAhead());
+    }
+
+    private void scheduleFlush(){
+        if(flushScheduled.compareAndSet(false, true)){
+            persistenceScheduler.fromRunnable(this::flush)
+                    .doFinally(signal -> flushScheduled.set(false))
+                    .subscribe(null, t -> log.error("Failed to flush message info rows", t));
+        }
+    }
+
+    private synchronized void flush(){
+        int batchSize = settings.getPersistence().getMessageInfoBatchSize();
+        List<MessageInfo> batch = new ArrayList<>(batchSize);
+        while(queue.drainTo(batch, batchSize) > 0){
+            // skip rows deleted while waiting
+            batch.removeIf(info -> pending.get(info.getMessageId().asLong()) != info);
+            String[] contents = batch.stream().map(MessageInfo::getContent).toArray(String[]::new);
+
+            Set<MessageInfo> failed = insert(batch);
+
+            for(int i = 0; i < batch.size(); i++){
+                MessageInfo info = batch.get(i);
+                if(failed.contains(info)){ // already dropped
+                    continue;
+                }
+                if(!pending.remove(info.getMessageId().asLong(), info)){ // deleted during the insert
+                    delete0(info);
+                }else if(!contents[i].equals(info.getContent())){ // edited during the insert
+                    save0(info);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // the batch is retried once, then inserted row by row so that a bad row only loses itself
+    private Set<MessageInfo> insert(List<MessageInfo> batch){
+        for(int attempt = 0; attempt < 2; attempt++){
+            try{
+                repository.saveAll(batch); // one transaction, inserts are grouped by hibernate.jdbc.batch_size
+                return Collections.emptySet();
+            }catch(Throwable t){
+                log.warn("Failed to insert {} message info rows (attempt {})", batch.size(), attempt + 1, t);
+                batch.forEach(info -> info.setId(0)); // ids of the rolled back inserts
+            }
+        }
+
+        Set<MessageInfo> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(MessageInfo info : batch){
+            try{
+                repository.save(info);
+            }catch(Throwable t){
+                log.error("Dropped message info row of message {}", info.getMessageId().asString(), t);
+                info.setId(0);
+                pending.remove(info.getMessageId().asLong(), info);
+                failed.add(info);
+                droppedRows.increment();
+            }
+        }
+        return failed;
+    }
+
+    @PostConstruct
+    public void init(){
+        createPartitions();
+        flushTask = Flux.interval(settings.getPersistence().getMessageInfoFlushInterval(), Schedulers.parallel())
+                .onBackpressureDrop()
+                .subscribe(tick -> scheduleFlush());
+    }
+
+    @PreDestroy
+    public void destroy(){
+        Disposable task = flushTask;
+        if(task != null){
+            task.dispose();
+        }
+        flush(); // write everything still queued
     }
 }
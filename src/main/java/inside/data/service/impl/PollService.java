@@ -13,7 +13,7 @@ import reactor.util.annotation.Nullable;
 public class PollService extends BaseLongObjEntityService<Poll, PollRepository>{
 
     protected PollService(PollRepository repository, Settings settings){
-        super(repository, settings.getCache().isStarboard());
+        super(repository, settings.getCache().getPoll());
     }
 
     @Nullable
@@ -22,8 +22,25 @@ public class PollService extends BaseLongObjEntityService<Poll, PollRepository>{
         return repository.findByMessageId(id);
     }
 
+    @Override
+    protected Object extractId(Poll entity){
+        return entity.getMessageId().asLong();
+    }
+
+    // the cached poll gets the counters after the vote, empty if the user has already voted
+    public Mono<Poll> vote(Poll poll, long userId, int option){
+        return persistenceScheduler.fromSupplier(() -> repository.vote(poll, userId, option).orElse(null))
+                .map(votes -> {
+                    poll.mergeVotes(votes);
+                    return poll;
+                });
+    }
+
     @Transactional
     public Mono<Void> deleteAllByGuildId(long guildId){
-        return Mono.fromRunnable(() -> repository.deleteAllByGuildId(guildId));
+        return persistenceScheduler.fromRunnable(() -> {
+            repository.deleteAllByGuildId(guildId);
+            evictAllInGuild(guildId);
+        });
     }
 }
@@ -1,18 +1,20 @@
 package inside.data.service.impl;
 
-import inside.Settings;
 import inside.data.entity.StarboardConfig;
+import inside.data.entity.snapshot.*;
 import inside.data.repository.StarboardConfigRepository;
-import inside.data.service.BaseLongObjEntityService;
+import inside.data.service.BaseConfigService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.util.annotation.Nullable;
 
+import java.util.Optional;
+
 @Service
-public class StarboardConfigService extends BaseLongObjEntityService<StarboardConfig, StarboardConfigRepository>{
+public class StarboardConfigService extends BaseConfigService<StarboardConfig, StarboardConfigSnapshot, StarboardConfigRepository>{
 
-    protected StarboardConfigService(StarboardConfigRepository repository, Settings settings){
-        super(repository, settings.getCache().isStarboardConfig());
+    protected StarboardConfigService(StarboardConfigRepository repository){
+        super(repository);
     }
 
     @Nullable
@@ -21,4 +23,19 @@ public class StarboardConfigService extends BaseLongObjEntityService<StarboardCo
     protected StarboardConfig find0(long id){
         return repository.findByGuildId(id);
     }
+
+    @Override
+    protected StarboardConfigSnapshot snapshot(StarboardConfig entity){
+        return StarboardConfigSnapshot.of(entity);
+    }
+
+    @Override
+    protected Optional<StarboardConfigSnapshot> part(GuildSettings settings){
+        return settings.getStarboardConfig();
+    }
+
+    @Override
+    protected GuildSettings withPart(ImmutableGuildSettings settings, Optional<StarboardConfigSnapshot> part){
+        return settings.withStarboardConfig(part);
+    }
 }
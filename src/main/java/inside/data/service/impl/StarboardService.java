@@ -5,16 +5,19 @@ import inside.Settings;
 import inside.data.entity.Starboard;
 import inside.data.repository.StarboardRepository;
 import inside.data.service.BaseEntityService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 import reactor.util.annotation.Nullable;
 
+// replaced by the r2dbc subclass for the r2dbc backend
 @Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "jpa", matchIfMissing = true)
 public class StarboardService extends BaseEntityService<LongLongTuple2, Starboard, StarboardRepository>{
 
     protected StarboardService(StarboardRepository repository, Settings settings){
-        super(repository, settings.getCache().isStarboard());
+        super(repository, settings.getCache().getStarboard());
     }
 
     @Nullable
@@ -32,11 +35,17 @@ public class StarboardService extends BaseEntityService<LongLongTuple2, Starboar
     }
 
     public Mono<Void> deleteById(long guildId, long sourceMessageId){
-        return Mono.fromRunnable(() -> repository.deleteByGuildIdAndSourceMessageId(guildId, sourceMessageId));
+        return persistenceScheduler.fromRunnable(() -> {
+            repository.deleteByGuildIdAndSourceMessageId(guildId, sourceMessageId);
+            evictById(LongLongTuple2.of(guildId, sourceMessageId));
+        });
     }
 
     @Transactional
     public Mono<Void> deleteAllByGuildId(long guildId){
-        return Mono.fromRunnable(() -> repository.deleteAllByGuildId(guildId));
+        return persistenceScheduler.fromRunnable(() -> {
+            repository.deleteAllByGuildId(guildId);
+            evictAllInGuild(guildId);
+        });
     }
 }
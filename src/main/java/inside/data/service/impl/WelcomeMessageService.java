@@ -24,7 +24,7 @@ public class WelcomeMessageService extends BaseLongObjEntityService<WelcomeMessa
     private final MessageService messageService;
 
     protected WelcomeMessageService(WelcomeMessageRepository repository, Settings settings, MessageService messageService){
-        super(repository, settings.getCache().isWelcomeMessage());
+        super(repository, settings.getCache().getWelcomeMessage());
         this.messageService = messageService;
     }
 
@@ -0,0 +1,45 @@
+package inside.data.service.r2dbc;
+
+import inside.Settings;
+import io.r2dbc.pool.*;
+import io.r2dbc.spi.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.*;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.*;
+
+// no r2dbc transaction manager bean, the jpa one has to stay the only transaction manager
+@Configuration
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "r2dbc")
+public class R2dbcConfiguration{
+    public static final String NAME = "insidebot-r2dbc";
+
+    // same database as the data source, r2dbc.pool.* metrics are bound by the actuator
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(DataSourceProperties dataSourceProperties,
+                                            Settings settings){
+        ConnectionFactoryOptions.Builder options = parse(dataSourceProperties.determineUrl()
+                .replaceFirst("^jdbc:", "r2dbc:"))
+                .mutate();
+        if(dataSourceProperties.determineUsername() != null){
+            options.option(USER, dataSourceProperties.determineUsername());
+        }
+        if(dataSourceProperties.determinePassword() != null){
+            options.option(PASSWORD, dataSourceProperties.determinePassword());
+        }
+
+        int poolSize = settings.getPersistence().getR2dbcPoolSize();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name(NAME)
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory){
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -0,0 +1,120 @@
+package inside.data.service.r2dbc;
+
+import discord4j.discordjson.json.EmojiData;
+import discord4j.store.api.util.LongLongTuple2;
+import inside.Settings;
+import inside.data.entity.EmojiDispenser;
+import inside.data.repository.EmojiDispenserRepository;
+import inside.data.service.impl.EmojiDispenserService;
+import inside.data.type.descriptor.JacksonUtil;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.*;
+
+import static inside.data.service.r2dbc.R2dbcSupport.*;
+
+@Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "r2dbc")
+public class R2dbcEmojiDispenserService extends EmojiDispenserService{
+
+    private static final String SELECT_SQL = "select id, guild_id, message_id, role_id, cast(emoji as text) as emoji from emoji_dispenser ";
+
+    private final DatabaseClient client;
+
+    protected R2dbcEmojiDispenserService(EmojiDispenserRepository repository, Settings settings,
+                                         DatabaseClient client){
+        super(repository, settings);
+        this.client = client;
+    }
+
+    @Override
+    protected boolean isBlocking(){
+        return false;
+    }
+
+    @Override
+    protected Mono<EmojiDispenser> load(LongLongTuple2 id){
+        return client.sql(SELECT_SQL + "where message_id = :messageId and role_id = :roleId")
+                .bind("messageId", id.getT1())
+                .bind("roleId", id.getT2())
+                .map((row, metadata) -> map(row))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> countAllByGuildId(long guildId){
+        return client.sql("select count(*) from emoji_dispenser where guild_id = :guildId")
+                .bind("guildId", guildId)
+                .map((row, metadata) -> getLong(row, "count"))
+                .one();
+    }
+
+    @Override
+    public Flux<EmojiDispenser> getAllByMessageId(long messageId){
+        return client.sql(SELECT_SQL + "where message_id = :messageId")
+                .bind("messageId", messageId)
+                .map((row, metadata) -> map(row))
+                .all();
+    }
+
+    @Override
+    public Flux<EmojiDispenser> getAllByGuildId(long guildId){
+        return client.sql(SELECT_SQL + "where guild_id = :guildId")
+                .bind("guildId", guildId)
+                .map((row, metadata) -> map(row))
+                .all();
+    }
+
+    @Override
+    protected Mono<EmojiDispenser> persist(EmojiDispenser entity){
+        return Mono.defer(() -> {
+            String emoji = JacksonUtil.toJson(entity.getEmoji());
+            if(entity.getId() != 0){
+                return client.sql("update emoji_dispenser set emoji = cast(:emoji as json) where id = :id")
+                        .bind("id", entity.getId())
+                        .bind("emoji", emoji)
+                        .then();
+            }
+
+            long id = nextId();
+            return client.sql("""
+                    insert into emoji_dispenser(id, guild_id, message_id, role_id, emoji)
+                    values (:id, :guildId, :messageId, :roleId, cast(:emoji as json))
+                    """)
+                    .bind("id", id)
+                    .bind("guildId", entity.getGuildId().asLong())
+                    .bind("messageId", entity.getMessageId().asLong())
+                    .bind("roleId", entity.getRoleId().asLong())
+                    .bind("emoji", emoji)
+                    .then()
+                    .doOnSuccess(ignored -> entity.setId(id));
+        }).thenReturn(entity);
+    }
+
+    @Override
+    protected Mono<Void> remove(EmojiDispenser entity){
+        return client.sql("delete from emoji_dispenser where id = :id")
+                .bind("id", entity.getId())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAllByGuildId(long guildId){
+        return client.sql("delete from emoji_dispenser where guild_id = :guildId")
+                .bind("guildId", guildId)
+                .then()
+                .doOnSuccess(ignored -> evictAllInGuild(guildId));
+    }
+
+    private static EmojiDispenser map(Row row){
+        EmojiDispenser emojiDispenser = new EmojiDispenser();
+        emojiDispenser.setId(getLong(row, "id"));
+        emojiDispenser.setGuildId(getSnowflake(row, "guild_id"));
+        emojiDispenser.setMessageId(getSnowflake(row, "message_id"));
+        emojiDispenser.setRoleId(getSnowflake(row, "role_id"));
+        emojiDispenser.setEmoji(JacksonUtil.fromJson(row.get("emoji", String.class), EmojiData.class));
+        return emojiDispenser;
+    }
+}
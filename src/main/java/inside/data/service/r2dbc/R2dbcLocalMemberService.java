@@ -0,0 +1,186 @@
+package inside.data.service.r2dbc;
+
+import discord4j.store.api.util.LongLongTuple2;
+import inside.Settings;
+import inside.data.entity.*;
+import inside.data.repository.LocalMemberRepository;
+import inside.data.service.ActivityAggregator;
+import inside.data.service.impl.LocalMemberService;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.*;
+
+import java.time.Instant;
+
+import static inside.data.service.r2dbc.R2dbcSupport.*;
+
+@Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "r2dbc")
+public class R2dbcLocalMemberService extends LocalMemberService{
+
+    private static final String SELECT_SQL = """
+            select m.id, m.guild_id, m.user_id, m.effective_name, m.last_role_ids,
+                   a.id as activity_id, a.message_count, a.last_sent_message
+            from local_member m
+            join activity a on a.id = m.activity_id
+            """;
+
+    // one statement, so the member can't be committed without its activity
+    private static final String INSERT_SQL = """
+            with a as (insert into activity(id, guild_id, message_count, last_sent_message)
+                       values (:activityId, :guildId, :messageCount, :lastSentMessage))
+            insert into local_member(id, guild_id, user_id, effective_name, activity_id, last_role_ids)
+            values (:id, :guildId, :userId, :effectiveName, :activityId, :lastRoleIds)
+            """;
+
+    // the counters are owned by the activity aggregator
+    private static final String UPDATE_SQL = """
+            update local_member set effective_name = :effectiveName, last_role_ids = :lastRoleIds
+            where id = :id
+            """;
+
+    // same statement as LocalMemberRepositoryImpl
+    private static final String UPSERT_SQL = """
+            with member as (insert into local_member as m (id, guild_id, user_id, effective_name, activity_id, last_role_ids)
+                            values (:id, :guildId, :userId, :effectiveName, :activityId, :lastRoleIds)
+                            on conflict (guild_id, user_id) do update
+                            set effective_name = excluded.effective_name, last_role_ids = excluded.last_role_ids
+                            returning m.id, m.guild_id, m.activity_id, m.xmax = 0 as inserted),
+                 activity as (insert into activity(id, guild_id, message_count)
+                              select activity_id, guild_id, 0 from member where inserted)
+            select m.id, m.activity_id, coalesce(a.message_count, 0) as message_count, a.last_sent_message
+            from member m
+            left join activity a on a.id = m.activity_id
+            """;
+
+    private static final String DELETE_SQL = """
+            with members as (delete from local_member where %s returning activity_id)
+            delete from activity a using members m where a.id = m.activity_id
+            """;
+
+    private final DatabaseClient client;
+    private final ActivityAggregator activityAggregator;
+
+    protected R2dbcLocalMemberService(LocalMemberRepository repository, Settings settings,
+                                      DatabaseClient client,
+                                      ActivityAggregator activityAggregator){
+        super(repository, settings);
+        this.client = client;
+        this.activityAggregator = activityAggregator;
+    }
+
+    @Override
+    protected boolean isBlocking(){
+        return false;
+    }
+
+    @Override
+    protected Mono<LocalMember> load(LongLongTuple2 id){
+        return client.sql(SELECT_SQL + "where m.user_id = :userId and m.guild_id = :guildId")
+                .bind("userId", id.getT1())
+                .bind("guildId", id.getT2())
+                .map((row, metadata) -> map(row))
+                .one()
+                .map(activityAggregator::apply);
+    }
+
+    @Override
+    public Flux<LocalMember> getAll(){
+        return client.sql(SELECT_SQL)
+                .map((row, metadata) -> map(row))
+                .all()
+                .map(activityAggregator::apply);
+    }
+
+    @Override
+    protected Mono<LocalMember> persist(LocalMember entity){
+        return Mono.defer(() -> {
+            if(entity.getId() != 0){
+                return client.sql(UPDATE_SQL)
+                        .bind("id", entity.getId())
+                        .bind("effectiveName", entity.getEffectiveName())
+                        .bind("lastRoleIds", toArray(entity.getLastRoleIds()))
+                        .then();
+            }
+
+            Activity activity = entity.getActivity();
+            long[] ids = nextIds(2); // member and activity, as in upsert0
+            entity.setId(ids[0]);
+            activity.setId(ids[1]);
+            return bindInstant(client.sql(INSERT_SQL), "lastSentMessage", activity.getLastSentMessage())
+                    .bind("activityId", activity.getId())
+                    .bind("guildId", entity.getGuildId().asLong())
+                    .bind("messageCount", activity.getMessageCount())
+                    .bind("id", entity.getId())
+                    .bind("userId", entity.getUserId().asLong())
+                    .bind("effectiveName", entity.getEffectiveName())
+                    .bind("lastRoleIds", toArray(entity.getLastRoleIds()))
+                    .then()
+                    .doOnError(t -> { // nothing was written, a retry generates new ids
+                        activity.setId(0);
+                        entity.setId(0);
+                    });
+        }).thenReturn(entity);
+    }
+
+    @Override
+    protected Mono<LocalMember> upsert0(LocalMember localMember){
+        long[] ids = nextIds(2); // member and activity
+        return client.sql(UPSERT_SQL)
+                .bind("id", ids[0])
+                .bind("guildId", localMember.getGuildId().asLong())
+                .bind("userId", localMember.getUserId().asLong())
+                .bind("effectiveName", localMember.getEffectiveName())
+                .bind("activityId", ids[1])
+                .bind("lastRoleIds", toArray(localMember.getLastRoleIds()))
+                .map((row, metadata) -> {
+                    Activity activity = localMember.getActivity();
+                    localMember.setId(getLong(row, "id"));
+                    activity.setId(getLong(row, "activity_id"));
+                    activity.setMessageCount(row.get("message_count", Integer.class));
+                    Instant lastSentMessage = getInstant(row, "last_sent_message");
+                    if(lastSentMessage != null){
+                        activity.setLastSentMessage(lastSentMessage);
+                    }
+                    return localMember;
+                })
+                .one();
+    }
+
+    @Override
+    protected Mono<Void> remove(LocalMember entity){
+        return client.sql(DELETE_SQL.formatted("id = :id"))
+                .bind("id", entity.getId())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteAllByGuildId(long guildId){
+        return client.sql(DELETE_SQL.formatted("guild_id = :guildId"))
+                .bind("guildId", guildId)
+                .then()
+                .doOnSuccess(ignored -> evictAllInGuild(guildId));
+    }
+
+    private static LocalMember map(Row row){
+        Activity activity = new Activity();
+        activity.setId(getLong(row, "activity_id"));
+        activity.setGuildId(getSnowflake(row, "guild_id"));
+        activity.setMessageCount(row.get("message_count", Integer.class));
+        Instant lastSentMessage = getInstant(row, "last_sent_message");
+        if(lastSentMessage != null){
+            activity.setLastSentMessage(lastSentMessage);
+        }
+
+        LocalMember localMember = new LocalMember();
+        localMember.setId(getLong(row, "id"));
+        localMember.setGuildId(getSnowflake(row, "guild_id"));
+        localMember.setUserId(getSnowflake(row, "user_id"));
+        localMember.setEffectiveName(row.get("effective_name", String.class));
+        localMember.setActivity(activity);
+        localMember.setLastRoleIds(getSnowflakes(row, "last_role_ids"));
+        return localMember;
+    }
+}
@@ -0,0 +1,98 @@
+package inside.data.service.r2dbc;
+
+import discord4j.common.util.Snowflake;
+import inside.Settings;
+import inside.data.entity.MessageInfo;
+import inside.data.repository.MessageInfoRepository;
+import inside.data.service.impl.MessageInfoService;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import static inside.data.service.r2dbc.R2dbcSupport.*;
+
+// lookups and single row writes, the batched inserts of the queue stay on jdbc
+@Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "r2dbc")
+public class R2dbcMessageInfoService extends MessageInfoService{
+
+    private final DatabaseClient client;
+
+    protected R2dbcMessageInfoService(MessageInfoRepository repository, Settings settings,
+                                      DatabaseClient client){
+        super(repository, settings);
+        this.client = client;
+    }
+
+    @Override
+    protected boolean isBlocking(){
+        return false;
+    }
+
+    @Override
+    protected Mono<MessageInfo> load(Long id){
+        Instant timestamp = Snowflake.of(id).getTimestamp();
+        GenericExecuteSpec spec = client.sql("""
+                select id, guild_id, message_id, user_id, content, "timestamp" from message_info
+                where message_id = :messageId and "timestamp" = :timestamp
+                """)
+                .bind("messageId", id);
+        spec = bindInstant(spec, "timestamp", timestamp);
+        return spec.map((row, metadata) -> map(row)).one();
+    }
+
+    @Override
+    protected Mono<MessageInfo> persist(MessageInfo entity){
+        return Mono.defer(() -> {
+            if(entity.getId() != 0){
+                GenericExecuteSpec spec = client.sql("""
+                        update message_info set content = :content where id = :id and "timestamp" = :timestamp
+                        """)
+                        .bind("id", entity.getId());
+                spec = bindInstant(spec, "timestamp", entity.getTimestamp());
+                return spec.bind("content", entity.getContent()).then();
+            }
+
+            long id = nextId();
+            GenericExecuteSpec spec = client.sql("""
+                    insert into message_info(id, guild_id, message_id, user_id, content, "timestamp")
+                    values (:id, :guildId, :messageId, :userId, :content, :timestamp)
+                    """)
+                    .bind("id", id)
+                    .bind("guildId", entity.getGuildId().asLong())
+                    .bind("messageId", entity.getMessageId().asLong())
+                    .bind("userId", entity.getUserId().asLong());
+            spec = bindInstant(spec, "timestamp", entity.getTimestamp());
+            return spec.bind("content", entity.getContent())
+                    .then()
+                    .doOnSuccess(ignored -> entity.setId(id));
+        }).thenReturn(entity);
+    }
+
+    @Override
+    protected Mono<Void> remove(MessageInfo entity){
+        // the partition key lets postgres skip the other partitions
+        GenericExecuteSpec spec = client.sql("delete from message_info where id = :id and \"timestamp\" = :timestamp")
+                .bind("id", entity.getId());
+        return bindInstant(spec, "timestamp", entity.getTimestamp()).then();
+    }
+
+    private static MessageInfo map(Row row){
+        MessageInfo messageInfo = new MessageInfo();
+        messageInfo.setId(getLong(row, "id"));
+        messageInfo.setGuildId(getSnowflake(row, "guild_id"));
+        messageInfo.setMessageId(getSnowflake(row, "message_id"));
+        messageInfo.setUserId(getSnowflake(row, "user_id"));
+        String content = row.get("content", String.class);
+        if(content != null){
+            messageInfo.setContent(content);
+        }
+        messageInfo.setTimestamp(getInstant(row, "timestamp"));
+        return messageInfo;
+    }
+}
@@ -0,0 +1,101 @@
+package inside.data.service.r2dbc;
+
+import discord4j.store.api.util.LongLongTuple2;
+import inside.Settings;
+import inside.data.entity.Starboard;
+import inside.data.repository.StarboardRepository;
+import inside.data.service.impl.StarboardService;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import static inside.data.service.r2dbc.R2dbcSupport.*;
+
+@Service
+@ConditionalOnProperty(name = "insidebot.persistence.backend", havingValue = "r2dbc")
+public class R2dbcStarboardService extends StarboardService{
+
+    private final DatabaseClient client;
+
+    protected R2dbcStarboardService(StarboardRepository repository, Settings settings,
+                                    DatabaseClient client){
+        super(repository, settings);
+        this.client = client;
+    }
+
+    @Override
+    protected boolean isBlocking(){
+        return false;
+    }
+
+    @Override
+    protected Mono<Starboard> load(LongLongTuple2 id){
+        return client.sql("""
+                select id, guild_id, source_message_id, target_message_id from starboard
+                where guild_id = :guildId and source_message_id = :sourceMessageId
+                """)
+                .bind("guildId", id.getT1())
+                .bind("sourceMessageId", id.getT2())
+                .map((row, metadata) -> map(row))
+                .one();
+    }
+
+    @Override
+    protected Mono<Starboard> persist(Starboard entity){
+        return Mono.defer(() -> {
+            if(entity.getId() != 0){
+                return client.sql("update starboard set target_message_id = :targetMessageId where id = :id")
+                        .bind("id", entity.getId())
+                        .bind("targetMessageId", entity.getTargetMessageId().asLong())
+                        .then();
+            }
+
+            long id = nextId();
+            return client.sql("""
+                    insert into starboard(id, guild_id, source_message_id, target_message_id)
+                    values (:id, :guildId, :sourceMessageId, :targetMessageId)
+                    """)
+                    .bind("id", id)
+                    .bind("guildId", entity.getGuildId().asLong())
+                    .bind("sourceMessageId", entity.getSourceMessageId().asLong())
+                    .bind("targetMessageId", entity.getTargetMessageId().asLong())
+                    .then()
+                    .doOnSuccess(ignored -> entity.setId(id));
+        }).thenReturn(entity);
+    }
+
+    @Override
+    protected Mono<Void> remove(Starboard entity){
+        return client.sql("delete from starboard where id = :id")
+                .bind("id", entity.getId())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(long guildId, long sourceMessageId){
+        return client.sql("delete from starboard where guild_id = :guildId and source_message_id = :sourceMessageId")
+                .bind("guildId", guildId)
+                .bind("sourceMessageId", sourceMessageId)
+                .then()
+                .doOnSuccess(ignored -> evictById(LongLongTuple2.of(guildId, sourceMessageId)));
+    }
+
+    @Override
+    public Mono<Void> deleteAllByGuildId(long guildId){
+        return client.sql("delete from starboard where guild_id = :guildId")
+                .bind("guildId", guildId)
+                .then()
+                .doOnSuccess(ignored -> evictAllInGuild(guildId));
+    }
+
+    private static Starboard map(Row row){
+        Starboard starboard = new Starboard();
+        starboard.setId(getLong(row, "id"));
+        starboard.setGuildId(getSnowflake(row, "guild_id"));
+        starboard.setSourceMessageId(getSnowflake(row, "source_message_id"));
+        starboard.setTargetMessageId(getSnowflake(row, "target_message_id"));
+        return starboard;
+    }
+}
@@ -0,0 +1,65 @@
+package inside.data.service.r2dbc;
+
+import discord4j.common.util.Snowflake;
+import inside.data.type.SnowflakeGenerator;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import reactor.util.annotation.Nullable;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// column conversions matching the hibernate mappings of the entities
+final class R2dbcSupport{
+
+    private R2dbcSupport(){
+    }
+
+    static long nextId(){
+        return SnowflakeGenerator.nextSqlId();
+    }
+
+    static long[] nextIds(int count){
+        return SnowflakeGenerator.nextSqlIds(count);
+    }
+
+    // hibernate writes instants to timestamp columns in the jvm time zone
+    static GenericExecuteSpec bindInstant(GenericExecuteSpec spec, String name, @Nullable Instant instant){
+        return instant != null
+                ? spec.bind(name, LocalDateTime.ofInstant(instant, ZoneId.systemDefault()))
+                : spec.bindNull(name, LocalDateTime.class);
+    }
+
+    @Nullable
+    static Instant getInstant(Row row, String name){
+        LocalDateTime timestamp = row.get(name, LocalDateTime.class);
+        return timestamp != null ? timestamp.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    static long getLong(Row row, String name){
+        Long value = row.get(name, Long.class);
+        return value != null ? value : 0;
+    }
+
+    static Snowflake getSnowflake(Row row, String name){
+        return Snowflake.of(getLong(row, name));
+    }
+
+    static Set<Snowflake> getSnowflakes(Row row, String name){
+        Long[] ids = row.get(name, Long[].class);
+        if(ids == null){
+            return new HashSet<>();
+        }
+        return Arrays.stream(ids)
+                .map(Snowflake::of)
+                .collect(Collectors.toSet());
+    }
+
+    static Long[] toArray(Set<Snowflake> ids){
+        return ids.stream()
+                .map(Snowflake::asLong)
+                .sorted()
+                .toArray(Long[]::new);
+    }
+}
@@ -0,0 +1,4 @@
+@NonNullApi
+package inside.data.service.r2dbc;
+
+import reactor.util.annotation.NonNullApi;
@@ -0,0 +1,26 @@
+package inside.data.type;
+
+import inside.data.type.descriptor.EnumSetTypeDescriptor;
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.sql.BigIntTypeDescriptor;
+import org.hibernate.usertype.DynamicParameterizedType;
+
+import java.util.*;
+
+@SuppressWarnings("rawtypes")
+public class EnumSetType extends AbstractSingleColumnStandardBasicType<Set> implements DynamicParameterizedType{
+
+    public EnumSetType(){
+        super(BigIntTypeDescriptor.INSTANCE, new EnumSetTypeDescriptor());
+    }
+
+    @Override
+    public String getName(){
+        return "enum_set";
+    }
+
+    @Override
+    public void setParameterValues(Properties parameters){
+        ((EnumSetTypeDescriptor)getJavaTypeDescriptor()).setParameterValues(parameters);
+    }
+}
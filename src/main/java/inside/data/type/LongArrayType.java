@@ -0,0 +1,18 @@
+package inside.data.type;
+
+import inside.data.type.descriptor.*;
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+
+public class LongArrayType extends AbstractSingleColumnStandardBasicType<long[]>{
+
+    public static final LongArrayType instance = new LongArrayType();
+
+    public LongArrayType(){
+        super(ArraySqlTypeDescriptor.bigint, LongArrayTypeDescriptor.instance);
+    }
+
+    @Override
+    public String getName(){
+        return "long_array";
+    }
+}
@@ -2,26 +2,58 @@ package inside.data.type;
 
 import inside.util.*;
 import org.hibernate.*;
+import org.hibernate.engine.config.spi.ConfigurationService;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.*;
 import org.hibernate.service.ServiceRegistry;
 import org.hibernate.type.Type;
 
 import java.io.Serializable;
-import java.util.Properties;
+import java.util.*;
 
+// all entities and the rows inserted with plain sql share one generator per node,
+// its ids come from the hibernate settings below, see InsideBot.snowflakeProperties
 public final class SnowflakeGenerator implements IdentifierGenerator, Configurable{
     public static final long INSIDE_BOT_EPOCH = 1598384634000L;
 
+    public static final String WORKER_ID = "insidebot.snowflake.worker-id";
+    public static final String PROCESS_ID = "insidebot.snowflake.process-id";
+
+    private static volatile SnowflakeIdGenerator shared;
+
+    public static long nextSqlId(){
+        return get().nextId();
+    }
+
+    public static long[] nextSqlIds(int count){
+        return get().nextIds(count);
+    }
+
+    private static SnowflakeIdGenerator get(){
+        SnowflakeIdGenerator idGenerator = shared;
+        Preconditions.requireState(idGenerator != null, "Snowflake generator isn't configured yet");
+        return idGenerator;
+    }
+
+    private static synchronized SnowflakeIdGenerator init(long workerId, long processId){
+        SnowflakeIdGenerator idGenerator = shared;
+        if(idGenerator == null){
+            shared = idGenerator = new SnowflakeIdGenerator(INSIDE_BOT_EPOCH, workerId, processId);
+        }else if(idGenerator.getWorkerId() != workerId || idGenerator.getProcessId() != processId){
+            throw new MappingException("Snowflake generator is already configured with another worker or process id");
+        }
+        return idGenerator;
+    }
+
     private SnowflakeIdGenerator idGenerator;
 
     @Override
     public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException{
-        long epoch = Strings.parseLong(params.getProperty("epoch"), INSIDE_BOT_EPOCH);
-        long workerId = Strings.parseLong(params.getProperty("workerId"), 0);
-        long processId = Strings.parseLong(params.getProperty("processId"), 0);
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        long workerId = Strings.parseLong(Objects.toString(settings.get(WORKER_ID), null), 0);
+        long processId = Strings.parseLong(Objects.toString(settings.get(PROCESS_ID), null), 0);
 
-        idGenerator = new SnowflakeIdGenerator(epoch, workerId, processId);
+        idGenerator = init(workerId, processId);
     }
 
     @Override
@@ -0,0 +1,28 @@
+package inside.data.type;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// counts the statements prepared by hibernate on the current thread, registered as
+// hibernate.session_factory.statement_inspector
+public final class StatementCounter implements StatementInspector{
+    private static final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    public static void start(){
+        counter.set(new int[1]);
+    }
+
+    public static int stop(){
+        int[] count = counter.get();
+        counter.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql){
+        int[] count = counter.get();
+        if(count != null){
+            count[0]++;
+        }
+        return sql;
+    }
+}
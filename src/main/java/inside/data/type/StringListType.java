@@ -0,0 +1,21 @@
+package inside.data.type;
+
+import inside.data.type.descriptor.*;
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+
+import java.util.List;
+
+@SuppressWarnings("rawtypes")
+public class StringListType extends AbstractSingleColumnStandardBasicType<List>{
+
+    public static final StringListType instance = new StringListType();
+
+    public StringListType(){
+        super(ArraySqlTypeDescriptor.text, StringListTypeDescriptor.instance);
+    }
+
+    @Override
+    public String getName(){
+        return "string_list";
+    }
+}
@@ -0,0 +1,73 @@
+package inside.data.type.descriptor;
+
+import org.hibernate.type.descriptor.*;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.*;
+
+import java.io.Serial;
+import java.sql.*;
+
+// native postgres arrays, java values are unwrapped to Object[] and wrapped from java.sql.Array
+public class ArraySqlTypeDescriptor implements SqlTypeDescriptor{
+    @Serial
+    private static final long serialVersionUID = 4386728935571840264L;
+
+    public static final ArraySqlTypeDescriptor bigint = new ArraySqlTypeDescriptor("bigint");
+
+    public static final ArraySqlTypeDescriptor text = new ArraySqlTypeDescriptor("text");
+
+    private final String elementType;
+
+    public ArraySqlTypeDescriptor(String elementType){
+        this.elementType = elementType;
+    }
+
+    @Override
+    public int getSqlType(){
+        return Types.ARRAY;
+    }
+
+    @Override
+    public boolean canBeRemapped(){
+        return true;
+    }
+
+    @Override
+    public <X> ValueExtractor<X> getExtractor(JavaTypeDescriptor<X> descriptor){
+        return new BasicExtractor<>(descriptor, this){
+            @Override
+            protected X doExtract(ResultSet resultSet, String name, WrapperOptions options) throws SQLException{
+                return descriptor.wrap(resultSet.getArray(name), options);
+            }
+
+            @Override
+            protected X doExtract(CallableStatement statement, int index, WrapperOptions options) throws SQLException{
+                return descriptor.wrap(statement.getArray(index), options);
+            }
+
+            @Override
+            protected X doExtract(CallableStatement statement, String name, WrapperOptions options) throws SQLException{
+                return descriptor.wrap(statement.getArray(name), options);
+            }
+        };
+    }
+
+    @Override
+    public <X> ValueBinder<X> getBinder(JavaTypeDescriptor<X> descriptor){
+        return new BasicBinder<>(descriptor, this){
+            @Override
+            protected void doBind(PreparedStatement statement, X value, int index, WrapperOptions options)
+                    throws SQLException{
+                statement.setArray(index, statement.getConnection().createArrayOf(elementType,
+                        descriptor.unwrap(value, Object[].class, options)));
+            }
+
+            @Override
+            protected void doBind(CallableStatement statement, X value, String name, WrapperOptions options)
+                    throws SQLException{
+                statement.setObject(name, statement.getConnection().createArrayOf(elementType,
+                        descriptor.unwrap(value, Object[].class, options)), getSqlType());
+            }
+        };
+    }
+}
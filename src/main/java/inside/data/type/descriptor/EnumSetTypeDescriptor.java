@@ -0,0 +1,108 @@
+package inside.data.type.descriptor;
+
+import org.hibernate.annotations.common.reflection.java.JavaXMember;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.*;
+import org.hibernate.usertype.DynamicParameterizedType;
+
+import java.io.Serial;
+import java.lang.reflect.ParameterizedType;
+import java.util.*;
+
+// enum sets stored as a bigint bitmask of ordinals, enum constants may only be appended
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class EnumSetTypeDescriptor extends AbstractTypeDescriptor<Set> implements DynamicParameterizedType{
+    @Serial
+    private static final long serialVersionUID = 5870924711593458962L;
+
+    private Class<? extends Enum> enumType;
+
+    // copies stay enum sets, also the empty ones
+    private final MutabilityPlan<Set> mutabilityPlan = new MutableMutabilityPlan<>(){
+        @Serial
+        private static final long serialVersionUID = -6407335830493262180L;
+
+        @Override
+        protected Set deepCopyNotNull(Set value){
+            return value.isEmpty() ? EnumSet.noneOf(enumType) : EnumSet.copyOf(value);
+        }
+    };
+
+    public EnumSetTypeDescriptor(){
+        super(Set.class);
+    }
+
+    @Override
+    public MutabilityPlan<Set> getMutabilityPlan(){
+        return mutabilityPlan;
+    }
+
+    @Override
+    public void setParameterValues(Properties parameters){
+        JavaXMember xprop = (JavaXMember)parameters.get(XPROPERTY);
+        configure((Class<? extends Enum>)((ParameterizedType)xprop.getJavaType()).getActualTypeArguments()[0]);
+    }
+
+    public void configure(Class<? extends Enum> enumType){
+        if(enumType.getEnumConstants().length > Long.SIZE){
+            throw new IllegalArgumentException("Enum '" + enumType.getName() + "' doesn't fit in a bigint mask");
+        }
+        this.enumType = enumType;
+    }
+
+    public long toMask(Set<? extends Enum> value){
+        long mask = 0;
+        for(Enum e : value){
+            mask |= 1L << e.ordinal();
+        }
+        return mask;
+    }
+
+    public EnumSet fromMask(long mask){
+        EnumSet set = EnumSet.noneOf(enumType);
+        for(Enum e : enumType.getEnumConstants()){
+            if((mask & 1L << e.ordinal()) != 0){
+                set.add(e);
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public String toString(Set value){
+        return Long.toString(toMask(value));
+    }
+
+    @Override
+    public Set fromString(String string){
+        return fromMask(Long.parseLong(string));
+    }
+
+    @Override
+    public <X> X unwrap(Set value, Class<X> type, WrapperOptions options){
+        if(value == null){
+            return null;
+        }
+        if(Long.class.isAssignableFrom(type)){
+            return (X)Long.valueOf(toMask(value));
+        }
+        if(String.class.isAssignableFrom(type)){
+            return (X)toString(value);
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> Set wrap(X value, WrapperOptions options){
+        if(value == null){
+            return null;
+        }
+        if(value instanceof Number n){
+            return fromMask(n.longValue());
+        }
+        if(value instanceof String s){
+            return fromString(s);
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
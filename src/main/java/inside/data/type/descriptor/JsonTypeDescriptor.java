@@ -1,5 +1,6 @@
 package inside.data.type.descriptor;
 
+import com.fasterxml.jackson.databind.*;
 import inside.util.Try;
 import org.hibernate.annotations.common.reflection.java.JavaXMember;
 import org.hibernate.type.descriptor.WrapperOptions;
@@ -8,31 +9,38 @@ import org.hibernate.usertype.DynamicParameterizedType;
 import reactor.util.*;
 import reactor.util.annotation.Nullable;
 
-import java.io.Serial;
 import java.lang.reflect.Type;
-import java.util.Properties;
+import java.util.*;
 
 public class JsonTypeDescriptor extends AbstractTypeDescriptor<Object> implements DynamicParameterizedType{
     private static final Logger log = Loggers.getLogger(JsonTypeDescriptor.class);
 
-    private Type type;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private JsonValuePlan plan;
 
     public JsonTypeDescriptor(){
-        super(Object.class, new MutableMutabilityPlan<>(){
-            @Serial
-            private static final long serialVersionUID = 1606718143878984537L;
-
-            @Override
-            protected Object deepCopyNotNull(Object value){
-                return JacksonUtil.copy(value);
-            }
-        });
+        super(Object.class);
     }
 
     @Override
     public void setParameterValues(Properties parameters){
         JavaXMember xprop = (JavaXMember)parameters.get(XPROPERTY);
-        type = xprop.getJavaType();
+        configure(xprop.getJavaType());
+    }
+
+    // resolves the reader, writer and copy strategy once per property type
+    public void configure(Type type){
+        ObjectMapper mapper = JacksonUtil.mapper();
+        JavaType javaType = mapper.constructType(type);
+        reader = mapper.readerFor(javaType);
+        writer = mapper.writerFor(javaType);
+        plan = JsonValuePlan.of(javaType);
+    }
+
+    @Override
+    public MutabilityPlan<Object> getMutabilityPlan(){
+        return plan;
     }
 
     @Override
@@ -43,17 +51,18 @@ public class JsonTypeDescriptor extends AbstractTypeDescriptor<Object> implement
         if(a == null || b == null){
             return false;
         }
-        return JacksonUtil.toJsonNode(a).equals(JacksonUtil.toJsonNode(b));
+        return plan.areEqual(a, b);
     }
 
     @Override
     public String toString(Object value){
-        return JacksonUtil.toJson(value);
+        return Try.ofCallable(() -> writer.writeValueAsString(value))
+                .getOrElseThrow(RuntimeException::new);
     }
 
     @Override
     public Object fromString(String string){
-        return Try.ofCallable(() -> JacksonUtil.fromJson(string, type))
+        return Try.ofCallable(() -> reader.readValue(string))
                 .onFailure(t -> log.trace("Serialization error.", t))
                 .orElse(null);
     }
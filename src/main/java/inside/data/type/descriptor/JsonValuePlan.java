@@ -0,0 +1,133 @@
+package inside.data.type.descriptor;
+
+import com.fasterxml.jackson.databind.*;
+import discord4j.common.util.Snowflake;
+import discord4j.discordjson.Id;
+import org.hibernate.type.descriptor.java.MutableMutabilityPlan;
+
+import java.io.*;
+import java.util.*;
+
+// equality and snapshot copies for a json column, picked once per property type
+public abstract class JsonValuePlan extends MutableMutabilityPlan<Object>{
+    @Serial
+    private static final long serialVersionUID = -2846012496425125174L;
+
+    private static final Set<Class<?>> immutableTypes = Set.of(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class, Id.class, Snowflake.class);
+
+    public abstract boolean areEqual(Object a, Object b);
+
+    public static JsonValuePlan of(JavaType type){
+        if(isImmutable(type.getRawClass())){
+            return new ValuePlan();
+        }
+        if(type.isCollectionLikeType() && isImmutable(type.getContentType().getRawClass()) &&
+                (List.class.isAssignableFrom(type.getRawClass()) || Set.class.isAssignableFrom(type.getRawClass()))){
+            return new CollectionPlan();
+        }
+        if(type.isMapLikeType() && Map.class.isAssignableFrom(type.getRawClass()) &&
+                isImmutable(type.getKeyType().getRawClass()) && isImmutable(type.getContentType().getRawClass())){
+            return new MapPlan();
+        }
+        return new TreePlan(type);
+    }
+
+    static boolean isImmutable(Class<?> type){
+        return type.isPrimitive() || type.isEnum() || immutableTypes.contains(type) ||
+                type.getPackageName().equals("java.time") ||
+                // generated immutables with value based equals
+                type.getPackageName().equals("discord4j.discordjson.json");
+    }
+
+    // immutable values are shared between the entity and the snapshot
+    private static class ValuePlan extends JsonValuePlan{
+        @Serial
+        private static final long serialVersionUID = 3094733856130751567L;
+
+        @Override
+        public boolean areEqual(Object a, Object b){
+            return a.equals(b);
+        }
+
+        @Override
+        protected Object deepCopyNotNull(Object value){
+            return value;
+        }
+    }
+
+    // lists and sets of immutable elements, a shallow copy is a deep one
+    private static class CollectionPlan extends JsonValuePlan{
+        @Serial
+        private static final long serialVersionUID = -5517453106416924593L;
+
+        @Override
+        public boolean areEqual(Object a, Object b){
+            return a.equals(b);
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected Object deepCopyNotNull(Object value){
+            if(value instanceof EnumSet e){
+                return EnumSet.copyOf(e);
+            }
+            if(value instanceof Set<?> s){
+                return new LinkedHashSet<>(s);
+            }
+            return new ArrayList<>((Collection<?>)value);
+        }
+    }
+
+    private static class MapPlan extends JsonValuePlan{
+        @Serial
+        private static final long serialVersionUID = 7461178929612906071L;
+
+        @Override
+        public boolean areEqual(Object a, Object b){
+            return a.equals(b);
+        }
+
+        @Override
+        protected Object deepCopyNotNull(Object value){
+            return new LinkedHashMap<>((Map<?, ?>)value);
+        }
+    }
+
+    // unknown shapes, compared and copied through a json tree without going through strings;
+    // only the type is serialized, the reader is resolved again from the shared mapper
+    private static class TreePlan extends JsonValuePlan{
+        @Serial
+        private static final long serialVersionUID = 1606718143878984537L;
+
+        private final JavaType type;
+        private final transient ObjectMapper mapper;
+        private final transient ObjectReader reader;
+
+        private TreePlan(JavaType type){
+            this.type = type;
+            this.mapper = JacksonUtil.mapper();
+            this.reader = mapper.readerFor(type);
+        }
+
+        @Serial
+        private Object readResolve(){
+            return new TreePlan(type);
+        }
+
+        @Override
+        public boolean areEqual(Object a, Object b){
+            return mapper.valueToTree(a).equals(mapper.valueToTree(b));
+        }
+
+        @Override
+        protected Object deepCopyNotNull(Object value){
+            try{
+                return reader.readValue(mapper.<JsonNode>valueToTree(value));
+            }catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
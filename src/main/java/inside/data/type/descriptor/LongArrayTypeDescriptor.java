@@ -0,0 +1,96 @@
+package inside.data.type.descriptor;
+
+import org.hibernate.HibernateException;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.*;
+
+import java.io.Serial;
+import java.sql.*;
+import java.util.Arrays;
+
+public class LongArrayTypeDescriptor extends AbstractTypeDescriptor<long[]>{
+    @Serial
+    private static final long serialVersionUID = -2130483476683045587L;
+
+    public static final LongArrayTypeDescriptor instance = new LongArrayTypeDescriptor();
+
+    public LongArrayTypeDescriptor(){
+        super(long[].class, new MutableMutabilityPlan<>(){
+            @Serial
+            private static final long serialVersionUID = 2757591637281305437L;
+
+            @Override
+            protected long[] deepCopyNotNull(long[] value){
+                return value.clone();
+            }
+        });
+    }
+
+    @Override
+    public boolean areEqual(long[] one, long[] another){
+        return Arrays.equals(one, another);
+    }
+
+    @Override
+    public int extractHashCode(long[] value){
+        return Arrays.hashCode(value);
+    }
+
+    @Override
+    public String toString(long[] value){
+        return Arrays.toString(value);
+    }
+
+    @Override
+    public long[] fromString(String string){
+        String values = string.substring(1, string.length() - 1).trim();
+        if(values.isEmpty()){
+            return new long[0];
+        }
+        return Arrays.stream(values.split(","))
+                .mapToLong(s -> Long.parseLong(s.trim()))
+                .toArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(long[] value, Class<X> type, WrapperOptions options){
+        if(value == null){
+            return null;
+        }
+        if(Object[].class.isAssignableFrom(type)){
+            Long[] boxed = new Long[value.length];
+            for(int i = 0; i < value.length; i++){
+                boxed[i] = value[i];
+            }
+            return (X)boxed;
+        }
+        if(long[].class.isAssignableFrom(type)){
+            return (X)value;
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> long[] wrap(X value, WrapperOptions options){
+        if(value == null){
+            return null;
+        }
+        if(value instanceof long[] l){
+            return l;
+        }
+        if(value instanceof Array a){
+            try{
+                Object[] array = (Object[])a.getArray();
+                long[] values = new long[array.length];
+                for(int i = 0; i < array.length; i++){
+                    values[i] = ((Number)array[i]).longValue();
+                }
+                return values;
+            }catch(SQLException e){
+                throw new HibernateException(e);
+            }
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
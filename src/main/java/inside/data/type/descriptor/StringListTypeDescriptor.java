@@ -0,0 +1,73 @@
+package inside.data.type.descriptor;
+
+import org.hibernate.HibernateException;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.*;
+
+import java.io.Serial;
+import java.sql.*;
+import java.util.*;
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class StringListTypeDescriptor extends AbstractTypeDescriptor<List>{
+    @Serial
+    private static final long serialVersionUID = -1286347190617063848L;
+
+    public static final StringListTypeDescriptor instance = new StringListTypeDescriptor();
+
+    public StringListTypeDescriptor(){
+        super(List.class, new MutableMutabilityPlan<>(){
+            @Serial
+            private static final long serialVersionUID = -2094681739409265830L;
+
+            @Override
+            protected List deepCopyNotNull(List value){
+                return new ArrayList<>(value);
+            }
+        });
+    }
+
+    @Override
+    public String toString(List value){
+        return value.toString();
+    }
+
+    @Override
+    public List fromString(String string){
+        String values = string.substring(1, string.length() - 1);
+        return values.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(values.split(", ")));
+    }
+
+    @Override
+    public <X> X unwrap(List value, Class<X> type, WrapperOptions options){
+        if(value == null){
+            return null;
+        }
+        if(Object[].class.isAssignableFrom(type)){
+            return (X)value.toArray(new String[0]);
+        }
+        if(List.class.isAssignableFrom(type)){
+            return (X)value;
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> List wrap(X value, WrapperOptions options){
+        if(value == null){
+            return null;
+        }
+        if(value instanceof List l){
+            return l;
+        }
+        if(value instanceof Array a){
+            try{
+                // mutable, the entities edit prefixes in place
+                return new ArrayList<>(Arrays.asList((Object[])a.getArray()));
+            }catch(SQLException e){
+                throw new HibernateException(e);
+            }
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
@@ -57,8 +57,7 @@ public class InteractionEventHandler extends ReactiveEventAdapter{
     @Override
     public Publisher<?> onUserInteraction(UserInteractionEvent event){
         Mono<Context> initContext = Mono.justOrEmpty(event.getInteraction().getGuildId())
-                .flatMap(guildId -> entityRetriever.getGuildConfigById(guildId)
-                        .switchIfEmpty(entityRetriever.createGuildConfig(guildId)))
+                .flatMap(guildId -> entityRetriever.upsertGuildConfig(guildId))
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()))
                 .defaultIfEmpty(Context.of(KEY_LOCALE, messageService.getDefaultLocale(),
@@ -78,8 +77,7 @@ public class InteractionEventHandler extends ReactiveEventAdapter{
 
         Snowflake guildId = event.getInteraction().getGuildId().orElseThrow();
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -103,8 +101,7 @@ public class InteractionEventHandler extends ReactiveEventAdapter{
 
         Snowflake guildId = event.getInteraction().getGuildId().orElseThrow();
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -121,8 +118,7 @@ public class InteractionEventHandler extends ReactiveEventAdapter{
     @Override
     public Publisher<?> onChatInputInteraction(ChatInputInteractionEvent event){
         Mono<Context> initContext = Mono.justOrEmpty(event.getInteraction().getGuildId())
-                .flatMap(guildId -> entityRetriever.getGuildConfigById(guildId)
-                        .switchIfEmpty(entityRetriever.createGuildConfig(guildId)))
+                .flatMap(guildId -> entityRetriever.upsertGuildConfig(guildId))
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()))
                 .defaultIfEmpty(Context.of(KEY_LOCALE, messageService.getDefaultLocale(),
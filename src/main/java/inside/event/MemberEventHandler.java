@@ -9,8 +9,8 @@ import discord4j.core.object.entity.channel.*;
 import discord4j.core.retriever.EntityRetrievalStrategy;
 import discord4j.core.spec.*;
 import discord4j.rest.util.Permission;
-import inside.audit.AuditService;
-import inside.data.entity.AdminConfig;
+import inside.audit.*;
+import inside.data.entity.snapshot.*;
 import inside.data.service.EntityRetriever;
 import inside.data.service.impl.WelcomeMessageService;
 import inside.resolver.MessageTemplate;
@@ -22,7 +22,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.*;
 import reactor.function.TupleUtils;
-import reactor.util.context.Context;
+import reactor.util.context.*;
 
 import java.time.*;
 import java.util.*;
@@ -60,17 +60,20 @@ public class MemberEventHandler extends ReactiveEventAdapter{
 
         Snowflake guildId = member.getGuildId();
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<GuildSettings> settings = entityRetriever.getGuildSettings(guildId);
+
+        Mono<Context> initContext = settings.flatMap(s -> Mono.justOrEmpty(s.getGuildConfig()))
+                .switchIfEmpty(entityRetriever.upsertGuildConfig(guildId))
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        Mono<AdminConfig> adminConfig = entityRetriever.getAdminConfigById(member.getGuildId());
+        Mono<AdminConfigSnapshot> adminConfig = settings.flatMap(s -> Mono.justOrEmpty(s.getAdminConfig()));
 
         Mono<Void> warn = Mono.deferContextual(ctx -> member.getGuild().flatMap(Guild::getOwner)
-                .filterWhen(ignored -> adminConfig.flatMap(config -> adminService.warnings(member).count()
+                .filterWhen(ignored -> adminConfig.flatMap(config -> adminService.warningsCount(member)
                         .map(c -> c >= config.getMaxWarnCount())))
-                .flatMap(owner -> adminService.warn(owner, member, messageService.get(ctx, "audit.member.warn.evade"))));
+                .flatMap(owner -> adminService.warn(owner, member, messageService.get(ctx, "audit.member.warn.evade")))
+                .then());
 
         Mono<Void> muteEvade = Mono.deferContextual(ctx -> member.getGuild().flatMap(Guild::getOwner)
                         .filterWhen(ignored -> adminService.isMuted(member))
@@ -124,8 +127,7 @@ public class MemberEventHandler extends ReactiveEventAdapter{
 
         Snowflake guildId = event.getGuildId();
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -133,47 +135,51 @@ public class MemberEventHandler extends ReactiveEventAdapter{
                 .withUser(user)
                 .save();
 
-        Mono<Void> kick = Mono.deferContextual(ctx -> event.getGuild()
-                .flatMapMany(guild -> guild.getAuditLog(AuditLogQuerySpec.builder()
-                        .actionType(ActionType.MEMBER_KICK)
-                        .build()))
-                .flatMapIterable(AuditLogPart::getEntries)
-                .filter(entry -> entry.getId().getTimestamp()
-                        .isAfter(Instant.now(Clock.systemUTC())
-                                .minusMillis(TIMEOUT_MILLIS)) &&
-                        entry.getTargetId().map(targetId -> targetId.equals(user.getId())).orElse(false))
-                .next()
-                .flatMap(entry -> Mono.justOrEmpty(entry.getResponsibleUser())
-                        .flatMap(admin -> auditService.newBuilder(guildId, MEMBER_KICK)
-                                .withUser(admin)
-                                .withTargetUser(user)
-                                .withAttribute(REASON, entry.getReason()
-                                        .orElse(messageService.get(ctx, "common.not-defined")))
-                                .save())
-                        .thenReturn(entry))
-                .switchIfEmpty(log.then(Mono.empty()))
-                .then());
+        // the guild audit log is read while the leave or the type itself is enabled, so that a ban
+        // or kick is never posted as a leave; only the enabled types are posted
+        return initContext.flatMap(ctx -> Mono.zip(auditService.isEnabled(guildId, MEMBER_LEAVE),
+                        auditService.isEnabled(guildId, MEMBER_BAN), auditService.isEnabled(guildId, MEMBER_KICK))
+                .flatMap(TupleUtils.function((leave, ban, kick) -> {
+                    if(!leave && !ban && !kick){
+                        return Mono.<Void>empty();
+                    }
+
+                    Mono<Void> kickOrLeave = (leave || kick ? findEntry(event, ActionType.MEMBER_KICK) : Mono.<AuditLogEntry>empty())
+                            .flatMap(entry -> (kick ? saveEntry(ctx, guildId, MEMBER_KICK, user, entry) : Mono.<Void>empty())
+                                    .thenReturn(entry))
+                            .switchIfEmpty(leave ? log.then(Mono.empty()) : Mono.<AuditLogEntry>empty())
+                            .then();
+
+                    return (leave || ban ? findEntry(event, ActionType.MEMBER_BAN_ADD) : Mono.<AuditLogEntry>empty())
+                            .flatMap(entry -> (ban ? saveEntry(ctx, guildId, MEMBER_BAN, user, entry) : Mono.<Void>empty())
+                                    .thenReturn(entry))
+                            .switchIfEmpty(kickOrLeave.then(Mono.empty()))
+                            .then();
+                }))
+                .contextWrite(ctx));
+    }
 
-        return initContext.flatMap(ctx -> event.getGuild()
+    private Mono<AuditLogEntry> findEntry(MemberLeaveEvent event, ActionType type){
+        return event.getGuild()
                 .flatMapMany(guild -> guild.getAuditLog(AuditLogQuerySpec.builder()
-                        .actionType(ActionType.MEMBER_BAN_ADD)
+                        .actionType(type)
                         .build()))
                 .flatMapIterable(AuditLogPart::getEntries)
                 .filter(entry -> entry.getId().getTimestamp()
                         .isAfter(Instant.now(Clock.systemUTC())
                                 .minusMillis(TIMEOUT_MILLIS)) &&
-                        entry.getTargetId().map(targetId -> targetId.equals(user.getId())).orElse(false))
-                .next()
-                .flatMap(entry -> Mono.justOrEmpty(entry.getResponsibleUser())
-                        .flatMap(admin -> auditService.newBuilder(guildId, MEMBER_BAN)
-                                .withUser(admin)
-                                .withTargetUser(user)
-                                .withAttribute(REASON, entry.getReason()
-                                        .orElse(messageService.get(ctx, "common.not-defined")))
-                                .save())
-                        .thenReturn(entry))
-                .switchIfEmpty(kick.then(Mono.empty()))
-                .contextWrite(ctx));
+                        entry.getTargetId().map(targetId -> targetId.equals(event.getUser().getId())).orElse(false))
+                .next();
+    }
+
+    private Mono<Void> saveEntry(ContextView ctx, Snowflake guildId, AuditActionType type, User user, AuditLogEntry entry){
+        return Mono.justOrEmpty(entry.getResponsibleUser())
+                .flatMap(admin -> auditService.newBuilder(guildId, type)
+                        .withUser(admin)
+                        .withTargetUser(user)
+                        .withAttribute(REASON, entry.getReason()
+                                .orElse(messageService.get(ctx, "common.not-defined")))
+                        .save());
     }
 
     @Override
@@ -184,8 +190,7 @@ public class MemberEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -12,7 +12,8 @@ import inside.audit.*;
 import inside.command.CommandHandler;
 import inside.command.model.CommandEnvironment;
 import inside.data.entity.MessageInfo;
-import inside.data.service.EntityRetriever;
+import inside.data.entity.snapshot.GuildSettings;
+import inside.data.service.*;
 import inside.service.MessageService;
 import inside.util.*;
 import inside.util.io.ReusableByteInputStream;
@@ -46,6 +47,9 @@ public class MessageEventHandler extends ReactiveEventAdapter{
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private ActivityAggregator activityAggregator;
+
     @Lazy
     @Autowired
     private AuditService auditService;
@@ -64,23 +68,21 @@ public class MessageEventHandler extends ReactiveEventAdapter{
 
         Snowflake guildId = member.getGuildId();
 
-        Mono<Void> updateActivity = entityRetriever.getAndUpdateLocalMemberById(member)
-                .switchIfEmpty(entityRetriever.createLocalMember(member))
-                .flatMap(localMember0 -> {
-                    localMember0.getActivity().setLastSentMessage(message.getTimestamp());
-                    localMember0.getActivity().incrementMessageCount();
-                    return entityRetriever.save(localMember0);
-                });
+        Mono<Void> updateActivity = entityRetriever.upsertLocalMember(member)
+                .doOnNext(localMember0 -> activityAggregator.increment(localMember0, message.getTimestamp()))
+                .then();
+
+        Mono<GuildSettings> settings = entityRetriever.getGuildSettings(guildId);
 
-        Mono<Void> safeMessageInfo = entityRetriever.getAuditConfigById(guildId).flatMap(auditConfig -> {
+        Mono<Void> safeMessageInfo = settings.flatMap(s -> Mono.justOrEmpty(s.getAuditConfig())).flatMap(auditConfig -> {
             if(auditConfig.isEnabled(MESSAGE_CREATE)){
                 return entityRetriever.createMessageInfo(message).then();
             }
             return Mono.empty();
         });
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = settings.flatMap(s -> Mono.justOrEmpty(s.getGuildConfig()))
+                .switchIfEmpty(entityRetriever.upsertGuildConfig(guildId))
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -104,8 +106,7 @@ public class MessageEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -155,23 +156,29 @@ public class MessageEventHandler extends ReactiveEventAdapter{
                             return Mono.empty();
                         }
 
-                        AuditActionBuilder builder = auditService.newBuilder(guildId, MESSAGE_EDIT)
-                                .withChannel(channel)
-                                .withUser(member)
-                                .withAttribute(MESSAGE, message)
-                                .withAttribute(OLD_CONTENT, oldContent)
-                                .withAttribute(NEW_CONTENT, newContent)
-                                .withAttribute(AVATAR_URL, member.getAvatarUrl())
-                                .withAttribute(MESSAGE_ID, message.getId());
-
-                        if(newContent.length() >= Field.MAX_VALUE_LENGTH || oldContent.length() >= Field.MAX_VALUE_LENGTH){
-                            builder.withAttachment(MESSAGE_TXT, ReusableByteInputStream.ofString(String.format("%s%n%s%n%n%s%n%s",
-                                    messageService.get(context, "audit.message.old-content.title"), oldContent,
-                                    messageService.get(context, "audit.message.new-content.title"), newContent
-                            )));
-                        }
-
-                        return builder.save().and(entityRetriever.save(info));
+                        Mono<Void> log = auditService.isEnabled(guildId, MESSAGE_EDIT)
+                                .filter(enabled -> enabled)
+                                .flatMap(ignored -> {
+                                    AuditActionBuilder builder = auditService.newBuilder(guildId, MESSAGE_EDIT)
+                                            .withChannel(channel)
+                                            .withUser(member)
+                                            .withAttribute(MESSAGE, message)
+                                            .withAttribute(OLD_CONTENT, oldContent)
+                                            .withAttribute(NEW_CONTENT, newContent)
+                                            .withAttribute(AVATAR_URL, member.getAvatarUrl())
+                                            .withAttribute(MESSAGE_ID, message.getId());
+
+                                    if(newContent.length() >= Field.MAX_VALUE_LENGTH || oldContent.length() >= Field.MAX_VALUE_LENGTH){
+                                        builder.withAttachment(MESSAGE_TXT, ReusableByteInputStream.ofString(String.format("%s%n%s%n%n%s%n%s",
+                                                messageService.get(context, "audit.message.old-content.title"), oldContent,
+                                                messageService.get(context, "audit.message.new-content.title"), newContent
+                                        )));
+                                    }
+
+                                    return builder.save();
+                                });
+
+                        return log.and(entityRetriever.save(info));
                     }).and(command);
                 }))
                 .contextWrite(context));
@@ -192,12 +199,14 @@ public class MessageEventHandler extends ReactiveEventAdapter{
 
         Mono<MessageInfo> messageInfo = entityRetriever.getMessageInfoById(message.getId());
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        Mono<Void> logMessageDelete = initContext.flatMap(context ->
+        // the guild audit log is only read to log the deletion
+        Mono<Void> logMessageDelete = auditService.isEnabled(guildId, MESSAGE_DELETE).flatMap(enabled -> !enabled
+                ? messageInfo.flatMap(entityRetriever::delete)
+                : initContext.flatMap(context ->
                 Mono.zip(event.getChannel().ofType(GuildMessageChannel.class), messageInfo)
                 .flatMap(function((channel, info) -> {
                     String decrypted = messageService.decrypt(info.getContent(), message.getId(), message.getChannelId());
@@ -234,7 +243,7 @@ public class MessageEventHandler extends ReactiveEventAdapter{
                             .flatMap(AuditActionBuilder::save)
                             .and(entityRetriever.delete(info));
                 }))
-                .contextWrite(context));
+                .contextWrite(context)));
 
         Mono<Void> deletePoll = entityRetriever.getPollById(message.getId())
                 .flatMap(entityRetriever::delete);
@@ -33,12 +33,14 @@ public class ReactionEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        return initContext.flatMap(context -> Mono.zip(event.getUser().flatMap(user -> user.asMember(guildId)),
+        return auditService.isEnabled(guildId, AuditActionType.REACTION_ADD)
+                .filter(enabled -> enabled)
+                .flatMap(ignored -> initContext)
+                .flatMap(context -> Mono.zip(event.getUser().flatMap(user -> user.asMember(guildId)),
                         event.getChannel().ofType(GuildMessageChannel.class))
                 .flatMap(function((member, channel) -> auditService.newBuilder(guildId, AuditActionType.REACTION_ADD)
                         .withUser(member)
@@ -56,12 +58,14 @@ public class ReactionEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        return initContext.flatMap(context -> Mono.zip(event.getUser().flatMap(user -> user.asMember(guildId)),
+        return auditService.isEnabled(guildId, AuditActionType.REACTION_REMOVE)
+                .filter(enabled -> enabled)
+                .flatMap(ignored -> initContext)
+                .flatMap(context -> Mono.zip(event.getUser().flatMap(user -> user.asMember(guildId)),
                         event.getChannel().ofType(GuildMessageChannel.class))
                 .flatMap(function((member, channel) -> auditService.newBuilder(guildId, AuditActionType.REACTION_REMOVE)
                         .withUser(member)
@@ -79,12 +83,14 @@ public class ReactionEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        return initContext.flatMap(context -> event.getChannel().ofType(GuildMessageChannel.class)
+        return auditService.isEnabled(guildId, AuditActionType.REACTION_REMOVE_ALL)
+                .filter(enabled -> enabled)
+                .flatMap(ignored -> initContext)
+                .flatMap(context -> event.getChannel().ofType(GuildMessageChannel.class)
                 .flatMap(channel -> auditService.newBuilder(guildId, AuditActionType.REACTION_REMOVE_ALL)
                         .withChannel(channel)
                         .withAttribute(Attribute.MESSAGE_ID, event.getMessageId())
@@ -0,0 +1,99 @@
+package inside.event;
+
+import discord4j.common.util.Snowflake;
+import inside.Settings;
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.*;
+import reactor.util.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+// collapses the edits of a starboard message within the edit window into one,
+// at most one edit per message is in flight and the latest one submitted is always sent
+@Component
+public class StarboardEditCoalescer{
+    private static final Logger log = Loggers.getLogger(StarboardEditCoalescer.class);
+
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    private final Duration window;
+    private final Counter requested;
+    private final Counter sent;
+    private final Counter coalesced;
+
+    public StarboardEditCoalescer(@Autowired Settings settings, @Autowired MeterRegistry meterRegistry){
+        this.window = settings.getDiscord().getStarboardEditWindow();
+        this.requested = meterRegistry.counter("insidebot.starboard.edits", "result", "requested");
+        this.sent = meterRegistry.counter("insidebot.starboard.edits", "result", "sent");
+        this.coalesced = meterRegistry.counter("insidebot.starboard.edits", "result", "coalesced");
+    }
+
+    // the edit is cold and only subscribed when the window of the message closes
+    public void submit(Snowflake targetMessageId, Mono<?> edit){
+        requested.increment();
+        long key = targetMessageId.asLong();
+        boolean[] schedule = new boolean[1];
+        slots.compute(key, (id, slot) -> {
+            if(slot == null){
+                schedule[0] = true;
+                return new Slot(edit);
+            }
+            if(slot.pending != null){
+                coalesced.increment();
+            }
+            slot.pending = edit;
+            return slot;
+        });
+
+        if(schedule[0]){
+            flushLater(key);
+        }
+    }
+
+    private void flushLater(long key){
+        Mono.delay(window)
+                .then(Mono.defer(() -> {
+                    Mono<?> edit = take(key);
+                    if(edit == null){
+                        return Mono.empty();
+                    }
+                    sent.increment();
+                    return edit.then();
+                }))
+                .onErrorResume(t -> {
+                    log.warn("Failed to edit starboard message {}", Snowflake.of(key).asString(), t);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    // edits submitted while this one was in flight get a trailing flush
+                    if(slots.computeIfPresent(key, (id, slot) -> slot.pending != null ? slot : null) != null){
+                        flushLater(key);
+                    }
+                })
+                .subscribe();
+    }
+
+    @Nullable
+    private Mono<?> take(long key){
+        Mono<?>[] edit = new Mono<?>[1];
+        slots.computeIfPresent(key, (id, slot) -> {
+            edit[0] = slot.pending;
+            slot.pending = null;
+            return slot; // kept while in flight
+        });
+        return edit[0];
+    }
+
+    private static final class Slot{
+        @Nullable
+        private Mono<?> pending;
+
+        Slot(Mono<?> pending){
+            this.pending = pending;
+        }
+    }
+}
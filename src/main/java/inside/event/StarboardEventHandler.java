@@ -1,5 +1,7 @@
 package inside.event;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import discord4j.common.util.Snowflake;
 import discord4j.core.event.ReactiveEventAdapter;
 import discord4j.core.event.domain.message.*;
@@ -10,19 +12,25 @@ import discord4j.core.object.reaction.ReactionEmoji;
 import discord4j.core.spec.*;
 import discord4j.rest.util.Color;
 import inside.data.entity.*;
-import inside.data.service.EntityRetriever;
+import inside.data.entity.snapshot.*;
+import inside.data.service.*;
+import inside.scheduler.job.StarboardBackfillJob;
 import inside.service.MessageService;
 import inside.util.*;
+import org.quartz.*;
 import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.*;
-import reactor.math.MathFlux;
+import reactor.util.*;
 import reactor.util.context.Context;
+import reactor.util.function.Tuples;
 
 import java.time.*;
 import java.time.format.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static inside.util.ContextUtil.*;
@@ -30,6 +38,8 @@ import static reactor.function.TupleUtils.*;
 
 @Component
 public class StarboardEventHandler extends ReactiveEventAdapter{
+    private static final Logger log = Loggers.getLogger(StarboardEventHandler.class);
+
     private static final Color offsetColor = Color.of(0xffefc0), targetColor = Color.of(0xdaa520);
     private static final float lerpStep = 1.0E-05f;
 
@@ -39,6 +49,26 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private StarboardTally starboardTally;
+
+    @Autowired
+    private StarboardEditCoalescer starboardEdits;
+
+    @Autowired
+    private PersistenceScheduler persistenceScheduler;
+
+    @Autowired
+    private SchedulerFactoryBean schedulerFactoryBean;
+
+    // backfill jobs known to exist, checked once per process
+    private final Set<JobKey> backfills = ConcurrentHashMap.newKeySet();
+
+    // posts being created by source message id, kept until the starboard row of the post is surely committed
+    private final Cache<Snowflake, Mono<Snowflake>> claims = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
     @Override
     public Publisher<?> onReactionAdd(ReactionAddEvent event){
         ReactionEmoji emoji = event.getEmoji();
@@ -47,12 +77,14 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<GuildSettings> settings = entityRetriever.getGuildSettings(guildId);
+
+        Mono<Context> initContext = settings.flatMap(s -> Mono.justOrEmpty(s.getGuildConfig()))
+                .switchIfEmpty(entityRetriever.upsertGuildConfig(guildId))
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        Mono<StarboardConfig> starboardConfig = entityRetriever.getStarboardConfigById(guildId);
+        Mono<StarboardConfigSnapshot> starboardConfig = settings.flatMap(s -> Mono.justOrEmpty(s.getStarboardConfig()));
 
         return Mono.zip(initContext, starboardConfig)
                 .flatMap(function((context, config) -> {
@@ -61,21 +93,22 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
                             .map(ReactionEmoji::of)
                             .collect(Collectors.toList());
 
-                    if(!config.isEnabled() || channelId == null || !emojis.contains(emoji)){
+                    if(!config.isEnabled() || channelId == null){
                         return Mono.empty();
                     }
 
-                    Mono<Long> emojiCount = event.getMessage()
-                            .flatMapMany(message -> Flux.fromIterable(message.getReactions())
-                                    .filter(reaction -> emojis.contains(reaction.getEmoji()))
-                                    .flatMap(r -> config.isSelfStarring() ? Mono.just((long)r.getCount()) :
-                                            message.getReactors(r.getEmoji())
-                                                    .filter(u -> !message.getAuthor().map(User::getId)
-                                                            .map(id -> u.getId().equals(id))
-                                                            .orElse(false))
-                                                    .count()))
-                            .as(MathFlux::max)
-                            .defaultIfEmpty(0L)
+                    scheduleBackfill(guildId, channelId);
+
+                    if(!emojis.contains(emoji)){
+                        starboardTally.update(event.getMessageId(), emoji, event.getUserId(), 1);
+                        return Mono.empty();
+                    }
+
+                    // self-starring and the barrier are checked before anything else is requested
+                    Mono<Long> emojiCount = starboardTally.add(event.getClient(), event.getChannelId(),
+                                    event.getMessageId(), emoji, event.getUserId(), emojis)
+                            .filter(tally -> config.isSelfStarring() || !tally.isAuthor(event.getUserId()))
+                            .map(tally -> tally.count(emojis, config.isSelfStarring()))
                             .filter(l -> l >= config.getLowerStarBarrier());
 
                     Mono<GuildMessageChannel> starboardChannel = event.getClient().getChannelById(channelId)
@@ -83,51 +116,23 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
 
                     Mono<Message> sourceMessage = event.getMessage();
 
-                    return Mono.zip(emojiCount, starboardChannel, sourceMessage)
+                    return emojiCount.zipWhen(count -> Mono.zip(starboardChannel, sourceMessage),
+                                    (count, tuple) -> Tuples.of(count, tuple.getT1(), tuple.getT2()))
                             .filter(predicate((count, channel, source) -> source.getInteraction().isEmpty() &&
                                     source.getWebhookId().isEmpty() &&
                                     !isStarboard(source)))
-                            .filter(predicate((count, channel, source) -> config.isSelfStarring()
-                                    || source.getAuthor()
-                                    .map(u -> !u.getId().equals(event.getUserId()))
-                                    .orElse(true)))
                             .flatMap(function((count, channel, source) -> {
 
-                                Mono<Message> findIfAbsent = channel.getLastMessageId()
-                                        .map(channel::getMessagesBefore).orElse(Flux.empty())
-                                        .filter(m -> isStarboard(m, source))
-                                        .next()
-                                        .flatMap(target -> entityRetriever.createStarboard(
-                                                guildId, source.getId(), target.getId()).thenReturn(target));
-
-                                Mono<Message> targetMessage = entityRetriever.getStarboardBySourceId(guildId, event.getMessageId())
-                                        .flatMap(board -> channel.getMessageById(board.getTargetMessageId()))
-                                        .switchIfEmpty(findIfAbsent);
+                                Mono<Snowflake> targetMessageId = entityRetriever.getStarboardBySourceId(guildId, event.getMessageId())
+                                        .map(Starboard::getTargetMessageId);
 
                                 List<String> formatted = emojis.stream()
                                         .map(DiscordUtil::getEmojiString)
                                         .collect(Collectors.toList());
 
-                                Mono<Message> updateOld = targetMessage.flatMap(target -> {
-                                    List<Embed> embeds = target.getEmbeds();
-                                    Embed old = !embeds.isEmpty() ? embeds.get(0) : null;
-                                    var embedSpec = EmbedCreateSpec.builder();
-
-                                    if(old == null){ // someone remove embed
-                                        computeEmbed(context, source, guildId, embedSpec);
-                                    }else{
-                                        updateEmbed(context, old, embedSpec);
-                                    }
-
-                                    embedSpec.color(lerp(offsetColor, targetColor, Mathf.round(count / 6f, lerpStep)));
-
-                                    return target.edit(MessageEditSpec.builder()
-                                            .addEmbed(embedSpec.build())
-                                            .contentOrNull(messageService.format(context, "starboard.format",
-                                                    formatted.get(Math.toIntExact(Mathf.clamp((count - 1) / 5, 0, formatted.size() - 1))),
-                                                    count, DiscordUtil.getChannelMention(source.getChannelId())))
-                                            .build());
-                                });
+                                Mono<Snowflake> updateOld = targetMessageId.doOnNext(targetId ->
+                                        submitEdit(context, channel, targetId, source, guildId, count, formatted,
+                                                emojis, config.isSelfStarring()));
 
                                 Mono<Message> createNew = Mono.defer(() -> {
                                     var embedSpec = EmbedCreateSpec.builder();
@@ -146,7 +151,23 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
                                                     .thenReturn(target));
                                 });
 
-                                return updateOld.switchIfEmpty(createNew);
+                                // only the first event past the barrier posts, the concurrent ones edit its post
+                                Mono<Snowflake> claimNew = Mono.defer(() -> {
+                                    Mono<Snowflake> created = createNew.map(Message::getId).cache();
+                                    Mono<Snowflake> claim = claims.asMap().putIfAbsent(source.getId(), created);
+                                    if(claim != null){
+                                        return claim.doOnNext(targetId -> submitEdit(context, channel, targetId, source,
+                                                guildId, count, formatted, emojis, config.isSelfStarring()));
+                                    }
+
+                                    return created.doFinally(signal -> {
+                                        if(signal != SignalType.ON_COMPLETE){ // nothing posted, the next event may try again
+                                            claims.asMap().remove(source.getId(), created);
+                                        }
+                                    });
+                                });
+
+                                return updateOld.switchIfEmpty(claimNew);
                             }))
                             .contextWrite(context);
                 }));
@@ -160,12 +181,14 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<GuildSettings> settings = entityRetriever.getGuildSettings(guildId);
+
+        Mono<Context> initContext = settings.flatMap(s -> Mono.justOrEmpty(s.getGuildConfig()))
+                .switchIfEmpty(entityRetriever.upsertGuildConfig(guildId))
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
-        Mono<StarboardConfig> starboardConfig = entityRetriever.getStarboardConfigById(guildId);
+        Mono<StarboardConfigSnapshot> starboardConfig = settings.flatMap(s -> Mono.justOrEmpty(s.getStarboardConfig()));
 
         return Mono.zip(initContext, starboardConfig)
                 .flatMap(function((context, config) -> {
@@ -174,22 +197,22 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
                             .map(ReactionEmoji::of)
                             .collect(Collectors.toList());
 
-                    // prevents recursive starboard
-                    if(!config.isEnabled() || channelId == null || !emojis.contains(emoji)){
+                    if(!config.isEnabled() || channelId == null){
                         return Mono.empty();
                     }
 
-                    Mono<Long> emojiCount = event.getMessage()
-                            .flatMapMany(message -> Flux.fromIterable(message.getReactions())
-                                    .filter(reaction -> emojis.contains(reaction.getEmoji()))
-                                    .flatMap(r -> config.isSelfStarring() ? Mono.just((long)r.getCount()) :
-                                            message.getReactors(r.getEmoji())
-                                                    .filter(u -> !message.getAuthor().map(User::getId)
-                                                            .map(id -> u.getId().equals(id))
-                                                            .orElse(false))
-                                                    .count()))
-                            .as(MathFlux::max)
-                            .defaultIfEmpty(0L)
+                    scheduleBackfill(guildId, channelId);
+
+                    if(!emojis.contains(emoji)){
+                        starboardTally.update(event.getMessageId(), emoji, event.getUserId(), -1);
+                        return Mono.empty();
+                    }
+
+                    // self-starring checks
+                    Mono<Long> emojiCount = starboardTally.remove(event.getClient(), event.getChannelId(),
+                                    event.getMessageId(), emoji, event.getUserId(), emojis)
+                            .filter(tally -> config.isSelfStarring() || !tally.isAuthor(event.getUserId()))
+                            .map(tally -> tally.count(emojis, config.isSelfStarring()))
                             .filter(l -> l >= config.getLowerStarBarrier());
 
                     Mono<GuildMessageChannel> starboardChannel = event.getClient().getChannelById(channelId)
@@ -197,57 +220,76 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
 
                     Mono<Message> sourceMessage = event.getMessage();
 
-                    return Mono.zip(emojiCount, starboardChannel, sourceMessage)
+                    return emojiCount.zipWhen(count -> Mono.zip(starboardChannel, sourceMessage),
+                                    (count, tuple) -> Tuples.of(count, tuple.getT1(), tuple.getT2()))
                             // interaction filter
                             .filter(predicate((count, channel, source) ->
                                     source.getInteraction().isEmpty() &&
                                     source.getWebhookId().isEmpty() &&
                                     !isStarboard(source))) // prevents recursive starboard
-                            // self-starring checks
-                            .filter(predicate((count, channel, source) -> config.isSelfStarring() || source.getAuthor()
-                                    .map(u -> !u.getId().equals(event.getUserId()))
-                                    .orElse(true)))
                             .flatMap(function((count, channel, source) -> {
 
-                                Mono<Message> findIfAbsent = channel.getLastMessageId()
-                                        .map(channel::getMessagesBefore).orElse(Flux.empty())
-                                        .filter(m -> isStarboard(m, source))
-                                        .next()
-                                        .flatMap(target -> entityRetriever.createStarboard(
-                                                guildId, source.getId(), target.getId()).thenReturn(target));
+                                List<String> formatted = emojis.stream()
+                                        .map(DiscordUtil::getEmojiString)
+                                        .collect(Collectors.toList());
 
-                                Mono<Message> targetMessage = entityRetriever.getStarboardBySourceId(guildId, event.getMessageId())
-                                        .flatMap(board -> channel.getMessageById(board.getTargetMessageId()))
-                                        .switchIfEmpty(findIfAbsent);
+                                return entityRetriever.getStarboardBySourceId(guildId, event.getMessageId())
+                                        .map(Starboard::getTargetMessageId)
+                                        .doOnNext(targetId -> submitEdit(context, channel, targetId, source, guildId, count, formatted,
+                                                emojis, config.isSelfStarring()));
+                            }))
+                            .contextWrite(context);
+                }));
+    }
 
-                                return targetMessage.flatMap(target -> {
-                                    List<Embed> embeds = target.getEmbeds();
-                                    Embed old = !embeds.isEmpty() ? embeds.get(0) : null;
-                                    var embedSpec = EmbedCreateSpec.builder();
+    // the posts made before the source messages were stored are indexed once per channel,
+    // until then a reaction on such a message doesn't find its post
+    private void scheduleBackfill(Snowflake guildId, Snowflake channelId){
+        JobKey key = StarboardBackfillJob.key(guildId, channelId);
+        if(!backfills.add(key)){
+            return;
+        }
 
-                                    if(old == null){ // someone remove embed
-                                        computeEmbed(context, source, guildId, embedSpec);
-                                    }else{
-                                        updateEmbed(context, old, embedSpec);
-                                    }
+        persistenceScheduler.fromRunnable(() -> Try.run(() -> {
+                    Scheduler scheduler = schedulerFactoryBean.getScheduler();
+                    if(!scheduler.checkExists(key)){
+                        scheduler.scheduleJob(StarboardBackfillJob.createDetails(guildId, channelId),
+                                StarboardBackfillJob.createTrigger(key));
+                    }
+                }).onFailure(t -> {
+                    backfills.remove(key);
+                    log.warn("Failed to schedule starboard backfill for guild {}", guildId.asString(), t);
+                }))
+                .subscribe();
+    }
 
-                                    embedSpec.color(lerp(offsetColor, targetColor, Mathf.round(count / 6f, lerpStep)));
+    // the starboard message is read and edited once the edit window closes, the count is read from the tally then,
+    // the count of the event is only used if the tally was evicted meanwhile
+    private void submitEdit(Context context, GuildMessageChannel channel, Snowflake targetId, Message source,
+                            Snowflake guildId, long eventCount, List<String> formatted,
+                            List<ReactionEmoji> stars, boolean selfStarring){
+        starboardEdits.submit(targetId, channel.getMessageById(targetId).flatMap(target -> {
+            long latest = starboardTally.count(source.getId(), stars, selfStarring);
+            long count = latest >= 0 ? latest : eventCount;
+            List<Embed> embeds = target.getEmbeds();
+            Embed old = !embeds.isEmpty() ? embeds.get(0) : null;
+            var embedSpec = EmbedCreateSpec.builder();
+
+            if(old == null){ // someone remove embed
+                computeEmbed(context, source, guildId, embedSpec);
+            }else{
+                updateEmbed(context, old, embedSpec);
+            }
 
-                                    List<String> formatted = emojis.stream()
-                                            .map(DiscordUtil::getEmojiString)
-                                            .collect(Collectors.toList());
-
-                                    Snowflake sourceChannelId = event.getChannelId();
-                                    return target.edit(MessageEditSpec.builder()
-                                            .addEmbed(embedSpec.build())
-                                            .contentOrNull(messageService.format(context, "starboard.format",
-                                                    formatted.get(Math.toIntExact(Mathf.clamp((count - 1) / 5, 0, formatted.size() - 1))),
-                                                    count, DiscordUtil.getChannelMention(sourceChannelId)))
-                                            .build());
-                                });
-                            }))
-                            .contextWrite(context);
-                }));
+            embedSpec.color(lerp(offsetColor, targetColor, Mathf.round(count / 6f, lerpStep)));
+
+            return target.edit(MessageEditSpec.builder()
+                    .addEmbed(embedSpec.build())
+                    .contentOrNull(messageService.format(context, "starboard.format",
+                            formatted.get(Math.toIntExact(Mathf.clamp((count - 1) / 5, 0, formatted.size() - 1))),
+                            count, DiscordUtil.getChannelMention(source.getChannelId())))
+                    .build());
+        }));
     }
 
     private void computeEmbed(Context context, Message source, Snowflake guildId, EmbedCreateSpec.Builder embedSpec){
@@ -318,7 +360,9 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
             return Mono.empty();
         }
 
-        Mono<StarboardConfig> starboardConfig = entityRetriever.getStarboardConfigById(guildId);
+        starboardTally.invalidate(event.getMessageId());
+
+        Mono<StarboardConfigSnapshot> starboardConfig = entityRetriever.getStarboardConfigById(guildId);
 
         Mono<Starboard> starboard = entityRetriever.getStarboardBySourceId(guildId, event.getMessageId());
 
@@ -347,20 +391,15 @@ public class StarboardEventHandler extends ReactiveEventAdapter{
         return fields.size() >= 1 && embed.getFooter().isPresent() && fields.stream().noneMatch(Embed.Field::isInline);
     }
 
-    private boolean isStarboard(Message possibleTarget, Message source){
-        List<Embed> embeds = possibleTarget.getEmbeds();
-        if(embeds.size() != 1){
-            return false;
-        }
-
-        List<Embed.Field> fields = embeds.get(0).getFields();
-        String messageIdString = source.getId().asString();
-        return fields.size() >= 1 && fields.get(0).getValue().equals(messageIdString + ")") &&
-                embeds.get(0).getFooter().isPresent() && fields.stream().noneMatch(Embed.Field::isInline);
+    @Override
+    public Publisher<?> onReactionRemoveEmoji(ReactionRemoveEmojiEvent event){
+        starboardTally.clear(event.getMessageId(), event.getEmoji());
+        return Mono.empty();
     }
 
     @Override
     public Publisher<?> onMessageDelete(MessageDeleteEvent event){
+        starboardTally.invalidate(event.getMessageId());
         return Mono.justOrEmpty(event.getGuildId()).flatMap(guildId ->
                 entityRetriever.deleteStarboardById(guildId, event.getMessageId()));
     }
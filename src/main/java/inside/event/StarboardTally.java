@@ -0,0 +1,179 @@
+package inside.event;
+
+import com.github.benmanes.caffeine.cache.*;
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.object.entity.*;
+import discord4j.core.object.reaction.*;
+import discord4j.core.util.EntityUtil;
+import inside.Settings;
+import inside.data.cache.CachePolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.*;
+import reactor.util.annotation.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+// reactor counts of the starred messages, maintained from reaction events;
+// a message is read over rest only the first time it is seen, the author check costs
+// one single-user reactors request per star emoji instead of paging every reactor
+@Component
+public class StarboardTally{
+
+    private final AsyncCache<Long, Tally> tallies;
+
+    public StarboardTally(@Autowired Settings settings, @Autowired MeterRegistry meterRegistry){
+        CachePolicy policy = settings.getCache().getStarboardTally();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(policy.getMaximumSize())
+                .recordStats();
+        if(policy.getExpireAfterAccess() != null){
+            builder.expireAfterAccess(policy.getExpireAfterAccess());
+        }
+        tallies = builder.buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, tallies.synchronous(), "starboard-tally");
+    }
+
+    // applies the reaction, the tally of a message seen for the first time is read from discord instead;
+    // reactions arriving while that read is in flight are assumed to be included in it
+    public Mono<Tally> add(GatewayDiscordClient client, Snowflake channelId, Snowflake messageId,
+                           ReactionEmoji emoji, Snowflake userId, List<ReactionEmoji> stars){
+        return apply(client, channelId, messageId, emoji, userId, 1, stars);
+    }
+
+    public Mono<Tally> remove(GatewayDiscordClient client, Snowflake channelId, Snowflake messageId,
+                              ReactionEmoji emoji, Snowflake userId, List<ReactionEmoji> stars){
+        return apply(client, channelId, messageId, emoji, userId, -1, stars);
+    }
+
+    // reactions of emojis that aren't stars don't trigger a read, they only keep a known tally exact
+    public void update(Snowflake messageId, ReactionEmoji emoji, Snowflake userId, int delta){
+        Tally tally = getIfLoaded(messageId);
+        if(tally != null){
+            tally.apply(emoji, userId, delta);
+        }
+    }
+
+    public void clear(Snowflake messageId, ReactionEmoji emoji){
+        Tally tally = getIfLoaded(messageId);
+        if(tally != null){
+            tally.clear(emoji);
+        }
+    }
+
+    // the current count of a loaded tally, -1 if it isn't loaded
+    public long count(Snowflake messageId, List<ReactionEmoji> stars, boolean selfStarring){
+        Tally tally = getIfLoaded(messageId);
+        return tally != null ? tally.count(stars, selfStarring) : -1;
+    }
+
+    public void invalidate(Snowflake messageId){
+        tallies.synchronous().invalidate(messageId.asLong());
+    }
+
+    @Nullable
+    private Tally getIfLoaded(Snowflake messageId){
+        CompletableFuture<Tally> future = tallies.getIfPresent(messageId.asLong());
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private Mono<Tally> apply(GatewayDiscordClient client, Snowflake channelId, Snowflake messageId,
+                              ReactionEmoji emoji, Snowflake userId, int delta, List<ReactionEmoji> stars){
+        return Mono.defer(() -> {
+            CompletableFuture<Tally> future = tallies.getIfPresent(messageId.asLong());
+            if(future == null){
+                // the loading function runs on this thread, a concurrent event gets the same future
+                future = tallies.get(messageId.asLong(), (id, executor) ->
+                        reconcile(client, channelId, messageId, stars).toFuture());
+                return Mono.fromFuture(future);
+            }
+            if(!future.isDone()){
+                return Mono.fromFuture(future);
+            }
+
+            return Mono.fromFuture(future).doOnNext(tally -> tally.apply(emoji, userId, delta));
+        });
+    }
+
+    private Mono<Tally> reconcile(GatewayDiscordClient client, Snowflake channelId, Snowflake messageId,
+                                  List<ReactionEmoji> stars){
+        return client.getMessageById(channelId, messageId).flatMap(message -> {
+            long authorId = message.getAuthor().map(User::getId).map(Snowflake::asLong).orElse(0L);
+            Tally tally = new Tally(authorId);
+
+            return Flux.fromIterable(message.getReactions())
+                    .flatMap(reaction -> {
+                        ReactionEmoji emoji = reaction.getEmoji();
+                        if(authorId == 0 || !stars.contains(emoji)){
+                            return Mono.just(tally.set(emoji, reaction.getCount(), false));
+                        }
+                        // the first reactor with an id not below the author's
+                        return client.rest().getChannelService()
+                                .getReactions(channelId.asLong(), messageId.asLong(), EntityUtil.getEmojiString(emoji),
+                                        Map.of("after", authorId - 1, "limit", 1))
+                                .next()
+                                .map(user -> user.id().asLong() == authorId)
+                                .defaultIfEmpty(false)
+                                .map(authorReacted -> tally.set(emoji, reaction.getCount(), authorReacted));
+                    })
+                    .then(Mono.just(tally));
+        });
+    }
+
+    public static final class Tally{
+        private final long authorId;
+        // emoji -> reactors and whether the author is one of them
+        private final Map<ReactionEmoji, Count> counts = new HashMap<>();
+
+        Tally(long authorId){
+            this.authorId = authorId;
+        }
+
+        public boolean isAuthor(Snowflake userId){
+            return authorId == userId.asLong();
+        }
+
+        // reactors of the best star, the author isn't counted unless self-starring is allowed
+        public synchronized long count(List<ReactionEmoji> stars, boolean selfStarring){
+            long max = 0;
+            for(ReactionEmoji star : stars){
+                Count count = counts.get(star);
+                if(count != null){
+                    max = Math.max(max, count.reactors - (!selfStarring && count.authorReacted ? 1 : 0));
+                }
+            }
+            return max;
+        }
+
+        synchronized Tally set(ReactionEmoji emoji, int reactors, boolean authorReacted){
+            counts.put(emoji, new Count(reactors, authorReacted));
+            return this;
+        }
+
+        synchronized void apply(ReactionEmoji emoji, Snowflake userId, int delta){
+            Count count = counts.computeIfAbsent(emoji, e -> new Count(0, false));
+            count.reactors = Math.max(0, count.reactors + delta);
+            if(isAuthor(userId)){
+                count.authorReacted = delta > 0;
+            }
+        }
+
+        synchronized void clear(ReactionEmoji emoji){
+            counts.remove(emoji);
+        }
+    }
+
+    private static final class Count{
+        private int reactors;
+        private boolean authorReacted;
+
+        Count(int reactors, boolean authorReacted){
+            this.reactors = reactors;
+            this.authorReacted = authorReacted;
+        }
+    }
+}
@@ -31,8 +31,7 @@ public class VoiceEventHandler extends ReactiveEventAdapter{
     public Publisher<?> onVoiceStateUpdate(VoiceStateUpdateEvent event){
         Snowflake guildId = event.getCurrent().getGuildId();
 
-        Mono<Context> initContext = entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        Mono<Context> initContext = entityRetriever.upsertGuildConfig(guildId)
                 .map(guildConfig -> Context.of(KEY_LOCALE, guildConfig.locale(),
                         KEY_TIMEZONE, guildConfig.timeZone()));
 
@@ -41,7 +40,10 @@ public class VoiceEventHandler extends ReactiveEventAdapter{
                     .flatMap(VoiceState::getChannel)
                     .cast(VoiceChannel.class);
 
-            return initContext.flatMap(context -> Mono.zip(old, event.getCurrent().getUser(), event.getCurrent().getChannel())
+            return auditService.isEnabled(guildId, VOICE_MOVE)
+                    .filter(enabled -> enabled)
+                    .flatMap(ignored -> initContext)
+                    .flatMap(context -> Mono.zip(old, event.getCurrent().getUser(), event.getCurrent().getChannel())
                     .flatMap(function((oldChannel, user, currentChannel) -> auditService.newBuilder(guildId, VOICE_MOVE)
                             .withAttribute(Attribute.OLD_CHANNEL, oldChannel)
                             .withChannel(currentChannel)
@@ -50,10 +52,14 @@ public class VoiceEventHandler extends ReactiveEventAdapter{
                     .contextWrite(context));
         }
 
-        return initContext.flatMap(context -> Mono.justOrEmpty(event.getOld())
+        AuditActionType type = event.isLeaveEvent() ? VOICE_LEAVE : VOICE_JOIN;
+        return auditService.isEnabled(guildId, type)
+                .filter(enabled -> enabled)
+                .flatMap(ignored -> initContext)
+                .flatMap(context -> Mono.justOrEmpty(event.getOld())
                 .defaultIfEmpty(event.getCurrent())
                 .flatMap(state -> Mono.zip(state.getChannel(), state.getUser()))
-                .flatMap(function((channel, user) -> auditService.newBuilder(guildId, event.isLeaveEvent() ? VOICE_LEAVE : VOICE_JOIN)
+                .flatMap(function((channel, user) -> auditService.newBuilder(guildId, type)
                         .withChannel(channel)
                         .withUser(user)
                         .save()))
@@ -50,12 +50,9 @@ public class ActivityCommand extends OwnerCommand{
                                     .map(ApplicationCommandInteractionOptionValue::asBoolean))
                             .switchIfEmpty(messageService.text(env, "command.settings.activities-enable.update",
                                     formatBool.apply(activityConfig.isEnabled())).then(Mono.never()))
-                            .flatMap(bool -> {
-                                activityConfig.setEnabled(bool);
-                                return messageService.text(env, "command.settings.activities-enable.update",
-                                                formatBool.apply(bool))
-                                        .and(entityRetriever.save(activityConfig));
-                            }));
+                            .flatMap(bool -> messageService.text(env, "command.settings.activities-enable.update",
+                                            formatBool.apply(bool))
+                                    .and(entityRetriever.updateActivityConfig(guildId, config -> config.setEnabled(bool)))));
         }
     }
 
@@ -84,12 +81,9 @@ public class ActivityCommand extends OwnerCommand{
                                             activityConfig.getRoleId().map(DiscordUtil::getRoleMention)
                                                     .orElse(messageService.get(env.context(), "command.settings.absent")))
                                     .then(Mono.never()))
-                            .flatMap(roleId -> {
-                                activityConfig.setRoleId(roleId);
-                                return messageService.text(env, "command.settings.active-user-role.update",
-                                                DiscordUtil.getRoleMention(roleId))
-                                        .and(entityRetriever.save(activityConfig));
-                            }));
+                            .flatMap(roleId -> messageService.text(env, "command.settings.active-user-role.update",
+                                            DiscordUtil.getRoleMention(roleId))
+                                    .and(entityRetriever.updateActivityConfig(guildId, config -> config.setRoleId(roleId)))));
         }
     }
 
@@ -124,9 +118,8 @@ public class ActivityCommand extends OwnerCommand{
                                     return messageService.err(env, "command.settings.overflow-number");
                                 }
 
-                                activityConfig.setMessageBarrier(i);
                                 return messageService.text(env, "command.settings.message-barrier.update", i)
-                                        .and(entityRetriever.save(activityConfig));
+                                        .and(entityRetriever.updateActivityConfig(guildId, config -> config.setMessageBarrier(i)));
                             }));
         }
     }
@@ -163,10 +156,9 @@ public class ActivityCommand extends OwnerCommand{
                                     return messageService.err(env, "command.settings.incorrect-duration");
                                 }
 
-                                activityConfig.setKeepCountingDuration(duration);
                                 return messageService.text(env, "command.settings.keep-counting-duration.update",
                                                 formatDuration.apply(duration))
-                                        .and(entityRetriever.save(activityConfig));
+                                        .and(entityRetriever.updateActivityConfig(guildId, config -> config.setKeepCountingDuration(duration)));
                             }));
         }
     }
@@ -15,6 +15,7 @@ import reactor.core.publisher.*;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -52,11 +53,8 @@ public class AdminCommand extends OwnerCommand{
                                     adminConfig.getMaxWarnCount()).then(Mono.never()))
                             .filter(l -> l > 0)
                             .switchIfEmpty(messageService.text(env, "command.settings.negative-number").then(Mono.never()))
-                            .flatMap(l -> {
-                                adminConfig.setMaxWarnCount(l);
-                                return messageService.text(env, "command.settings.warnings.update", l)
-                                        .and(entityRetriever.save(adminConfig));
-                            }));
+                            .flatMap(l -> messageService.text(env, "command.settings.warnings.update", l)
+                                    .and(entityRetriever.updateAdminConfig(guildId, config -> config.setMaxWarnCount(l)))));
         }
     }
 
@@ -92,10 +90,9 @@ public class AdminCommand extends OwnerCommand{
                                     return messageService.err(env, "command.settings.incorrect-duration");
                                 }
 
-                                adminConfig.setMuteBaseDelay(duration);
                                 return messageService.text(env, "command.settings.base-duration.update",
                                                 formatDuration.apply(duration))
-                                        .and(entityRetriever.save(adminConfig));
+                                        .and(entityRetriever.updateAdminConfig(guildId, config -> config.setMuteBaseDelay(duration)));
                             }));
         }
     }
@@ -125,12 +122,9 @@ public class AdminCommand extends OwnerCommand{
                                             adminConfig.getMuteRoleID().map(DiscordUtil::getRoleMention)
                                                     .orElseGet(() -> messageService.get(env.context(), "command.settings.absent")))
                                     .then(Mono.never()))
-                            .flatMap(roleId -> {
-                                adminConfig.setMuteRoleId(roleId);
-                                return messageService.text(env, "command.settings.mute-role.update",
-                                                DiscordUtil.getRoleMention(roleId))
-                                        .and(entityRetriever.save(adminConfig));
-                            }));
+                            .flatMap(roleId -> messageService.text(env, "command.settings.mute-role.update",
+                                            DiscordUtil.getRoleMention(roleId))
+                                    .and(entityRetriever.updateAdminConfig(guildId, config -> config.setMuteRoleId(roleId)))));
         }
     }
 
@@ -166,10 +160,9 @@ public class AdminCommand extends OwnerCommand{
                                     return messageService.err(env, "command.settings.incorrect-duration");
                                 }
 
-                                adminConfig.setWarnExpireDelay(duration);
                                 return messageService.text(env, "command.settings.warn-duration.update",
                                                 formatDuration.apply(duration))
-                                        .and(entityRetriever.save(adminConfig));
+                                        .and(entityRetriever.updateAdminConfig(guildId, config -> config.setWarnExpireDelay(duration)));
                             }));
         }
     }
@@ -214,11 +207,9 @@ public class AdminCommand extends OwnerCommand{
                                 AdminActionType action = Try.ofCallable(() -> AdminActionType.valueOf(str))
                                         .toOptional().orElseThrow();
 
-                                adminConfig.setThresholdAction(action);
                                 return messageService.text(env, "command.settings.threshold-action.update",
-                                                String.format("%s (`%s`)", messageService.getEnum(env.context(), adminConfig.getThresholdAction()),
-                                                        adminConfig.getThresholdAction()))
-                                        .and(entityRetriever.save(adminConfig));
+                                                String.format("%s (`%s`)", messageService.getEnum(env.context(), action), action))
+                                        .and(entityRetriever.updateAdminConfig(guildId, config -> config.setThresholdAction(action)));
                             }));
         }
     }
@@ -276,7 +267,8 @@ public class AdminCommand extends OwnerCommand{
                                         .flatMap(ApplicationCommandInteractionOption::getValue)
                                         .map(ApplicationCommandInteractionOptionValue::asString))
                                 .flatMap(value -> {
-                                    Set<Snowflake> roleIds = Collections.synchronizedSet(adminConfig.getAdminRoleIds());
+                                    Set<Snowflake> current = adminConfig.getAdminRoleIds();
+                                    Set<Snowflake> added = ConcurrentHashMap.newKeySet();
                                     String[] text = value.split("\\s*,\\s*");
 
                                     return Flux.fromArray(text)
@@ -285,13 +277,15 @@ public class AdminCommand extends OwnerCommand{
                                                     .getGuildRoles(guildId)
                                                     .filter(role -> role.getId().equals(MessageUtil.parseRoleId(str)) ||
                                                             role.getName().equalsIgnoreCase(str))
-                                                    .mapNotNull(role -> roleIds.add(role.getId()) ? role.getMention() : null))
+                                                    .mapNotNull(role -> !current.contains(role.getId()) && added.add(role.getId())
+                                                            ? role.getMention() : null))
                                             .collect(Collectors.joining(", "))
                                             .flatMap(s -> messageService.text(env, "command.settings.added"
                                                     + (s.isBlank() ? "-nothing" : ""), s))
-                                            .then(Mono.defer(() -> {
-                                                adminConfig.setAdminRoleIds(roleIds);
-                                                return entityRetriever.save(adminConfig);
+                                            .then(entityRetriever.updateAdminConfig(guildId, config -> {
+                                                Set<Snowflake> roleIds = config.getAdminRoleIds();
+                                                roleIds.addAll(added);
+                                                config.setAdminRoleIds(roleIds);
                                             }));
                                 }));
             }
@@ -320,7 +314,8 @@ public class AdminCommand extends OwnerCommand{
                                         .flatMap(ApplicationCommandInteractionOption::getValue)
                                         .map(ApplicationCommandInteractionOptionValue::asString))
                                 .flatMap(value -> {
-                                    Set<Snowflake> roleIds = adminConfig.getAdminRoleIds();
+                                    Set<Snowflake> current = adminConfig.getAdminRoleIds();
+                                    Set<Snowflake> removed = ConcurrentHashMap.newKeySet();
                                     String[] text = value.split("\\s*,\\s*");
 
                                     return Flux.fromArray(text)
@@ -329,13 +324,15 @@ public class AdminCommand extends OwnerCommand{
                                                     .getGuildRoles(guildId)
                                                     .filter(role -> role.getId().equals(MessageUtil.parseRoleId(str)) ||
                                                             role.getName().equalsIgnoreCase(str))
-                                                    .mapNotNull(role -> roleIds.remove(role.getId()) ? role.getMention() : null))
+                                                    .mapNotNull(role -> current.contains(role.getId()) && removed.add(role.getId())
+                                                            ? role.getMention() : null))
                                             .collect(Collectors.joining(", "))
                                             .flatMap(s -> messageService.text(env, "command.settings.removed"
                                                     + (s.isBlank() ? "-nothing" : ""), s))
-                                            .then(Mono.defer(() -> {
-                                                adminConfig.setAdminRoleIds(roleIds);
-                                                return entityRetriever.save(adminConfig);
+                                            .then(entityRetriever.updateAdminConfig(guildId, config -> {
+                                                Set<Snowflake> roleIds = config.getAdminRoleIds();
+                                                roleIds.removeAll(removed);
+                                                config.setAdminRoleIds(roleIds);
                                             }));
                                 }));
             }
@@ -358,8 +355,7 @@ public class AdminCommand extends OwnerCommand{
                         .flatMap(adminConfig -> messageService.text(env, adminConfig.getAdminRoleIds().isEmpty()
                                         ? "command.settings.removed-nothing"
                                         : "command.settings.admin-roles.clear")
-                                .doFirst(() -> adminConfig.setAdminRoleIds(Collections.emptySet()))
-                                .and(entityRetriever.save(adminConfig)));
+                                .and(entityRetriever.updateAdminConfig(guildId, config -> config.setAdminRoleIds(Collections.emptySet()))));
             }
         }
     }
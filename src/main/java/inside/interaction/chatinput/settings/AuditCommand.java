@@ -51,12 +51,9 @@ public class AuditCommand extends OwnerCommand{
                                     .map(ApplicationCommandInteractionOptionValue::asBoolean))
                             .switchIfEmpty(messageService.text(env, "command.settings.audit-enable.current",
                                     formatBool.apply(auditConfig.isEnabled())).then(Mono.never()))
-                            .flatMap(bool -> {
-                                auditConfig.setEnabled(bool);
-                                return messageService.text(env, "command.settings.audit-enable.update",
-                                                formatBool.apply(bool))
-                                        .and(entityRetriever.save(auditConfig));
-                            }));
+                            .flatMap(bool -> messageService.text(env, "command.settings.audit-enable.update",
+                                            formatBool.apply(bool))
+                                    .and(entityRetriever.updateAuditConfig(guildId, config -> config.setEnabled(bool)))));
         }
     }
 
@@ -85,12 +82,9 @@ public class AuditCommand extends OwnerCommand{
                                             auditConfig.getLogChannelId().map(DiscordUtil::getChannelMention)
                                                     .orElse(messageService.get(env.context(), "command.settings.absent")))
                                     .then(Mono.never()))
-                            .flatMap(channelId -> {
-                                auditConfig.setLogChannelId(channelId);
-                                return messageService.text(env, "command.settings.log-channel.update",
-                                                DiscordUtil.getChannelMention(channelId))
-                                        .and(entityRetriever.save(auditConfig));
-                            }));
+                            .flatMap(channelId -> messageService.text(env, "command.settings.log-channel.update",
+                                            DiscordUtil.getChannelMention(channelId))
+                                    .and(entityRetriever.updateAuditConfig(guildId, config -> config.setLogChannelId(channelId)))));
         }
     }
 
@@ -141,34 +135,32 @@ public class AuditCommand extends OwnerCommand{
 
                 Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-                return entityRetriever.getAuditConfigById(guildId)
-                        .switchIfEmpty(entityRetriever.createAuditConfig(guildId))
-                        .flatMap(auditConfig -> Mono.justOrEmpty(env.getOption("value")
-                                        .flatMap(ApplicationCommandInteractionOption::getValue)
-                                        .map(ApplicationCommandInteractionOptionValue::asString))
-                                .flatMap(value -> {
-                                    Set<AuditActionType> flags = auditConfig.getTypes();
-
-                                    List<Tuple2<AuditActionType, String>> all = Arrays.stream(AuditActionType.all)
-                                            .map(type -> Tuples.of(type, messageService.getEnum(env.context(), type)))
-                                            .toList();
-
-                                    if(value.equalsIgnoreCase("all")){
-                                        flags.addAll(all.stream().map(Tuple2::getT1).collect(Collectors.toSet()));
-                                    }else{
-                                        String[] text = value.split("\\s*,\\s*");
-                                        Arrays.stream(text).forEach(s -> all.stream()
-                                                .filter(predicate((type, str) -> str.equalsIgnoreCase(s)))
-                                                .findFirst()
-                                                .ifPresent(consumer((type, str) -> flags.add(type))));
-                                    }
-
-                                    return messageService.text(env, "command.settings.added"
-                                                    + (flags.isEmpty() ? "-nothing" : ""), flags.stream()
-                                                    .map(type -> messageService.getEnum(env.context(), type))
-                                                    .collect(Collectors.joining(", ")))
-                                            .and(entityRetriever.save(auditConfig));
-                                }));
+                return Mono.justOrEmpty(env.getOption("value")
+                                .flatMap(ApplicationCommandInteractionOption::getValue)
+                                .map(ApplicationCommandInteractionOptionValue::asString))
+                        .flatMap(value -> {
+                            Set<AuditActionType> added = EnumSet.noneOf(AuditActionType.class);
+
+                            List<Tuple2<AuditActionType, String>> all = Arrays.stream(AuditActionType.all)
+                                    .map(type -> Tuples.of(type, messageService.getEnum(env.context(), type)))
+                                    .toList();
+
+                            if(value.equalsIgnoreCase("all")){
+                                added.addAll(all.stream().map(Tuple2::getT1).collect(Collectors.toSet()));
+                            }else{
+                                String[] text = value.split("\\s*,\\s*");
+                                Arrays.stream(text).forEach(s -> all.stream()
+                                        .filter(predicate((type, str) -> str.equalsIgnoreCase(s)))
+                                        .findFirst()
+                                        .ifPresent(consumer((type, str) -> added.add(type))));
+                            }
+
+                            return entityRetriever.updateAuditConfig(guildId, config -> config.getTypes().addAll(added))
+                                    .flatMap(auditConfig -> messageService.text(env, "command.settings.added"
+                                            + (auditConfig.getTypes().isEmpty() ? "-nothing" : ""), auditConfig.getTypes().stream()
+                                            .map(type -> messageService.getEnum(env.context(), type))
+                                            .collect(Collectors.joining(", "))));
+                        });
             }
         }
 
@@ -189,34 +181,30 @@ public class AuditCommand extends OwnerCommand{
 
                 Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-                return entityRetriever.getAuditConfigById(guildId)
-                        .switchIfEmpty(entityRetriever.createAuditConfig(guildId))
-                        .flatMap(auditConfig -> Mono.justOrEmpty(env.getOption("value")
-                                        .flatMap(ApplicationCommandInteractionOption::getValue)
-                                        .map(ApplicationCommandInteractionOptionValue::asString))
-                                .flatMap(value -> {
-                                    Set<AuditActionType> flags = auditConfig.getTypes();
-
-                                    Set<String> removed = new HashSet<>();
-                                    List<Tuple2<AuditActionType, String>> all = Arrays.stream(AuditActionType.all)
-                                            .map(type -> Tuples.of(type, messageService.getEnum(env.context(), type)))
-                                            .toList();
-
-                                    String[] text = value.split("\\s*,\\s*");
-                                    Arrays.stream(text).forEach(s -> all.stream()
-                                            .filter(predicate((type, str) -> str.equalsIgnoreCase(s)))
-                                            .findFirst()
-                                            .ifPresent(consumer((type, str) -> {
-                                                if(flags.remove(type)){
-                                                    removed.add(str);
-                                                }
-                                            })));
-
-                                    return messageService.text(env, "command.settings.removed"
+                return Mono.justOrEmpty(env.getOption("value")
+                                .flatMap(ApplicationCommandInteractionOption::getValue)
+                                .map(ApplicationCommandInteractionOptionValue::asString))
+                        .flatMap(value -> {
+                            Set<String> removed = new HashSet<>();
+                            List<Tuple2<AuditActionType, String>> all = Arrays.stream(AuditActionType.all)
+                                    .map(type -> Tuples.of(type, messageService.getEnum(env.context(), type)))
+                                    .toList();
+
+                            String[] text = value.split("\\s*,\\s*");
+                            // applied to the private copy, removed is read after the update completes
+                            return entityRetriever.updateAuditConfig(guildId, config -> Arrays.stream(text)
+                                            .forEach(s -> all.stream()
+                                                    .filter(predicate((type, str) -> str.equalsIgnoreCase(s)))
+                                                    .findFirst()
+                                                    .ifPresent(consumer((type, str) -> {
+                                                        if(config.getTypes().remove(type)){
+                                                            removed.add(str);
+                                                        }
+                                                    }))))
+                                    .flatMap(auditConfig -> messageService.text(env, "command.settings.removed"
                                                     + (removed.isEmpty() ? "-nothing" : ""),
-                                                    String.join(", ", removed))
-                                            .and(entityRetriever.save(auditConfig));
-                                }));
+                                            String.join(", ", removed)));
+                        });
             }
         }
 
@@ -236,8 +224,7 @@ public class AuditCommand extends OwnerCommand{
                         .switchIfEmpty(entityRetriever.createAuditConfig(guildId))
                         .flatMap(auditConfig -> messageService.text(env,
                                 auditConfig.getTypes().isEmpty() ? "command.settings.removed-nothing" : "command.settings.actions.clear")
-                                .doFirst(auditConfig.getTypes()::clear)
-                                .and(entityRetriever.save(auditConfig)));
+                                .and(entityRetriever.updateAuditConfig(guildId, config -> config.getTypes().clear())));
             }
         }
     }
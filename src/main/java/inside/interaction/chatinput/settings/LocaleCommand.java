@@ -28,8 +28,7 @@ public class LocaleCommand extends SettingsCommand{
 
         Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-        return entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        return entityRetriever.upsertGuildConfig(guildId)
                 .zipWhen(guildConfig -> Mono.justOrEmpty(env.getOption("value")
                                 .flatMap(ApplicationCommandInteractionOption::getValue)
                                 .map(ApplicationCommandInteractionOptionValue::asString))
@@ -45,11 +44,10 @@ public class LocaleCommand extends SettingsCommand{
                         return messageService.text(env, "command.settings.locale.all", all);
                     }
 
-                    guildConfig.locale(locale);
                     return Mono.deferContextual(ctx -> messageService.text(env, "command.settings.locale.update",
                                     ctx.<Locale>get(KEY_LOCALE).getDisplayName()))
                             .contextWrite(ctx -> ctx.put(KEY_LOCALE, locale))
-                            .and(entityRetriever.save(guildConfig));
+                            .and(entityRetriever.updateGuildConfig(guildId, config -> config.locale(locale)));
                 }));
     }
 }
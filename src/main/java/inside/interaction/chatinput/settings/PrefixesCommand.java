@@ -31,8 +31,7 @@ public class PrefixesCommand extends OwnerCommand{
         public Publisher<?> execute(CommandEnvironment env){
             Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-            return entityRetriever.getGuildConfigById(guildId)
-                    .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+            return entityRetriever.upsertGuildConfig(guildId)
                     .flatMap(guildConfig -> messageService.text(env, "command.settings.prefix.current",
                             Optional.of(String.join(", ", guildConfig.prefixes()))
                                     .filter(s -> !s.isBlank())
@@ -57,21 +56,18 @@ public class PrefixesCommand extends OwnerCommand{
 
             Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-            return entityRetriever.getGuildConfigById(guildId)
-                    .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+            return entityRetriever.upsertGuildConfig(guildId)
                     .zipWith(Mono.justOrEmpty(env.getOption("value")
                             .flatMap(ApplicationCommandInteractionOption::getValue)
                             .map(ApplicationCommandInteractionOptionValue::asString)))
                     .flatMap(function((guildConfig, value) -> {
-                        List<String> flags = guildConfig.prefixes();
-
                         String[] text = value.split("\\s*,\\s*");
-                        Collections.addAll(flags, text);
 
                         return messageService.text(env, "command.settings.added"
                                         + (text.length == 0 ? "-nothing" : ""),
                                         String.join(", ", text))
-                                .and(entityRetriever.save(guildConfig));
+                                .and(entityRetriever.updateGuildConfig(guildId, config ->
+                                        Collections.addAll(config.prefixes(), text)));
                     }));
         }
     }
@@ -93,23 +89,22 @@ public class PrefixesCommand extends OwnerCommand{
 
             Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-            return entityRetriever.getGuildConfigById(guildId)
-                    .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+            return entityRetriever.upsertGuildConfig(guildId)
                     .zipWith(Mono.justOrEmpty(env.getOption("value")
                             .flatMap(ApplicationCommandInteractionOption::getValue)
                             .map(ApplicationCommandInteractionOptionValue::asString)))
                     .flatMap(function((guildConfig, value) -> {
-                        List<String> flags = guildConfig.prefixes();
-                        List<String> tmp = new ArrayList<>(flags);
-
                         String[] text = value.split("\\s*,\\s*");
-                        flags.removeAll(Arrays.asList(text));
-                        tmp.removeAll(flags);
 
-                        return messageService.text(env, "command.settings.removed"
-                                        + (tmp.isEmpty() ? "-nothing" : ""),
-                                        String.join(", ", tmp))
-                                .and(entityRetriever.save(guildConfig));
+                        return entityRetriever.updateGuildConfig(guildId, config -> config.prefixes().removeAll(Arrays.asList(text)))
+                                .flatMap(updated -> {
+                                    List<String> tmp = new ArrayList<>(guildConfig.prefixes());
+                                    tmp.removeAll(updated.prefixes());
+
+                                    return messageService.text(env, "command.settings.removed"
+                                                    + (tmp.isEmpty() ? "-nothing" : ""),
+                                            String.join(", ", tmp));
+                                });
                     }));
         }
     }
@@ -126,12 +121,10 @@ public class PrefixesCommand extends OwnerCommand{
 
             Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-            return entityRetriever.getGuildConfigById(guildId)
-                    .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
-                    .doOnNext(guildConfig -> guildConfig.prefixes().clear())
+            return entityRetriever.upsertGuildConfig(guildId)
                     .flatMap(guildConfig -> messageService.text(env,
-                            guildConfig.prefixes().isEmpty() ? "" :"command.settings.prefix.clear")
-                            .and(entityRetriever.save(guildConfig)));
+                            guildConfig.prefixes().isEmpty() ? "command.settings.removed-nothing" : "command.settings.prefix.clear")
+                            .and(entityRetriever.updateGuildConfig(guildId, config -> config.prefixes().clear())));
         }
     }
 }
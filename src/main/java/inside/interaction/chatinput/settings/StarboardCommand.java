@@ -5,7 +5,7 @@ import discord4j.core.object.command.*;
 import discord4j.core.object.entity.GuildEmoji;
 import discord4j.discordjson.json.EmojiData;
 import inside.annotation.Aware;
-import inside.data.entity.StarboardConfig;
+import inside.data.entity.snapshot.StarboardConfigSnapshot;
 import inside.interaction.CommandEnvironment;
 import inside.interaction.annotation.*;
 import inside.interaction.chatinput.InteractionOwnerAwareCommand;
@@ -51,12 +51,9 @@ public class StarboardCommand extends OwnerCommand{
                                     .map(ApplicationCommandInteractionOptionValue::asBoolean))
                             .switchIfEmpty(messageService.text(env, "command.settings.starboard-enable.update",
                                     formatBool.apply(starboardConfig.isEnabled())).then(Mono.never()))
-                            .flatMap(bool -> {
-                                starboardConfig.setEnabled(bool);
-                                return messageService.text(env, "command.settings.starboard-enable.update",
-                                                formatBool.apply(bool))
-                                        .and(entityRetriever.save(starboardConfig));
-                            }));
+                            .flatMap(bool -> messageService.text(env, "command.settings.starboard-enable.update",
+                                            formatBool.apply(bool))
+                                    .and(entityRetriever.updateStarboardConfig(guildId, config -> config.setEnabled(bool)))));
         }
     }
 
@@ -91,9 +88,8 @@ public class StarboardCommand extends OwnerCommand{
                                     return messageService.err(env, "command.settings.overflow-number");
                                 }
 
-                                starboardConfig.setLowerStarBarrier(i);
                                 return messageService.text(env, "command.settings.barrier.update", i)
-                                        .and(entityRetriever.save(starboardConfig));
+                                        .and(entityRetriever.updateStarboardConfig(guildId, config -> config.setLowerStarBarrier(i)));
                             }));
         }
     }
@@ -128,7 +124,7 @@ public class StarboardCommand extends OwnerCommand{
                                         : formatEmojis(starboardConfig)));
             }
 
-            private static String formatEmojis(StarboardConfig config){
+            private static String formatEmojis(StarboardConfigSnapshot config){
                 StringBuilder builder = new StringBuilder();
                 int lastnceil = 0;
                 boolean first = true;
@@ -192,14 +188,13 @@ public class StarboardCommand extends OwnerCommand{
                                             return messageService.err(env, "command.settings.emojis.limit");
                                         }
 
-                                        emojis.addAll(list);
                                         String str = list.stream()
                                                 .map(DiscordUtil::getEmojiString)
                                                 .collect(Collectors.joining(", "));
 
                                         return messageService.text(env, "command.settings.added"
                                                 + (str.isBlank() ? "-nothing" : ""), str)
-                                                .and(entityRetriever.save(starboardConfig));
+                                                .and(entityRetriever.updateStarboardConfig(guildId, config -> config.getEmojis().addAll(list)));
                                     });
                         });
             }
@@ -245,9 +240,10 @@ public class StarboardCommand extends OwnerCommand{
                                     return messageService.err(env, "command.settings.emojis.index-out-of-bounds");
                                 }
 
-                                EmojiData data = emojis.remove(idx);
+                                EmojiData data = emojis.get(idx);
                                 return messageService.text(env, "command.settings.removed",
-                                        DiscordUtil.getEmojiString(data));
+                                                DiscordUtil.getEmojiString(data))
+                                        .and(entityRetriever.updateStarboardConfig(guildId, config -> config.getEmojis().remove(data)));
                             }
 
                             String[] text = value.split("\\s*,\\s*");
@@ -269,13 +265,12 @@ public class StarboardCommand extends OwnerCommand{
                                             return messageService.err(env, "command.settings.emojis.no-emojis");
                                         }
 
-                                        emojis.removeAll(list);
                                         String str = list.stream()
                                                 .map(DiscordUtil::getEmojiString)
                                                 .collect(Collectors.joining(", "));
                                         return messageService.text(env, "command.settings.removed"
                                                         + (str.isBlank() ? "-nothing" : ""), str)
-                                                .and(entityRetriever.save(starboardConfig));
+                                                .and(entityRetriever.updateStarboardConfig(guildId, config -> config.getEmojis().removeAll(list)));
                                     });
                         });
             }
@@ -298,8 +293,7 @@ public class StarboardCommand extends OwnerCommand{
                         .flatMap(starboardConfig -> messageService.text(env, starboardConfig.getEmojis().isEmpty()
                                         ? "command.settings.removed-nothing"
                                         : "command.settings.emojis.clear")
-                                .doFirst(starboardConfig.getEmojis()::clear)
-                                .and(entityRetriever.save(starboardConfig)));
+                                .and(entityRetriever.updateStarboardConfig(guildId, config -> config.getEmojis().clear())));
             }
         }
     }
@@ -329,12 +323,9 @@ public class StarboardCommand extends OwnerCommand{
                                             starboardConfig.getStarboardChannelId().map(DiscordUtil::getChannelMention)
                                                     .orElse(messageService.get(env.context(), "command.settings.absent")))
                                     .then(Mono.never()))
-                            .flatMap(channelId -> {
-                                starboardConfig.setStarboardChannelId(channelId);
-                                return messageService.text(env, "command.settings.starboard-channel.update",
-                                                DiscordUtil.getChannelMention(channelId))
-                                        .and(entityRetriever.save(starboardConfig));
-                            }));
+                            .flatMap(channelId -> messageService.text(env, "command.settings.starboard-channel.update",
+                                            DiscordUtil.getChannelMention(channelId))
+                                    .and(entityRetriever.updateStarboardConfig(guildId, config -> config.setStarboardChannelId(channelId)))));
         }
     }
 
@@ -364,12 +355,9 @@ public class StarboardCommand extends OwnerCommand{
                                     .map(ApplicationCommandInteractionOptionValue::asBoolean))
                             .switchIfEmpty(messageService.text(env, "command.settings.starboard-self-starring.update",
                                     formatBool.apply(starboardConfig.isSelfStarring())).then(Mono.never()))
-                            .flatMap(bool -> {
-                                starboardConfig.setSelfStarring(bool);
-                                return messageService.text(env, "command.settings.starboard-self-starring.update",
-                                                formatBool.apply(bool))
-                                        .and(entityRetriever.save(starboardConfig));
-                            }));
+                            .flatMap(bool -> messageService.text(env, "command.settings.starboard-self-starring.update",
+                                            formatBool.apply(bool))
+                                    .and(entityRetriever.updateStarboardConfig(guildId, config -> config.setSelfStarring(bool)))));
         }
     }
 }
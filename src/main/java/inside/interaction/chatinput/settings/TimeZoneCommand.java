@@ -28,8 +28,7 @@ public class TimeZoneCommand extends SettingsCommand{
 
         Snowflake guildId = env.event().getInteraction().getGuildId().orElseThrow();
 
-        return entityRetriever.getGuildConfigById(guildId)
-                .switchIfEmpty(entityRetriever.createGuildConfig(guildId))
+        return entityRetriever.upsertGuildConfig(guildId)
                 .zipWhen(guildConfig -> Mono.justOrEmpty(env.getOption("value")
                                 .flatMap(ApplicationCommandInteractionOption::getValue)
                                 .map(ApplicationCommandInteractionOptionValue::asString))
@@ -44,11 +43,10 @@ public class TimeZoneCommand extends SettingsCommand{
                                 .orElseGet(() -> messageService.err(env, "command.settings.timezone.unknown"));
                     }
 
-                    guildConfig.timeZone(timeZone);
                     return Mono.deferContextual(ctx -> messageService.text(env,
                                     "command.settings.timezone.update", ctx.<Locale>get(KEY_TIMEZONE)))
                             .contextWrite(ctx -> ctx.put(KEY_TIMEZONE, timeZone))
-                            .and(entityRetriever.save(guildConfig));
+                            .and(entityRetriever.updateGuildConfig(guildId, config -> config.timeZone(timeZone)));
                 }));
     }
 }
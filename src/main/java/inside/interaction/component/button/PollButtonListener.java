@@ -3,7 +3,6 @@ package inside.interaction.component.button;
 import discord4j.core.object.Embed;
 import discord4j.core.object.entity.*;
 import discord4j.core.spec.*;
-import inside.data.entity.PollAnswer;
 import inside.data.service.EntityRetriever;
 import inside.interaction.ButtonEnvironment;
 import inside.interaction.annotation.ComponentProvider;
@@ -13,7 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Mono;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.*;
 
 @ComponentProvider("inside-poll")
 public class PollButtonListener implements ButtonListener{
@@ -31,12 +30,11 @@ public class PollButtonListener implements ButtonListener{
     public Publisher<?> handle(ButtonEnvironment env){
         return entityRetriever.getPollById(env.event().getMessageId()).flatMap(poll -> {
             User user = env.event().getInteraction().getUser();
-            if(poll.getAnswered().stream().anyMatch(p -> p.getUserId().equals(user.getId()))){
-                return messageService.err(env, "command.poll.already-answered");
-            }
-
             String[] parts = env.event().getCustomId().split("-");
             int idx = Integer.parseInt(parts[2]); // [ inside, poll, 0 ]
+            if(idx < 0 || idx >= poll.getOptions().size()){
+                return Mono.empty();
+            }
 
             Message message = env.event().getMessage().orElseThrow();
             List<Embed> embeds = message.getEmbeds();
@@ -58,29 +56,21 @@ public class PollButtonListener implements ButtonListener{
                 embedSpec.description(source.getDescription().orElseThrow());
             }
 
-            PollAnswer answer = new PollAnswer();
-            answer.setGuildId(env.event().getInteraction().getGuildId().orElseThrow());
-            answer.setOption(idx);
-            answer.setUserId(user.getId());
-
-            poll.getAnswered().add(answer);
-
-            int count = poll.getAnswered().size();
-            Map<Integer, Integer> statistic = new LinkedHashMap<>();
-            for(PollAnswer pollAnswer : poll.getAnswered()){
-                statistic.compute(pollAnswer.getOption(), (s, i) -> i == null ? 1 : i + 1);
-            }
-
-            embedSpec.footer(statistic.entrySet().stream()
-                    .map(e -> String.format("%s: %d%% (%d)",
-                            e.getKey(), (int)(e.getValue() * 100f / count), e.getValue()))
-                    .collect(Collectors.joining("\n")), null);
+            return entityRetriever.vote(poll, user.getId(), idx)
+                    .switchIfEmpty(messageService.err(env, "command.poll.already-answered").then(Mono.empty()))
+                    .flatMap(voted -> {
+                        long[] votes = voted.getVotes();
+                        long count = Arrays.stream(votes).sum();
+                        embedSpec.footer(IntStream.range(0, votes.length)
+                                .filter(i -> votes[i] > 0)
+                                .mapToObj(i -> String.format("%s: %d%% (%d)",
+                                        i, (int)(votes[i] * 100f / count), votes[i]))
+                                .collect(Collectors.joining("\n")), null);
 
-            return env.event().edit(InteractionApplicationCommandCallbackSpec.builder()
-                            .addEmbed(embedSpec.build())
-                            .build())
-                    .then(entityRetriever.save(poll))
-                    .then();
+                        return env.event().edit(InteractionApplicationCommandCallbackSpec.builder()
+                                .addEmbed(embedSpec.build())
+                                .build());
+                    });
         });
     }
 }
@@ -6,6 +6,7 @@ import discord4j.core.object.entity.Member;
 import discord4j.core.spec.*;
 import inside.Settings;
 import inside.command.admin.WarningsCommand;
+import inside.data.entity.AdminActionPage;
 import inside.interaction.ButtonEnvironment;
 import inside.interaction.annotation.ComponentProvider;
 import inside.service.*;
@@ -15,7 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import reactor.core.publisher.Mono;
 
-import static reactor.function.TupleUtils.function;
+import java.util.List;
 
 @ComponentProvider("inside-warnings")
 public class WarningsButtonListener implements ButtonListener{
@@ -37,45 +38,62 @@ public class WarningsButtonListener implements ButtonListener{
         String[] parts = env.event().getCustomId().split("-");
         Snowflake authorId = Snowflake.of(parts[2]);
         Snowflake targetId = Snowflake.of(parts[3]);
-        int page = Integer.parseInt(parts[5]);
+        // the id of the first or last warning of the current page, buttons of older messages
+        // have none and start over from the first page
+        long cursor = parts.length > 6 ? Long.parseLong(parts[6]) : 0;
+        boolean backward = cursor != 0 && parts[4].equals("prev");
+        int page = cursor != 0 ? Integer.parseInt(parts[5]) : 0;
 
         Member target = env.event().getInteraction().getMember().orElse(null);
         if(target == null || !target.getId().equals(authorId)){
             return messageService.err(env, messageService.get(env.context(), "message.foreign-interaction"));
         }
 
+        return adminService.warningsPage(target.getGuildId(), targetId, cursor, backward, WarningsCommand.PER_PAGE)
+                .flatMap(warnings -> {
+                    if(!warnings.isEmpty()){
+                        return edit(env, target, authorId, targetId, page, warnings);
+                    }
+                    if(cursor == 0){
+                        return editEmpty(env);
+                    }
+                    // the warnings of the page were removed or expired, start over from the first page
+                    return adminService.warningsPage(target.getGuildId(), targetId, 0, false, WarningsCommand.PER_PAGE)
+                            .flatMap(first -> first.isEmpty() ? editEmpty(env) : edit(env, target, authorId, targetId, 0, first));
+                });
+    }
+
+    private Mono<Void> editEmpty(ButtonEnvironment env){
+        return env.event().edit(InteractionApplicationCommandCallbackSpec.builder()
+                .content(messageService.get(env.context(), "command.admin.warnings.empty"))
+                .embeds(List.of())
+                .components(List.of())
+                .build());
+    }
+
+    private Mono<Void> edit(ButtonEnvironment env, Member target, Snowflake authorId, Snowflake targetId,
+                            int page, AdminActionPage warnings){
         int skipValues = page * WarningsCommand.PER_PAGE;
 
-        return adminService.warnings(target.getGuildId(), targetId)
-                .index().skip(skipValues).take(WarningsCommand.PER_PAGE, true)
-                .map(function((idx, warn) ->
-                        EmbedCreateFields.Field.of(String.format("%2s. %s", idx + 1,
-                                        TimestampFormat.LONG_DATE_TIME.format(warn.getTimestamp())), String.format("%s%n%s",
-                                        messageService.format(env.context(), "common.admin", warn.getAdmin().getEffectiveName()),
-                                        messageService.format(env.context(), "common.reason", warn.getReason()
-                                                .orElse(messageService.get(env.context(), "common.not-defined")))),
-                                true)))
-                .collectList()
-                .zipWith(adminService.warnings(target.getGuildId(), targetId).count())
-                .flatMap(function((fields, count) -> env.event().edit(
-                        InteractionApplicationCommandCallbackSpec.builder()
-                                .addEmbed(EmbedCreateSpec.builder()
-                                        .fields(fields)
-                                        .title(messageService.format(env.context(), "command.admin.warnings.title",
-                                                target.getDisplayName()))
-                                        .color(settings.getDefaults().getNormalColor())
-                                        .footer(messageService.format(env.context(), "command.admin.warnings.page", page + 1,
-                                                Mathf.ceilPositive(count / (float)WarningsCommand.PER_PAGE)), null)
-                                        .build())
-                                .addComponent(ActionRow.of(
-                                        Button.primary("inside-warnings-" + authorId.asString() +
-                                                        "-" + targetId.asString() +
-                                                        "-prev-" + (page - 1), messageService.get(env.context(), "common.prev-page"))
-                                                .disabled(page - 1 < 0),
-                                        Button.primary("inside-warnings-" + authorId.asString() +
-                                                        "-" + targetId.asString() +
-                                                        "-next-" + (page + 1), messageService.get(env.context(), "common.next-page"))
-                                                .disabled(count <= skipValues + WarningsCommand.PER_PAGE)))
-                                .build())));
+        return env.event().edit(
+                InteractionApplicationCommandCallbackSpec.builder()
+                        .addEmbed(EmbedCreateSpec.builder()
+                                .fields(WarningsCommand.fields(messageService, env.context(), warnings, skipValues))
+                                .title(messageService.format(env.context(), "command.admin.warnings.title",
+                                        target.getDisplayName()))
+                                .color(settings.getDefaults().getNormalColor())
+                                .footer(messageService.format(env.context(), "command.admin.warnings.page", page + 1,
+                                        Mathf.ceilPositive(warnings.total() / (float)WarningsCommand.PER_PAGE)), null)
+                                .build())
+                        .addComponent(ActionRow.of(
+                                Button.primary("inside-warnings-" + authorId.asString() +
+                                                "-" + targetId.asString() +
+                                                "-prev-" + (page - 1) + "-" + warnings.firstId(), messageService.get(env.context(), "common.prev-page"))
+                                        .disabled(page - 1 < 0),
+                                Button.primary("inside-warnings-" + authorId.asString() +
+                                                "-" + targetId.asString() +
+                                                "-next-" + (page + 1) + "-" + warnings.lastId(), messageService.get(env.context(), "common.next-page"))
+                                        .disabled(warnings.total() <= skipValues + WarningsCommand.PER_PAGE)))
+                        .build());
     }
 }
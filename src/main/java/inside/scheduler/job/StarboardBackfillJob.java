@@ -0,0 +1,143 @@
+package inside.scheduler.job;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.object.Embed;
+import discord4j.core.object.entity.*;
+import discord4j.core.object.entity.channel.GuildMessageChannel;
+import discord4j.rest.http.client.ClientException;
+import inside.data.service.EntityRetriever;
+import inside.service.DiscordService;
+import org.quartz.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.*;
+import reactor.util.function.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.*;
+
+import static inside.scheduler.job.RemindJob.ATT_GUILD_ID;
+
+// one-time scan of a starboard channel, indexes the posts whose source messages weren't stored yet;
+// each run reads one batch of the history backwards and keeps the cursor in the job data,
+// the finished job stays stored so the channel is never scanned again
+@Component
+@DisallowConcurrentExecution
+@PersistJobDataAfterExecution
+public class StarboardBackfillJob implements Job{
+    private static final Logger log = Loggers.getLogger(StarboardBackfillJob.class);
+
+    private static final String GROUP = "StarboardBackfillJob-group";
+    private static final String ATT_CHANNEL_ID = "channel_id";
+    private static final String ATT_BEFORE = "before";
+    private static final String ATT_DONE = "done";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int INTERVAL_SECONDS = 30;
+
+    // the last segment of the jump link, see starboard.jump
+    private static final Pattern SOURCE_ID = Pattern.compile("/(\\d+)\\)$");
+
+    @Autowired
+    private DiscordService discordService;
+
+    @Autowired
+    private EntityRetriever entityRetriever;
+
+    public static JobKey key(Snowflake guildId, Snowflake channelId){
+        return JobKey.jobKey(GROUP + "-" + guildId.asString() + "-" + channelId.asString(), GROUP);
+    }
+
+    // posts created after this point are indexed by the event handler
+    public static JobDetail createDetails(Snowflake guildId, Snowflake channelId){
+        return JobBuilder.newJob(StarboardBackfillJob.class)
+                .withIdentity(key(guildId, channelId))
+                .usingJobData(ATT_GUILD_ID, guildId.asString())
+                .usingJobData(ATT_CHANNEL_ID, channelId.asString())
+                .usingJobData(ATT_BEFORE, Snowflake.of(Instant.now()).asString())
+                .usingJobData(ATT_DONE, Boolean.FALSE.toString())
+                .storeDurably()
+                .build();
+    }
+
+    public static Trigger createTrigger(JobKey key){
+        return TriggerBuilder.newTrigger()
+                .forJob(key)
+                .withIdentity(key.getName(), GROUP)
+                .withSchedule(SimpleScheduleBuilder.repeatSecondlyForever(INTERVAL_SECONDS)
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .startNow()
+                .build();
+    }
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException{
+        JobDataMap data = context.getJobDetail().getJobDataMap();
+        if(Boolean.parseBoolean(data.getString(ATT_DONE))){
+            unschedule(context);
+            return;
+        }
+
+        Snowflake guildId = Snowflake.of(data.getString(ATT_GUILD_ID));
+        Snowflake channelId = Snowflake.of(data.getString(ATT_CHANNEL_ID));
+        Snowflake before = Snowflake.of(data.getString(ATT_BEFORE));
+        Snowflake selfId = discordService.gateway().getSelfId();
+
+        Tuple2<Long, Snowflake> scanned;
+        try{
+            scanned = discordService.gateway().getChannelById(channelId)
+                    // a deleted channel or one the bot can't see is never scanned
+                    .onErrorResume(ClientException.isStatusCode(403, 404), t -> Mono.empty())
+                    .ofType(GuildMessageChannel.class)
+                    .flatMapMany(channel -> channel.getMessagesBefore(before))
+                    .take(BATCH_SIZE)
+                    .concatMap(message -> index(guildId, selfId, message).thenReturn(message.getId()))
+                    .reduce(Tuples.of(0L, before), (acc, id) -> Tuples.of(acc.getT1() + 1, id))
+                    .block();
+        }catch(Throwable t){ // the cursor is kept, the next run retries the batch
+            throw new JobExecutionException(t);
+        }
+
+        // a channel that is gone, inaccessible or not a message channel scans nothing and is done too
+        if(scanned == null || scanned.getT1() < BATCH_SIZE){
+            log.info("Starboard channel {} of guild {} is indexed", channelId.asString(), guildId.asString());
+            data.put(ATT_DONE, Boolean.TRUE.toString());
+            unschedule(context);
+        }else{
+            data.put(ATT_BEFORE, scanned.getT2().asString());
+        }
+    }
+
+    private Mono<Void> index(Snowflake guildId, Snowflake selfId, Message message){
+        if(!message.getAuthor().map(User::getId).map(selfId::equals).orElse(false)){
+            return Mono.empty();
+        }
+
+        List<Embed> embeds = message.getEmbeds();
+        if(embeds.size() != 1 || embeds.get(0).getFields().isEmpty()){
+            return Mono.empty();
+        }
+
+        Matcher matcher = SOURCE_ID.matcher(embeds.get(0).getFields().get(0).getValue());
+        if(!matcher.find()){
+            return Mono.empty();
+        }
+
+        // scanned from the newest, so a reposted message keeps its latest post
+        Snowflake sourceId = Snowflake.of(matcher.group(1));
+        return entityRetriever.getStarboardBySourceId(guildId, sourceId)
+                .hasElement()
+                .flatMap(indexed -> indexed ? Mono.empty() : entityRetriever.createStarboard(guildId, sourceId, message.getId()))
+                .then();
+    }
+
+    private static void unschedule(JobExecutionContext context) throws JobExecutionException{
+        try{
+            context.getScheduler().unscheduleJob(context.getTrigger().getKey());
+        }catch(SchedulerException e){
+            throw new JobExecutionException(e);
+        }
+    }
+}
@@ -27,7 +27,8 @@ public interface AdminService{
 
     Mono<Void> unban(Member target);
 
-    Mono<Void> warn(Member admin, Member target, @Nullable String reason);
+    // the warnings count of the target once this one is committed
+    Mono<Long> warn(Member admin, Member target, @Nullable String reason);
 
     Mono<Void> unwarnAll(Snowflake guildId, Snowflake targetId);
 
@@ -43,6 +44,15 @@ public interface AdminService{
         return warnings(member.getGuildId(), member.getId());
     }
 
+    Mono<Long> warningsCount(Snowflake guildId, Snowflake targetId);
+
+    default Mono<Long> warningsCount(Member member){
+        return warningsCount(member.getGuildId(), member.getId());
+    }
+
+    // keyset page of warnings after the cursor id, or before it if backward; 0 is the first page
+    Mono<AdminActionPage> warningsPage(Snowflake guildId, Snowflake targetId, long cursor, boolean backward, int limit);
+
     Mono<Boolean> isOwner(Member member);
 
     Mono<Boolean> isAdmin(Member member);
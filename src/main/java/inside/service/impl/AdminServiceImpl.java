@@ -5,19 +5,21 @@ import discord4j.core.object.entity.*;
 import discord4j.rest.util.Permission;
 import inside.audit.*;
 import inside.data.entity.*;
+import inside.data.entity.snapshot.AdminConfigSnapshot;
 import inside.data.repository.AdminActionRepository;
-import inside.data.service.EntityRetriever;
+import inside.data.service.*;
 import inside.scheduler.job.*;
 import inside.service.AdminService;
 import inside.util.Try;
 import org.quartz.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.*;
 import reactor.util.annotation.Nullable;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.*;
 
@@ -27,39 +29,52 @@ import static reactor.function.TupleUtils.function;
 @Service
 public class AdminServiceImpl implements AdminService{
 
+    private static final PurgeEngine.Task EXPIRED_WARNINGS = new PurgeEngine.Task("admin_action", """
+            delete from admin_action where id in (select id from admin_action
+                                                  where type = 'warn' and end_timestamp <= ? and id > ?
+                                                  order by id limit ?)
+            returning id
+            """);
+
     private final AdminActionRepository repository;
     private final EntityRetriever entityRetriever;
     private final AuditService auditService;
     private final SchedulerFactoryBean schedulerFactoryBean;
+    private final PersistenceScheduler persistenceScheduler;
+    private final PurgeEngine purgeEngine;
+    private final UnitOfWorkManager unitOfWorkManager;
 
     public AdminServiceImpl(@Autowired AdminActionRepository repository,
                             @Autowired EntityRetriever entityRetriever,
                             @Autowired AuditService auditService,
-                            @Autowired SchedulerFactoryBean schedulerFactoryBean){
+                            @Autowired SchedulerFactoryBean schedulerFactoryBean,
+                            @Autowired PersistenceScheduler persistenceScheduler,
+                            @Autowired PurgeEngine purgeEngine,
+                            @Autowired UnitOfWorkManager unitOfWorkManager){
         this.repository = repository;
         this.entityRetriever = entityRetriever;
         this.auditService = auditService;
         this.schedulerFactoryBean = schedulerFactoryBean;
+        this.persistenceScheduler = persistenceScheduler;
+        this.purgeEngine = purgeEngine;
+        this.unitOfWorkManager = unitOfWorkManager;
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Flux<AdminAction> get(AdminActionType type, Snowflake guildId, Snowflake targetId){
-        return Flux.defer(() -> Flux.fromIterable(repository.find(type, guildId.asLong(), targetId.asLong())));
+        return persistenceScheduler.fromIterable(() -> repository.find(type, guildId.asLong(), targetId.asLong()));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Flux<AdminAction> getAll(AdminActionType type){
-        return Flux.defer(() -> Flux.fromIterable(repository.findAll(type)));
+        return persistenceScheduler.fromIterable(() -> repository.findAll(type));
     }
 
     @Override
-    @Transactional
     public Mono<Void> mute(Member admin, Member target, Instant endTimestamp, @Nullable String reason){
         Mono<Void> saveAction = entityRetriever.getAndUpdateLocalMemberById(admin)
                 .zipWith(entityRetriever.getAndUpdateLocalMemberById(target))
-                .flatMap(function((adminLocalMember, targetLocalMember) -> Mono.fromRunnable(() -> repository.save(AdminAction.builder()
+                .flatMap(function((adminLocalMember, targetLocalMember) -> persistenceScheduler.write(() -> repository.save(AdminAction.builder()
                         .guildId(admin.getGuildId().asLong())
                         .type(AdminActionType.mute)
                         .admin(adminLocalMember)
@@ -80,29 +95,27 @@ public class AdminServiceImpl implements AdminService{
                 .flatMap(adminConfig -> Mono.justOrEmpty(adminConfig.getMuteRoleID()))
                 .flatMap(target::addRole);
 
-        Mono<Void> scheduleUnmute = Mono.deferContextual(ctx -> Mono.fromRunnable(() -> Try.run(() ->
+        Mono<Void> scheduleUnmute = persistenceScheduler.fromRunnable(() -> Try.run(() ->
                 schedulerFactoryBean.getScheduler().scheduleJob(UnmuteJob.createDetails(target), TriggerBuilder.newTrigger()
                         .startAt(Date.from(endTimestamp))
                         .withSchedule(SimpleScheduleBuilder.simpleSchedule())
-                        .build()))));
+                        .build())));
 
         return Mono.when(saveAction, addRole, log, scheduleUnmute);
     }
 
     @Override
     public Mono<Boolean> isMuted(Snowflake guildId, Snowflake targetId){
-        return get(AdminActionType.mute, guildId, targetId).hasElements();
+        return persistenceScheduler.fromSupplier(() -> repository.exists(AdminActionType.mute, guildId.asLong(), targetId.asLong()));
     }
 
     @Override
-    @Transactional
     public Mono<Void> unmute(Member target){
-        Mono<Void> createIfAbsent = entityRetriever.getAndUpdateLocalMemberById(target)
-                .switchIfEmpty(entityRetriever.createLocalMember(target))
+        Mono<Void> createIfAbsent = entityRetriever.upsertLocalMember(target)
                 .then();
 
         Mono<Void> remove = get(AdminActionType.mute, target.getGuildId(), target.getId()).next()
-                .flatMap(adminAction -> Mono.fromRunnable(() -> repository.delete(adminAction)))
+                .flatMap(adminAction -> persistenceScheduler.write(() -> repository.delete(adminAction)))
                 .then();
 
         Mono<Void> log = auditService.newBuilder(target.getGuildId(), AuditActionType.MEMBER_UNMUTE)
@@ -118,10 +131,9 @@ public class AdminServiceImpl implements AdminService{
     }
 
     @Override
-    @Transactional
     public Mono<Void> unban(Member target){
         Mono<Void> remove = get(AdminActionType.mute, target.getGuildId(), target.getId()).next()
-                .flatMap(adminAction -> Mono.fromRunnable(() -> repository.delete(adminAction)))
+                .flatMap(adminAction -> persistenceScheduler.write(() -> repository.delete(adminAction)))
                 .then();
 
         Mono<Void> log = auditService.newBuilder(target.getGuildId(), AuditActionType.MEMBER_UNBAN)
@@ -135,19 +147,17 @@ public class AdminServiceImpl implements AdminService{
     }
 
     @Override
-    @Transactional
-    public Mono<Void> warn(Member admin, Member target, @Nullable String reason){
-        Mono<AdminConfig> getOrCreateAdminConfig = entityRetriever.getAdminConfigById(admin.getGuildId())
+    public Mono<Long> warn(Member admin, Member target, @Nullable String reason){
+        Mono<AdminConfigSnapshot> getOrCreateAdminConfig = entityRetriever.getAdminConfigById(admin.getGuildId())
                 .switchIfEmpty(entityRetriever.createAdminConfig(admin.getGuildId()));
 
-        Mono<LocalMember> getOrCreateAdmin = entityRetriever.getAndUpdateLocalMemberById(admin)
-                .switchIfEmpty(entityRetriever.createLocalMember(admin));
+        Mono<LocalMember> getOrCreateAdmin = entityRetriever.upsertLocalMember(admin);
 
-        Mono<LocalMember> getOrCreateTarget = entityRetriever.getAndUpdateLocalMemberById(target)
-                .switchIfEmpty(entityRetriever.createLocalMember(target));
+        Mono<LocalMember> getOrCreateTarget = entityRetriever.upsertLocalMember(target);
 
+        // the writes of the event are flushed before counting, the count must include this warning
         return Mono.zip(getOrCreateAdmin, getOrCreateTarget, getOrCreateAdminConfig)
-                .map(function((adminLocalMember, targetLocalMember, adminConfig) -> repository.save(AdminAction.builder()
+                .flatMap(function((adminLocalMember, targetLocalMember, adminConfig) -> persistenceScheduler.write(() -> repository.save(AdminAction.builder()
                         .guildId(admin.getGuildId().asLong())
                         .type(AdminActionType.warn)
                         .admin(adminLocalMember)
@@ -157,30 +167,29 @@ public class AdminServiceImpl implements AdminService{
                         .endTimestamp(Optional.ofNullable(adminConfig.getWarnExpireDelay())
                                 .map(duration -> Instant.now().plus(duration))
                                 .orElse(null))
-                        .build())))
-                .filter(action -> action.getEndTimestamp().isPresent())
-                .map(action -> Try.run(() -> schedulerFactoryBean.getScheduler().scheduleJob(UnwarnJob.createDetails(action), TriggerBuilder.newTrigger()
-                        .startAt(action.getEndTimestamp()
-                                .map(Date::from)
-                                .orElseThrow())
-                        .withSchedule(SimpleScheduleBuilder.simpleSchedule())
-                        .build())))
-                .then();
+                        .build()))))
+                .then(unitOfWorkManager.flush())
+                .then(warningsCount(target.getGuildId(), target.getId())); // expired warnings are removed by purgeExpiredWarnings
+    }
+
+    @Scheduled(cron = "0 * * * * *")
+    protected void purgeExpiredWarnings(){
+        purgeEngine.purge(EXPIRED_WARNINGS, Timestamp.from(Instant.now())).subscribe();
     }
 
     @Override
-    @Transactional
     public Mono<Void> unwarnAll(Snowflake guildId, Snowflake targetId){
         Objects.requireNonNull(guildId, "guildId");
         Objects.requireNonNull(targetId, "targetId");
-        return get(AdminActionType.warn, guildId, targetId).doOnNext(repository::delete).then(); // TODO: why spring doesn't execute 'delete from...'
+        return get(AdminActionType.warn, guildId, targetId)
+                .flatMap(action -> persistenceScheduler.write(() -> repository.delete(action)))
+                .then(); // TODO: why spring doesn't execute 'delete from...'
     }
 
     @Override
-    @Transactional
     public Mono<Void> unwarn(Snowflake guildId, Snowflake targetId, int index){
         return warnings(guildId, targetId).elementAt(index)
-                .flatMap(action -> Mono.fromRunnable(() -> repository.delete(action)));
+                .flatMap(action -> persistenceScheduler.write(() -> repository.delete(action)));
     }
 
     @Override
@@ -188,6 +197,17 @@ public class AdminServiceImpl implements AdminService{
         return get(AdminActionType.warn, guildId, targetId);
     }
 
+    @Override
+    public Mono<Long> warningsCount(Snowflake guildId, Snowflake targetId){
+        return persistenceScheduler.fromSupplier(() -> repository.count(AdminActionType.warn, guildId.asLong(), targetId.asLong()));
+    }
+
+    @Override
+    public Mono<AdminActionPage> warningsPage(Snowflake guildId, Snowflake targetId, long cursor, boolean backward, int limit){
+        return persistenceScheduler.fromSupplier(() -> repository.findPage(AdminActionType.warn,
+                guildId.asLong(), targetId.asLong(), cursor, backward, limit));
+    }
+
     @Override
     public Mono<Boolean> isOwner(Member member){
         Objects.requireNonNull(member, "member");
@@ -197,7 +217,7 @@ public class AdminServiceImpl implements AdminService{
     @Override
     public Mono<Boolean> isAdmin(Member member){
         Mono<Set<Snowflake>> roles = entityRetriever.getAdminConfigById(member.getGuildId())
-                .map(AdminConfig::getAdminRoleIds);
+                .map(AdminConfigSnapshot::getAdminRoleIds);
 
         Mono<Boolean> isPermissed = member.getRoles().map(Role::getId)
                 .filterWhen(id -> roles.map(list -> list.contains(id)))
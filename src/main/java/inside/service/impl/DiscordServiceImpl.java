@@ -7,6 +7,7 @@ import discord4j.common.*;
 import discord4j.common.util.Snowflake;
 import discord4j.core.*;
 import discord4j.core.event.ReactiveEventAdapter;
+import discord4j.core.event.domain.Event;
 import discord4j.core.object.command.ApplicationCommandOption;
 import discord4j.core.shard.MemberRequestFilter;
 import discord4j.discordjson.json.ApplicationCommandRequest;
@@ -18,7 +19,7 @@ import discord4j.rest.route.Routes;
 import discord4j.rest.util.*;
 import inside.Settings;
 import inside.data.entity.Activity;
-import inside.data.service.EntityRetriever;
+import inside.data.service.*;
 import inside.interaction.*;
 import inside.interaction.chatinput.InteractionChatInputCommand;
 import inside.interaction.chatinput.common.GuildCommand;
@@ -29,6 +30,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.util.*;
 
 import javax.annotation.*;
 import java.util.*;
@@ -38,6 +40,7 @@ import static reactor.function.TupleUtils.*;
 
 @Service
 public class DiscordServiceImpl implements DiscordService{
+    private static final Logger log = Loggers.getLogger(DiscordServiceImpl.class);
 
     private final Map<String, InteractionChatInputCommand> chatInputCommandMap = new LinkedHashMap<>();
     private final Map<String, UserInteractionCommand> userCommandMap = new LinkedHashMap<>();
@@ -56,6 +59,12 @@ public class DiscordServiceImpl implements DiscordService{
     @Autowired
     private EntityRetriever entityRetriever;
 
+    @Autowired
+    private ActivityAggregator activityAggregator;
+
+    @Autowired
+    private UnitOfWorkManager unitOfWorkManager;
+
     @PostConstruct
     public void init(){
         String token = settings.getToken();
@@ -119,7 +128,15 @@ public class DiscordServiceImpl implements DiscordService{
                         .registerCommands())
                 .subscribe();
 
-        gateway.on(ReactiveEventAdapter.from(adapters)).subscribe();
+        // writes of each event are committed together once all adapters are done with it
+        ReactiveEventAdapter adapter = ReactiveEventAdapter.from(adapters);
+        gateway.on(Event.class)
+                .flatMap(event -> unitOfWorkManager.within(event.getClass().getSimpleName(), adapter.hookOnEvent(event))
+                        .onErrorResume(t -> {
+                            log.error("Error while handling {}", event.getClass().getSimpleName(), t);
+                            return Mono.empty();
+                        }))
+                .subscribe();
     }
 
     @Override
@@ -165,7 +182,7 @@ public class DiscordServiceImpl implements DiscordService{
                     Activity activity = localMember.getActivity();
                     return activeUserConfig.isActive(activity) ? member.addRole(roleId) : member.removeRole(roleId);
                 }).and(Mono.defer(() -> activeUserConfig.resetIfAfter(localMember.getActivity())
-                        ? entityRetriever.save(localMember)
+                        ? activityAggregator.reset(localMember)
                         : Mono.empty()))))
                 .onErrorResume(ClientException.class, t -> Mono.empty())
                 .subscribe();
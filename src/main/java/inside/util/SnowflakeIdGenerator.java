@@ -1,12 +1,24 @@
 package inside.util;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// lock-free, the last issued timestamp and sequence are packed into one long and advanced with cas;
+// an exhausted millisecond borrows the next one instead of spinning, up to MAX_BORROW_MILLIS ahead of the clock
 public class SnowflakeIdGenerator{
+    public static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_BORROW_MILLIS = 100;
 
     protected final long epoch;
     protected final long workerId;
     protected final long processId;
-    protected long lastTimestamp = -1L;
-    protected long sequence = 0;
+
+    private final long node;
+    private final AtomicLong state = new AtomicLong();
 
     public SnowflakeIdGenerator(long epoch, long workerId, long processId){
         Preconditions.requireArgument(workerId <= 31 && workerId >= 0,
@@ -16,36 +28,58 @@ public class SnowflakeIdGenerator{
         this.epoch = epoch;
         this.workerId = workerId;
         this.processId = processId;
+        this.node = workerId << 17 | processId << 12;
+    }
+
+    public long getWorkerId(){
+        return workerId;
+    }
+
+    public long getProcessId(){
+        return processId;
+    }
+
+    public long nextId(){
+        return toId(reserve(1));
     }
 
-    public synchronized long nextId(){
-        long timestamp = System.currentTimeMillis();
-        if(timestamp < lastTimestamp){
-            throw new IllegalStateException("Clock moved backwards. Refusing to generate id for " +
-                    (lastTimestamp - timestamp) + " milliseconds");
+    // ids for a batched insert, one cas for the whole block
+    public long[] nextIds(int count){
+        Preconditions.requireArgument(count > 0 && count <= MAX_BLOCK_SIZE,
+                () -> "Block size must be in range [1, " + MAX_BLOCK_SIZE + "]");
+        long first = reserve(count);
+        long[] ids = new long[count];
+        for(int i = 0; i < count; i++){
+            ids[i] = toId(first + i); // the sequence carries over into the timestamp
         }
+        return ids;
+    }
 
-        if(lastTimestamp == timestamp){
-            sequence = sequence + 1 & 4095L;
-            if(sequence == 0){
-                timestamp = awaitNextMilli(lastTimestamp);
+    private long reserve(int count){
+        for(;;){
+            long last = state.get();
+            long now = System.currentTimeMillis() - epoch;
+            if((last >>> SEQUENCE_BITS) - now > MAX_BORROW_MILLIS){ // never borrowed that far
+                throw new IllegalStateException("Clock moved backwards. Refusing to generate id for " +
+                        ((last >>> SEQUENCE_BITS) - now) + " milliseconds");
             }
-        }else{
-            sequence = 0;
-        }
 
-        lastTimestamp = timestamp;
-        return timestamp - epoch << 22 |
-                workerId << 17 |
-                processId << 12 |
-                sequence;
-    }
+            long first = Math.max(last + 1, now << SEQUENCE_BITS);
+            long end = first + count - 1;
+            if((end >>> SEQUENCE_BITS) - now > MAX_BORROW_MILLIS){
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
 
-    private long awaitNextMilli(long lastTimestamp){
-        long timestamp = System.currentTimeMillis();
-        while(timestamp <= lastTimestamp){
-            timestamp = System.currentTimeMillis();
+            if(state.compareAndSet(last, end)){
+                return first;
+            }
         }
-        return timestamp;
+    }
+
+    private long toId(long packed){
+        return (packed >>> SEQUENCE_BITS) << 22 |
+                node |
+                packed & SEQUENCE_MASK;
     }
 }
@@ -1,10 +1,18 @@
 begin;
 
+-- lookups, counts and keyset pages of a member's actions
+create index on admin_action(guild_id, type, target_id, id);
+
 create unique index on emoji_dispenser(message_id, role_id);
 
+-- conflict target of the upsert, like local_member(guild_id, user_id)
+create unique index on guild_config(guild_id);
+
 create unique index on local_member(guild_id, user_id);
 
-create unique index on message_info(message_id);
+-- message_info indexes are in message_info_partitions.sql
+
+-- poll_answer indexes are in poll_votes.sql
 
 create unique index on starboard(guild_id, source_message_id);
 
@@ -0,0 +1,75 @@
+begin;
+
+-- message_info is range partitioned by day on "timestamp",
+-- retention drops whole partitions instead of deleting rows
+
+-- rows of a day already caught by the default partition are moved into the new partition,
+-- attaching the range would fail on them otherwise
+create or replace function create_message_info_partitions(from_day date, to_day date) returns void as $$
+declare
+    day date;
+    part text;
+begin
+    for day in select generate_series(from_day, to_day, interval '1 day')::date loop
+        part := 'message_info_p' || to_char(day, 'YYYYMMDD');
+        continue when to_regclass(part) is not null;
+
+        execute format('create table %I (like message_info including defaults including constraints)', part);
+        execute format('with moved as (delete from message_info_default where "timestamp" >= %L and "timestamp" < %L returning *) '
+                       'insert into %I select * from moved', day, day + 1, part);
+        execute format('alter table message_info attach partition %I for values from (%L) to (%L)', part, day, day + 1);
+    end loop;
+end;
+$$ language plpgsql;
+
+create or replace function drop_message_info_partitions(keep interval) returns integer as $$
+declare
+    part record;
+    dropped integer := 0;
+begin
+    for part in select c.relname from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = 'message_info'::regclass
+                  and c.relname ~ '^message_info_p\d{8}$'
+                  and to_date(substring(c.relname from 15), 'YYYYMMDD') + 1 <= (now() - keep)::date loop
+        execute format('alter table message_info detach partition %I', part.relname);
+        execute format('drop table %I', part.relname);
+        dropped := dropped + 1;
+    end loop;
+    -- the default partition is kept, its expired rows are deleted like the dropped days
+    delete from message_info_default where "timestamp" < (now() - keep)::date;
+    return dropped;
+end;
+$$ language plpgsql;
+
+alter table message_info rename to message_info_old;
+
+create table message_info(
+    id          bigint    not null,
+    guild_id    bigint    not null,
+    message_id  bigint    not null,
+    user_id     bigint    not null,
+    content     text,
+    "timestamp" timestamp not null,
+    primary key (id, "timestamp")
+) partition by range ("timestamp");
+
+-- unique indexes on a partitioned table must contain the partition key
+create unique index on message_info(message_id, "timestamp");
+
+create index on message_info(guild_id);
+
+-- catches rows outside of the created ranges, should stay empty;
+-- create_message_info_partitions moves them out and drop_message_info_partitions expires them
+create table message_info_default partition of message_info default;
+
+select create_message_info_partitions(
+        coalesce((select min("timestamp")::date from message_info_old), current_date),
+        current_date + 7);
+
+insert into message_info(id, guild_id, message_id, user_id, content, "timestamp")
+select id, guild_id, message_id, user_id, content, "timestamp" from message_info_old;
+
+drop table message_info_old;
+
+commit;
@@ -0,0 +1,54 @@
+begin;
+
+-- hot columns move from json to native types:
+-- local_member.last_role_ids -> bigint[], guild_config.prefixes -> text[],
+-- audit_config.types -> bigint bitmask of AuditActionType ordinals
+
+create function pg_temp.json_to_bigint_array(value json) returns bigint[] as $$
+    select coalesce(array_agg(e::bigint order by e::bigint), '{}') from json_array_elements_text(value) e
+$$ language sql immutable;
+
+create function pg_temp.json_to_text_array(value json) returns text[] as $$
+    select coalesce(array_agg(e), '{}') from json_array_elements_text(value) e
+$$ language sql immutable;
+
+-- names in AuditActionType declaration order, the bit is the ordinal
+create function pg_temp.json_to_audit_mask(value json) returns bigint as $$
+    select coalesce(bit_or(1::bigint << (array_position(array[
+        'MESSAGE_CREATE',
+        'MESSAGE_EDIT',
+        'MESSAGE_DELETE',
+        'MESSAGE_CLEAR',
+        'REACTION_ADD',
+        'REACTION_REMOVE',
+        'REACTION_REMOVE_ALL',
+        'VOICE_JOIN',
+        'VOICE_LEAVE',
+        'VOICE_MOVE',
+        'MEMBER_JOIN',
+        'MEMBER_LEAVE',
+        'MEMBER_KICK',
+        'MEMBER_BAN',
+        'MEMBER_MUTE',
+        'MEMBER_UNMUTE',
+        'MEMBER_UNBAN',
+        'MEMBER_AVATAR_UPDATE',
+        'MEMBER_NICKNAME_UPDATE',
+        'MEMBER_ROLE_ADD',
+        'MEMBER_ROLE_REMOVE'
+    ], e) - 1)), 0)
+    from json_array_elements_text(value) e
+$$ language sql immutable;
+
+alter table local_member alter column last_role_ids type bigint[]
+    using pg_temp.json_to_bigint_array(last_role_ids);
+
+alter table guild_config alter column prefixes type text[]
+    using pg_temp.json_to_text_array(prefixes);
+
+alter table audit_config alter column types type bigint
+    using pg_temp.json_to_audit_mask(types);
+
+alter table audit_config alter column types set default 0;
+
+commit;
@@ -0,0 +1,22 @@
+begin;
+
+-- per option vote counters of poll, maintained by PollRepository.vote
+
+alter table poll add column if not exists votes bigint[];
+
+-- keep the first vote of each user
+delete from poll_answer a
+using poll_answer b
+where a.pool_id = b.pool_id and a.user_id = b.user_id and a.id > b.id;
+
+update poll p set votes = (
+    select array_agg(coalesce(c.count, 0) order by o.i)
+    from generate_series(0, json_array_length(p.options) - 1) o(i)
+    left join (select option, count(*) as count from poll_answer
+               where pool_id = p.id group by option) c on c.option = o.i)
+where p.votes is null;
+
+-- conflict target of the vote insert
+create unique index if not exists poll_answer_pool_id_user_id_idx on poll_answer(pool_id, user_id);
+
+commit;
@@ -0,0 +1,224 @@
+package inside.data.cache;
+
+import inside.data.entity.base.GuildEntity;
+import org.junit.jupiter.api.*;
+import reactor.core.publisher.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CaffeineEntityCacheManagerTest{
+
+    private final ExecutorService loadExecutor = Executors.newFixedThreadPool(2);
+
+    private final CaffeineEntityCacheManager cacheManager = new CaffeineEntityCacheManager(Duration.ofMinutes(1), loadExecutor);
+
+    @AfterEach
+    public void shutdown(){
+        loadExecutor.shutdownNow();
+    }
+
+    private EntityCache<Long, Versioned> cache(Function<Long, Versioned> loader){
+        return cacheManager.getCache(Versioned.class, new CachePolicy(), loader);
+    }
+
+    @Test
+    public void writeThrough(){
+        AtomicInteger loads = new AtomicInteger();
+        EntityCache<Long, Versioned> cache = cache(id -> new Versioned(loads.incrementAndGet()));
+
+        assertEquals(1, Objects.requireNonNull(cache.get(1L).block()).version);
+
+        cache.put(1L, new Versioned(2));
+        assertEquals(2, Objects.requireNonNull(cache.get(1L).block()).version);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void absentReplacedByPut(){
+        EntityCache<Long, Versioned> cache = cache(id -> null);
+        assertNull(cache.get(1L).block());
+        assertTrue(cache.isAbsent(1L));
+
+        cache.put(1L, new Versioned(1));
+        assertFalse(cache.isAbsent(1L));
+        assertEquals(1, Objects.requireNonNull(cache.getIfPresent(1L)).version);
+    }
+
+    @Test
+    public void evictAllValues(){
+        EntityCache<Long, Versioned> cache = cache(id -> null);
+        cache.put(1L, new Versioned(1));
+        cache.put(2L, new Versioned(2));
+        cache.get(3L).block();
+
+        cache.evictAllValues(value -> value.version == 1);
+        assertNull(cache.getIfPresent(1L));
+        assertNotNull(cache.getIfPresent(2L));
+        assertTrue(cache.isAbsent(3L));
+    }
+
+    @Test
+    public void coalesceConcurrentMisses() throws Exception{
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        EntityCache<Long, Versioned> cache = cache(id -> {
+            loads.incrementAndGet();
+            try{
+                release.await();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            return new Versioned(1);
+        });
+
+        List<CompletableFuture<Versioned>> gets = new ArrayList<>();
+        for(int i = 0; i < 50; i++){
+            gets.add(cache.get(1L).toFuture());
+        }
+        release.countDown();
+
+        for(CompletableFuture<Versioned> get : gets){
+            assertEquals(1, get.get(10, TimeUnit.SECONDS).version);
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void cancelledSubscriberKeepsSharedLoad() throws Exception{
+        CountDownLatch release = new CountDownLatch(1);
+        EntityCache<Long, Versioned> cache = cache(id -> {
+            try{
+                release.await();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            return new Versioned(1);
+        });
+
+        cache.get(1L).subscribe().dispose();
+        CompletableFuture<Versioned> other = cache.get(1L).toFuture();
+        release.countDown();
+
+        assertEquals(1, other.get(10, TimeUnit.SECONDS).version);
+    }
+
+    @Test
+    public void reactiveLoaderCoalescesAndMarksAbsent(){
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<Versioned> row = Sinks.one();
+        EntityCache<Long, Versioned> cache = cacheManager.getReactiveCache(Versioned.class, new CachePolicy(),
+                (Long id) -> id == 1L ? row.asMono().doOnSubscribe(s -> loads.incrementAndGet()) : Mono.empty());
+
+        List<CompletableFuture<Versioned>> gets = new ArrayList<>();
+        for(int i = 0; i < 50; i++){
+            gets.add(cache.get(1L).toFuture());
+        }
+        row.tryEmitValue(new Versioned(1));
+
+        gets.forEach(get -> assertEquals(1, get.join().version));
+        assertEquals(1, loads.get());
+
+        assertNull(cache.get(2L).block());
+        assertTrue(cache.isAbsent(2L));
+    }
+
+    // one writer commits increasing versions and writes them through, while readers load
+    // through the cache and another thread keeps evicting; nobody may observe an older version
+    @Test
+    public void concurrentReadWrite() throws Exception{
+        int versions = 20000;
+        int readers = 4;
+        AtomicReference<Versioned> database = new AtomicReference<>(new Versioned(0));
+        AtomicBoolean done = new AtomicBoolean();
+        EntityCache<Long, Versioned> cache = cache(id -> database.get());
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 2);
+
+        try{
+            Future<?> writer = executor.submit(() -> {
+                for(int i = 1; i <= versions; i++){
+                    Versioned committed = new Versioned(i);
+                    database.set(committed);
+                    cache.put(1L, committed);
+                }
+                done.set(true);
+            });
+
+            Future<?> evictor = executor.submit(() -> {
+                while(!done.get()){
+                    cache.evict(1L);
+                    Thread.onSpinWait();
+                }
+            });
+
+            CompletableFuture<?>[] reads = new CompletableFuture[readers];
+            for(int r = 0; r < readers; r++){
+                reads[r] = CompletableFuture.runAsync(() -> {
+                    int last = -1;
+                    while(!done.get()){
+                        Versioned value = cache.get(1L).block();
+                        assertNotNull(value);
+                        assertTrue(value.version >= last, () -> "went back to an older version");
+                        last = value.version;
+                    }
+                }, executor);
+            }
+
+            writer.get(30, TimeUnit.SECONDS);
+            evictor.get(30, TimeUnit.SECONDS);
+            CompletableFuture.allOf(reads).get(30, TimeUnit.SECONDS);
+        }finally{
+            executor.shutdownNow();
+        }
+
+        assertEquals(versions, Objects.requireNonNull(cache.get(1L).block()).version);
+    }
+
+    // a full load queue fails the get instead of piling up loads
+    @Test
+    public void rejectedLoadFailsCaller() throws Exception{
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        CaffeineEntityCacheManager bounded = new CaffeineEntityCacheManager(Duration.ofMinutes(1), pool);
+        CountDownLatch release = new CountDownLatch(1);
+        EntityCache<Long, Versioned> cache = bounded.getCache(Versioned.class, new CachePolicy(), id -> {
+            try{
+                release.await();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            return new Versioned(id.intValue());
+        });
+
+        try{
+            CompletableFuture<Versioned> running = cache.get(1L).toFuture();
+            CompletableFuture<Versioned> queued = cache.get(2L).toFuture();
+
+            Throwable error = assertThrows(RuntimeException.class, () -> cache.get(3L).block());
+            while(error.getCause() != null && !(error instanceof RejectedExecutionException)){
+                error = error.getCause();
+            }
+            assertTrue(error instanceof RejectedExecutionException);
+
+            release.countDown();
+            assertEquals(1, running.get(30, TimeUnit.SECONDS).version);
+            assertEquals(2, queued.get(30, TimeUnit.SECONDS).version);
+        }finally{
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    static class Versioned extends GuildEntity{
+        final int version;
+
+        Versioned(int version){
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package inside.data.entity.snapshot;
+
+import discord4j.common.util.Snowflake;
+import inside.audit.AuditActionType;
+import inside.data.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigSnapshotTest{
+
+    @Test
+    public void auditSnapshotIsDetached(){
+        AuditConfig auditConfig = new AuditConfig();
+        auditConfig.setGuildId(Snowflake.of(1));
+        auditConfig.setEnabled(true);
+        auditConfig.setLogChannelId(Snowflake.of(2));
+        auditConfig.getTypes().add(AuditActionType.MESSAGE_CREATE);
+
+        AuditConfigSnapshot snapshot = AuditConfigSnapshot.of(auditConfig);
+        auditConfig.getTypes().clear();
+
+        assertTrue(snapshot.isEnabled(AuditActionType.MESSAGE_CREATE));
+        assertFalse(snapshot.isEnabled(AuditActionType.MESSAGE_DELETE));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getTypes().add(AuditActionType.MESSAGE_DELETE));
+    }
+
+    @Test
+    public void guildSnapshotIsDetached(){
+        GuildConfig guildConfig = new GuildConfig();
+        guildConfig.setGuildId(Snowflake.of(1));
+        guildConfig.prefixes(List.of("$"));
+        guildConfig.locale(Locale.ENGLISH);
+        guildConfig.timeZone(ZoneId.of("UTC"));
+
+        GuildConfigSnapshot snapshot = GuildConfigSnapshot.of(guildConfig);
+        guildConfig.prefixes().add("!");
+
+        assertEquals(List.of("$"), snapshot.prefixes());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.prefixes().add("!"));
+    }
+}
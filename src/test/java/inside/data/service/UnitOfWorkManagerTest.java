@@ -0,0 +1,145 @@
+package inside.data.service;
+
+import inside.Settings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.*;
+import org.springframework.transaction.support.*;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOfWorkManagerTest{
+
+    private final List<String> transactions = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PersistenceScheduler persistenceScheduler;
+    private UnitOfWorkManager manager;
+
+    @BeforeEach
+    public void setUp(){
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager(){
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition){
+                transactions.add("begin");
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status){
+                transactions.add("commit");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status){
+                transactions.add("rollback");
+            }
+        };
+
+        Settings settings = new Settings();
+        settings.getPersistence().setUnitOfWorkTimeout(Duration.ofMillis(100));
+        persistenceScheduler = new PersistenceScheduler(settings, null, meterRegistry);
+        manager = new UnitOfWorkManager(new TransactionTemplate(transactionManager), persistenceScheduler, settings, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        persistenceScheduler.destroy();
+    }
+
+    @Test
+    public void writesAreCommittedTogether(){
+        List<String> writes = new ArrayList<>();
+        List<String> committed = new ArrayList<>();
+
+        Mono<Void> handler = Mono.when(
+                UnitOfWork.current().doOnNext(unitOfWork -> unitOfWork.enqueue(() -> writes.add("a"),
+                        added -> committed.add("a"), () -> fail("rolled back"))),
+                persistenceScheduler.write(() -> writes.add("b")));
+
+        manager.within("test", handler).blockLast();
+
+        assertEquals(List.of("a", "b"), writes);
+        assertEquals(List.of("a"), committed);
+        assertEquals(List.of("begin", "commit"), transactions);
+        assertEquals(1, meterRegistry.get("insidebot.unit-of-work.statements").summary().count());
+    }
+
+    @Test
+    public void writesAreDiscardedOnError(){
+        List<String> rolledBack = new ArrayList<>();
+
+        Mono<Void> handler = UnitOfWork.current()
+                .doOnNext(unitOfWork -> unitOfWork.enqueue(() -> fail("written"),
+                        result -> fail("committed"), () -> rolledBack.add("a")))
+                .then(Mono.error(new IllegalStateException()));
+
+        assertThrows(IllegalStateException.class, () -> manager.within("test", handler).blockLast());
+
+        assertEquals(List.of("a"), rolledBack);
+        assertTrue(transactions.isEmpty());
+        assertEquals(1, meterRegistry.get("insidebot.unit-of-work.rollbacks").tag("cause", "error").counter().count());
+    }
+
+    @Test
+    public void failedFlushRunsRollbackCallbacks(){
+        List<String> rolledBack = new ArrayList<>();
+
+        Mono<Void> handler = UnitOfWork.current()
+                .doOnNext(unitOfWork -> unitOfWork.enqueue(() -> {
+                    throw new IllegalStateException();
+                }, result -> fail("committed"), () -> rolledBack.add("a")))
+                .then();
+
+        assertThrows(IllegalStateException.class, () -> manager.within("test", handler).blockLast());
+
+        assertEquals(List.of("a"), rolledBack);
+        assertEquals(List.of("begin", "rollback"), transactions);
+    }
+
+    @Test
+    public void closedUnitRejectsWrites(){
+        UnitOfWork unitOfWork = new UnitOfWork("test");
+        unitOfWork.close();
+
+        assertFalse(unitOfWork.enqueue(() -> fail("written")));
+        assertNull(unitOfWork.close());
+    }
+
+    @Test
+    public void neverCompletingHandlerIsCommittedAfterTimeout() throws Exception{
+        CompletableFuture<String> committed = new CompletableFuture<>();
+
+        Mono<Void> handler = UnitOfWork.current()
+                .doOnNext(unitOfWork -> unitOfWork.enqueue(() -> "a", committed::complete, () -> fail("rolled back")))
+                .then(Mono.never());
+
+        Disposable subscription = manager.within("test", handler).subscribe();
+        try{
+            assertEquals("a", committed.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of("begin", "commit"), transactions);
+        }finally{
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    public void flushCommitsPendingWrites(){
+        List<String> writes = new ArrayList<>();
+
+        Mono<Void> handler = persistenceScheduler.write(() -> writes.add("a"))
+                .then(manager.flush())
+                .then(Mono.fromRunnable(() -> assertEquals(List.of("a"), writes)))
+                .then(persistenceScheduler.write(() -> writes.add("b")));
+
+        manager.within("test", handler).blockLast();
+
+        assertEquals(List.of("a", "b"), writes);
+        assertEquals(List.of("begin", "commit", "begin", "commit"), transactions);
+    }
+}
@@ -0,0 +1,77 @@
+package inside.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnowflakeIdGeneratorTest{
+    private static final long EPOCH = 1598384634000L;
+
+    @Test
+    public void idsAreUniqueUnderContention() throws Exception{
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 3, 7);
+        int threads = 8, perThread = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try{
+            List<Future<long[]>> futures = new ArrayList<>();
+            for(int i = 0; i < threads; i++){
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for(int j = 0; j < perThread; j++){
+                        // mixed single ids and blocks
+                        if(j % 100 == 0 && j + 10 <= perThread){
+                            System.arraycopy(generator.nextIds(10), 0, ids, j, 10);
+                            j += 9;
+                        }else{
+                            ids[j] = generator.nextId();
+                        }
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<Long> all = new HashSet<>(threads * perThread);
+            for(Future<long[]> future : futures){
+                long[] ids = future.get();
+                for(int i = 1; i < ids.length; i++){
+                    assertTrue(ids[i] > ids[i - 1], "ids of a thread are increasing");
+                }
+                for(long id : ids){
+                    assertTrue(all.add(id), "duplicate id");
+                }
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void blockCarriesOverIntoNextMillisecond(){
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(EPOCH, 31, 31);
+        long[] ids = generator.nextIds(SnowflakeIdGenerator.MAX_BLOCK_SIZE);
+        for(int i = 1; i < ids.length; i++){
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertEquals(31, ids[ids.length - 1] >>> 17 & 31);
+        assertEquals(31, ids[ids.length - 1] >>> 12 & 31);
+        assertTrue(generator.nextId() > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void timestampIsCurrent(){
+        long before = System.currentTimeMillis();
+        long id = new SnowflakeIdGenerator(EPOCH, 0, 0).nextId();
+        long timestamp = (id >>> 22) + EPOCH;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void invalidArguments(){
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, 32, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, 0, 0).nextIds(0));
+    }
+}